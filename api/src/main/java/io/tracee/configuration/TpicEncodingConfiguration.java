@@ -0,0 +1,22 @@
+package io.tracee.configuration;
+
+/**
+ * Optional extension of a {@link TraceeFilterConfiguration} that selects how bindings encode the context and
+ * split it into header fields. Bindings fall back
+ * to their defaults if the configuration of the backend does not implement it.
+ */
+public interface TpicEncodingConfiguration {
+
+	/**
+	 * @return the {@link io.tracee.spi.TpicCodec#getName() name} of the codec that bindings which support exchangeable codecs
+	 * (e.g. messaging bindings) should use to encode the context, or {@code null} to use the default of the binding.
+	 */
+	String codecName();
+
+	/**
+	 * @return {@code true} if HTTP bindings should send the long-lived invocation and session id and the remaining context
+	 * parameters in separate TPIC header fields, so that HTTP/2 header compression can index the long-lived field.
+	 */
+	boolean shouldSplitStableKeys();
+
+}
@@ -60,8 +60,11 @@ public interface TraceeFilterConfiguration {
 	boolean shouldProcessParam(String paramName, Channel channel);
 
 	/**
-	 * Returns a map that is a filtered copy of the given {@code unfiltered} map. It contains only keys, that
-	 * are allowed to be processed on this channel.
+	 * Returns a read-only map that holds only the entries of the given {@code unfiltered} map whose keys are allowed to be
+	 * processed on this channel.
+	 * <p/>
+	 * The result may be a view of {@code unfiltered} (e.g. if all keys are allowed), so callers must neither modify the
+	 * result nor the given map while they use the result.
 	 */
 	Map<String, String> filterDeniedParams(Map<String, String> unfiltered, Channel channel);
 
@@ -0,0 +1,30 @@
+package io.tracee.spi;
+
+import java.util.Map;
+
+/**
+ * Encodes a TPIC into bytes and decodes it again.
+ * <p/>
+ * Codecs are discovered with {@link java.util.ServiceLoader} and selected per profile by their {@link #getName() name},
+ * e.g. {@code tracee.default.codec=binary}. Decoders pick the codec of a serialized TPIC with {@link #canDecode(byte[])},
+ * so the signature of a format must not be mistaken for another one. Implementations must be thread-safe.
+ */
+public interface TpicCodec {
+
+	/**
+	 * @return the unique name that selects this codec in the configuration
+	 */
+	String getName();
+
+	/**
+	 * @return {@code true} if the given bytes look like a TPIC that was encoded by this codec
+	 */
+	boolean canDecode(byte[] serialized);
+
+	byte[] encode(Map<String, String> context);
+
+	/**
+	 * @return the decoded TPIC, an empty map if the given bytes are malformed
+	 */
+	Map<String, String> decode(byte[] serialized);
+}
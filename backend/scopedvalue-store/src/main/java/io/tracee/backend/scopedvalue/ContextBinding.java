@@ -0,0 +1,83 @@
+package io.tracee.backend.scopedvalue;
+
+import io.tracee.PersistentContextMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Binds a {@link Scope} to the current thread for the duration of a call.
+ */
+abstract class ContextBinding {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ContextBinding.class);
+
+	/**
+	 * @return the innermost scope that is bound to the current thread or {@code null} if there is none
+	 */
+	abstract Scope current();
+
+	/**
+	 * Calls the given callable with the given scope bound to the current thread.
+	 */
+	abstract <T> T call(Scope scope, Callable<T> callable) throws Exception;
+
+	/**
+	 * @return a binding based on {@code java.lang.ScopedValue} if the JDK provides it, otherwise a binding based on
+	 * plain thread locals
+	 */
+	static ContextBinding detect() {
+		try {
+			return new ScopedValueContextBinding();
+		} catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+			LOGGER.debug("ScopedValue is not available, bind contexts to thread locals instead: {}", e.toString());
+			return new ThreadLocalContextBinding();
+		}
+	}
+
+	/**
+	 * The context of an invocation. Only its owner modifies the context; other threads that inherit the scope (e.g.
+	 * subtasks of a {@code StructuredTaskScope}) read it until they modify it, then they work on a scope of their own that
+	 * starts with the context of its parent.
+	 */
+	static final class Scope {
+		private final Thread owner;
+		private final Scope parent;
+		private volatile PersistentContextMap context;
+		private volatile boolean copied;
+
+		Scope(final Thread owner, final Scope parent, final PersistentContextMap context) {
+			this.owner = owner;
+			this.parent = parent;
+			this.context = context;
+		}
+
+		Thread getOwner() {
+			return owner;
+		}
+
+		Scope getParent() {
+			return parent;
+		}
+
+		PersistentContextMap getContext() {
+			return context;
+		}
+
+		void setContext(final PersistentContextMap context) {
+			this.context = context;
+		}
+
+		/**
+		 * @return {@code true} if a thread that inherited this scope works on a copy of its own, so readers have to look it up
+		 */
+		boolean isCopied() {
+			return copied;
+		}
+
+		void markCopied() {
+			copied = true;
+		}
+	}
+}
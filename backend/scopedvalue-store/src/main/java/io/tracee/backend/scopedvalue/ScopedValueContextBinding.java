@@ -0,0 +1,77 @@
+package io.tracee.backend.scopedvalue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+
+/**
+ * Binds scopes to a {@code java.lang.ScopedValue}, which subtasks of a {@code StructuredTaskScope} inherit without
+ * copying. The API is accessed reflectively, because TracEE is built for older JDKs; it only uses the methods that are
+ * available from JDK 21 on.
+ */
+final class ScopedValueContextBinding extends ContextBinding {
+
+	private final Object scopedValue;
+	private final Method where;
+	private final Method run;
+	private final Method isBound;
+	private final Method get;
+
+	ScopedValueContextBinding() throws ReflectiveOperationException {
+		final Class<?> scopedValueClass = Class.forName("java.lang.ScopedValue");
+		final Class<?> carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+		scopedValue = scopedValueClass.getMethod("newInstance").invoke(null);
+		where = scopedValueClass.getMethod("where", scopedValueClass, Object.class);
+		run = carrierClass.getMethod("run", Runnable.class);
+		isBound = scopedValueClass.getMethod("isBound");
+		get = scopedValueClass.getMethod("get");
+	}
+
+	@Override
+	Scope current() {
+		try {
+			return (Boolean) isBound.invoke(scopedValue) ? (Scope) get.invoke(scopedValue) : null;
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Unable to read ScopedValue", e);
+		}
+	}
+
+	@Override
+	<T> T call(final Scope scope, final Callable<T> callable) throws Exception {
+		final Invocation<T> invocation = new Invocation<>(callable);
+		try {
+			run.invoke(where.invoke(null, scopedValue, scope), invocation);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException("Unable to bind ScopedValue", e.getCause());
+		}
+		if (invocation.failure != null) {
+			throw invocation.failure;
+		}
+		return invocation.result;
+	}
+
+	/**
+	 * Adapts the callable to {@code Carrier.run}, whose signature is the same in all JDKs that provide ScopedValue.
+	 */
+	private static final class Invocation<T> implements Runnable {
+		private final Callable<T> callable;
+		private T result;
+		private Exception failure;
+
+		private Invocation(final Callable<T> callable) {
+			this.callable = callable;
+		}
+
+		@Override
+		public void run() {
+			try {
+				result = callable.call();
+			} catch (Exception e) {
+				failure = e;
+			}
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package io.tracee.backend.scopedvalue;
+
+import io.tracee.BackendBase;
+import io.tracee.PersistentContextMap;
+import io.tracee.backend.scopedvalue.ContextBinding.Scope;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+/**
+ * A backend that holds the context of an invocation in a {@link PersistentContextMap} that is bound to a
+ * {@code java.lang.ScopedValue}, see {@link #callWithContext(Map, Callable)}. The context is never copied into other
+ * threads: subtasks of a {@code StructuredTaskScope} read the context of their parent and copy it on their first modification.
+ * <p/>
+ * Outside of a bound invocation, e.g. in bindings that {@link #put(String, String) put} the incoming context, the
+ * context is held by a plain, non-inheritable thread local whose entry is removed on {@link #clear()}. On JDKs without
+ * ScopedValue the invocations are bound to a thread local as well.
+ */
+public class ScopedValueTraceeBackend extends BackendBase {
+
+	private final ContextBinding binding;
+
+	private final ThreadLocal<Scope> unboundScope = new ThreadLocal<>();
+
+	ScopedValueTraceeBackend() {
+		this(ContextBinding.detect());
+	}
+
+	ScopedValueTraceeBackend(final ContextBinding binding) {
+		this.binding = binding;
+	}
+
+	/**
+	 * Calls the given callable with the given context bound to the current thread. Modifications of the context within
+	 * the call are discarded when it returns, the previous context is visible again.
+	 */
+	public <T> T callWithContext(final Map<String, String> context, final Callable<T> callable) throws Exception {
+		final Scope scope = new Scope(Thread.currentThread(), null, PersistentContextMap.copyOf(context));
+		return binding.call(scope, callable);
+	}
+
+	/**
+	 * Runs the given runnable with the given context bound to the current thread, see {@link #callWithContext(Map, Callable)}.
+	 */
+	public void runWithContext(final Map<String, String> context, final Runnable runnable) {
+		try {
+			callWithContext(context, Executors.callable(runnable));
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException("Runnable threw checked exception", e);
+		}
+	}
+
+	/**
+	 * Threads that inherited the scope of another thread read its context directly and copy it on their first write only.
+	 *
+	 * @param writable {@code true} to get a scope of the current thread, which is created if necessary
+	 * @return the scope the current thread works on or {@code null} if there is none and none should be created
+	 */
+	private Scope currentScope(final boolean writable) {
+		final Thread currentThread = Thread.currentThread();
+		final Scope bound = binding.current();
+		if (bound != null && (bound.getOwner() == currentThread || !writable && !bound.isCopied())) {
+			return bound;
+		}
+		final Scope local = unboundScope.get();
+		if (local != null && local.getParent() == bound) {
+			return local;
+		}
+		if (!writable) {
+			if (local != null) {
+				// left over by a scope that has ended
+				unboundScope.remove();
+			}
+			return bound;
+		}
+		final Scope scope = new Scope(currentThread, bound, bound == null ? PersistentContextMap.EMPTY : bound.getContext());
+		unboundScope.set(scope);
+		if (bound != null) {
+			bound.markCopied();
+		}
+		return scope;
+	}
+
+	private PersistentContextMap context() {
+		final Scope scope = currentScope(false);
+		return scope == null ? PersistentContextMap.EMPTY : scope.getContext();
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return context().containsKey(key);
+	}
+
+	@Override
+	public int size() {
+		return context().size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return context().isEmpty();
+	}
+
+	@Override
+	public String get(String key) {
+		return context().get(key);
+	}
+
+	@Override
+	public void put(String key, String value) {
+		final Scope scope = currentScope(true);
+		final PersistentContextMap context = scope.getContext();
+		final PersistentContextMap modified = context.with(key, value);
+		if (modified != context) {
+			scope.setContext(modified);
+		}
+	}
+
+	@Override
+	public void remove(String key) {
+		final PersistentContextMap context = context();
+		final PersistentContextMap modified = context.without(key);
+		if (modified != context) {
+			currentScope(true).setContext(modified);
+		}
+	}
+
+	@Override
+	public void clear() {
+		final Scope scope = currentScope(false);
+		if (scope != null) {
+			if (!scope.getContext().isEmpty()) {
+				currentScope(true).setContext(PersistentContextMap.EMPTY);
+				markCleared();
+			}
+			if (scope.getParent() == null && scope == unboundScope.get()) {
+				unboundScope.remove();
+			}
+		}
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends String> entries) {
+		for (Map.Entry<? extends String, ? extends String> entry : entries.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	protected Set<String> contextKeys() {
+		return context().keySet();
+	}
+
+	@Override
+	public Map<String, String> copyToMap() {
+		return new HashMap<>(context());
+	}
+
+	@Override
+	public PersistentContextMap snapshot() {
+		return context();
+	}
+
+	/**
+	 * Every modification replaces the immutable context, so the context itself tells whether a rendered context is still
+	 * valid, also for threads that read the inherited context of another thread. Modifications are therefore not counted
+	 * per thread, which would allocate the caches of {@link BackendBase} in every thread that touches the context.
+	 */
+	@Override
+	protected Object contextIdentity() {
+		return context();
+	}
+
+	@Override
+	public void restore(Map<String, String> snapshot) {
+		final PersistentContextMap restored = PersistentContextMap.copyOf(snapshot);
+		if (restored.isEmpty()) {
+			clear();
+			return;
+		}
+		if (context() != restored) {
+			currentScope(true).setContext(restored);
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package io.tracee.backend.scopedvalue;
+
+import io.tracee.TraceeBackend;
+import io.tracee.spi.TraceeBackendProvider;
+
+public class ScopedValueTraceeBackendProvider implements TraceeBackendProvider {
+
+	private final ScopedValueTraceeBackend backend = new ScopedValueTraceeBackend();
+
+	@Override
+	public final TraceeBackend provideBackend() {
+		return backend;
+	}
+
+}
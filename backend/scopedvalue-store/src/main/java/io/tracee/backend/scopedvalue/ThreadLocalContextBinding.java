@@ -0,0 +1,32 @@
+package io.tracee.backend.scopedvalue;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Fallback for JDKs without {@code java.lang.ScopedValue}. Scopes are bound to a plain, non-inheritable thread local
+ * whose entry is removed when the outermost call returns.
+ */
+final class ThreadLocalContextBinding extends ContextBinding {
+
+	private final ThreadLocal<Scope> scopes = new ThreadLocal<>();
+
+	@Override
+	Scope current() {
+		return scopes.get();
+	}
+
+	@Override
+	<T> T call(final Scope scope, final Callable<T> callable) throws Exception {
+		final Scope previous = scopes.get();
+		scopes.set(scope);
+		try {
+			return callable.call();
+		} finally {
+			if (previous == null) {
+				scopes.remove();
+			} else {
+				scopes.set(previous);
+			}
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package io.tracee.backend.scopedvalue;
+
+import io.tracee.PersistentContextMap;
+import io.tracee.backend.scopedvalue.ContextBinding.Scope;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeNoException;
+
+public class ScopedValueContextBindingTest {
+
+	private ScopedValueContextBinding unit;
+
+	@Before
+	public void before() {
+		try {
+			unit = new ScopedValueContextBinding();
+		} catch (ReflectiveOperationException e) {
+			assumeNoException("ScopedValue requires JDK 21 or later", e);
+		}
+	}
+
+	@Test
+	public void scopeShouldBeBoundDuringCallOnly() throws Exception {
+		final Scope scope = new Scope(Thread.currentThread(), null, PersistentContextMap.EMPTY);
+		final Scope bound = unit.call(scope, new Callable<Scope>() {
+			@Override
+			public Scope call() {
+				return unit.current();
+			}
+		});
+		assertThat(bound, is(sameInstance(scope)));
+		assertThat(unit.current(), is(nullValue()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void exceptionOfCallShouldBePropagated() throws Exception {
+		unit.call(new Scope(Thread.currentThread(), null, PersistentContextMap.EMPTY), new Callable<Object>() {
+			@Override
+			public Object call() {
+				throw new IllegalStateException();
+			}
+		});
+	}
+}
@@ -0,0 +1,17 @@
+package io.tracee.backend.scopedvalue;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertThat;
+
+public class ScopedValueTraceeBackendProviderTest {
+
+	private final ScopedValueTraceeBackendProvider unit = new ScopedValueTraceeBackendProvider();
+
+	@Test
+	public void testProvideBackend() {
+		assertThat(unit.provideBackend(), instanceOf(ScopedValueTraceeBackend.class));
+	}
+
+}
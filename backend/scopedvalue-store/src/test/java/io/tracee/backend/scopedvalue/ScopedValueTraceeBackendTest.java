@@ -0,0 +1,201 @@
+package io.tracee.backend.scopedvalue;
+
+import io.tracee.BackendBase;
+import io.tracee.PersistentContextMap;
+import io.tracee.backend.scopedvalue.ContextBinding.Scope;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.transport.HttpHeaderTransport;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ScopedValueTraceeBackendTest {
+
+	private final ScopedValueTraceeBackend unit = new ScopedValueTraceeBackend(new ThreadLocalContextBinding());
+
+	@After
+	public void after() {
+		unit.clear();
+	}
+
+	@Test
+	public void putShouldStoreValueOutsideOfBoundInvocation() {
+		unit.put("key1", "value1");
+		assertThat(unit.get("key1"), is("value1"));
+		assertThat(unit.size(), is(1));
+		assertThat(unit.isEmpty(), is(false));
+	}
+
+	@Test
+	public void clearShouldEmptyContext() {
+		unit.put("key1", "value1");
+		unit.clear();
+		assertThat(unit.isEmpty(), is(true));
+		assertThat(unit.get("key1"), is(nullValue()));
+	}
+
+	@Test
+	public void boundContextShouldBeVisibleWithinInvocationOnly() throws Exception {
+		unit.put("outer", "value");
+		final String value = unit.callWithContext(Collections.singletonMap("inner", "value"), new Callable<String>() {
+			@Override
+			public String call() {
+				assertThat(unit.containsKey("outer"), is(false));
+				unit.put("modified", "within");
+				return unit.get("inner");
+			}
+		});
+		assertThat(value, is("value"));
+		assertThat(unit.copyToMap(), is(Collections.singletonMap("outer", "value")));
+	}
+
+	@Test
+	public void renderedContextShouldFollowInvocationWhenItIsEnteredAndLeft() {
+		final TraceeFilterConfiguration configuration = unit.getConfiguration();
+		final HttpHeaderTransport transport = new HttpHeaderTransport();
+		final AtomicReference<String> renderedWithin = new AtomicReference<>();
+		unit.put("outer", "value");
+		assertThat(unit.renderContext(configuration, OutgoingRequest, transport), is("outer=value"));
+		unit.runWithContext(Collections.singletonMap("key1", "value1"), new Runnable() {
+			@Override
+			public void run() {
+				renderedWithin.set(unit.renderContext(configuration, OutgoingRequest, transport));
+			}
+		});
+		assertThat(renderedWithin.get(), is("key1=value1"));
+		assertThat(unit.renderContext(configuration, OutgoingRequest, transport), is("outer=value"));
+	}
+
+	@Test
+	public void modificationsShouldNotAllocateCachesOfThread() throws Exception {
+		final Field threadState = BackendBase.class.getDeclaredField("threadState");
+		threadState.setAccessible(true);
+		final AtomicReference<Object> stateOfThread = new AtomicReference<>();
+		final Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				unit.put("key1", "value1");
+				unit.remove("key1");
+				unit.put("key2", "value2");
+				unit.clear();
+				try {
+					stateOfThread.set(((ThreadLocal<?>) threadState.get(unit)).get());
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		thread.start();
+		thread.join();
+		assertThat(stateOfThread.get(), is(nullValue()));
+	}
+
+	@Test
+	public void threadShouldNotInheritUnboundContext() throws InterruptedException {
+		unit.put("key1", "value1");
+		final AtomicReference<Boolean> childIsEmpty = new AtomicReference<>();
+		final Thread child = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				childIsEmpty.set(unit.isEmpty());
+			}
+		});
+		child.start();
+		child.join();
+		assertThat(childIsEmpty.get(), is(true));
+	}
+
+	@Test
+	public void threadThatInheritsScopeShouldModifyItsOwnContext() throws InterruptedException {
+		final Scope inherited = new Scope(new Thread(), null, PersistentContextMap.EMPTY.with("key1", "value1"));
+		final ScopedValueTraceeBackend inheritingUnit = new ScopedValueTraceeBackend(new ContextBinding() {
+			@Override
+			Scope current() {
+				return inherited;
+			}
+
+			@Override
+			<T> T call(Scope scope, Callable<T> callable) throws Exception {
+				throw new UnsupportedOperationException();
+			}
+		});
+
+		assertThat(inheritingUnit.snapshot(), is(sameInstance(inherited.getContext())));
+		assertThat(inherited.isCopied(), is(false));
+		inheritingUnit.put("key2", "value2");
+		assertThat(inheritingUnit.size(), is(2));
+		assertThat(inherited.getContext().size(), is(1));
+		assertThat(inherited.isCopied(), is(true));
+	}
+
+	@Test
+	public void threadThatInheritsScopeShouldReadContextOfOwnerWithoutCopy() {
+		final Scope inherited = new Scope(new Thread(), null, PersistentContextMap.EMPTY.with("key1", "value1"));
+		final ScopedValueTraceeBackend inheritingUnit = new ScopedValueTraceeBackend(new ContextBinding() {
+			@Override
+			Scope current() {
+				return inherited;
+			}
+
+			@Override
+			<T> T call(Scope scope, Callable<T> callable) throws Exception {
+				throw new UnsupportedOperationException();
+			}
+		});
+		final TraceeFilterConfiguration configuration = inheritingUnit.getConfiguration();
+		final HttpHeaderTransport transport = new HttpHeaderTransport();
+
+		assertThat(inheritingUnit.renderContext(configuration, OutgoingRequest, transport), is("key1=value1"));
+		inherited.setContext(inherited.getContext().with("key2", "value2"));
+		assertThat(inheritingUnit.get("key2"), is("value2"));
+		assertThat(inheritingUnit.renderContext(configuration, OutgoingRequest, transport), is("key1=value1,key2=value2"));
+		inheritingUnit.remove("unknown");
+		assertThat(inherited.isCopied(), is(false));
+	}
+
+	@Test
+	public void restoreShouldSwapContext() {
+		unit.put("key1", "value1");
+		final Map<String, String> snapshot = unit.snapshot();
+		unit.put("key2", "value2");
+
+		unit.restore(snapshot);
+		assertThat(unit.snapshot(), is(sameInstance(snapshot)));
+		unit.restore(PersistentContextMap.EMPTY);
+		assertThat(unit.isEmpty(), is(true));
+	}
+
+	@Test
+	public void detectedBindingShouldBindContext() throws Exception {
+		final ScopedValueTraceeBackend detectedUnit = new ScopedValueTraceeBackend();
+		final String value = detectedUnit.callWithContext(Collections.singletonMap("key1", "value1"), new Callable<String>() {
+			@Override
+			public String call() {
+				return detectedUnit.get("key1");
+			}
+		});
+		assertThat(value, is("value1"));
+		assertThat(detectedUnit.isEmpty(), is(true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void exceptionOfInvocationShouldBePropagated() throws Exception {
+		unit.callWithContext(PersistentContextMap.EMPTY, new Callable<Object>() {
+			@Override
+			public Object call() {
+				throw new IllegalArgumentException();
+			}
+		});
+	}
+}
@@ -1,21 +1,20 @@
 package io.tracee.backend.threadlocalstore;
 
-import java.util.HashMap;
-import java.util.Map;
+import io.tracee.PersistentContextMap;
 
-class ThreadLocalMap<K, V> extends InheritableThreadLocal<Map<K, V>> {
+/**
+ * Holds the immutable context of each thread. Child threads share the context of their parent until one of them
+ * modifies its context.
+ */
+class ThreadLocalMap extends InheritableThreadLocal<PersistentContextMap> {
 
 	@Override
-	protected final Map<K, V> initialValue() {
-		return new HashMap<>();
+	protected final PersistentContextMap initialValue() {
+		return PersistentContextMap.EMPTY;
 	}
 
 	@Override
-	protected final Map<K, V> childValue(Map<K, V> parentValue) {
-		if (parentValue == null) {
-			return null;
-		} else {
-			return new HashMap<>(parentValue);
-		}
+	protected final PersistentContextMap childValue(PersistentContextMap parentValue) {
+		return parentValue;
 	}
 }
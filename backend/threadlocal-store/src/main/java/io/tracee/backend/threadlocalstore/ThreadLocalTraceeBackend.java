@@ -1,16 +1,25 @@
 package io.tracee.backend.threadlocalstore;
 
 import io.tracee.BackendBase;
+import io.tracee.PersistentContextMap;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 class ThreadLocalTraceeBackend extends BackendBase {
 
-	private final ThreadLocalMap<String, String> threadLocalMap;
+	private final ThreadLocal<PersistentContextMap> threadLocalMap;
 
 	public ThreadLocalTraceeBackend() {
-		this.threadLocalMap = new ThreadLocalMap<>();
+		this(true);
+	}
+
+	/**
+	 * @param inheritContext whether threads inherit the context of the thread that creates them
+	 */
+	ThreadLocalTraceeBackend(boolean inheritContext) {
+		this.threadLocalMap = inheritContext ? new ThreadLocalMap() : new NonInheritableThreadLocalMap();
 	}
 
 
@@ -36,22 +45,42 @@ class ThreadLocalTraceeBackend extends BackendBase {
 
 	@Override
 	public void put(String key, String value) {
-		threadLocalMap.get().put(key, value);
+		final PersistentContextMap context = threadLocalMap.get();
+		final PersistentContextMap modified = context.with(key, value);
+		if (modified != context) {
+			threadLocalMap.set(modified);
+			markModified();
+		}
 	}
 
 	@Override
 	public void remove(String key) {
-		threadLocalMap.get().remove(key);
+		final PersistentContextMap context = threadLocalMap.get();
+		final PersistentContextMap modified = context.without(key);
+		if (modified != context) {
+			threadLocalMap.set(modified);
+			markModified();
+		}
 	}
 
 	@Override
 	public void clear() {
-		threadLocalMap.get().clear();
+		if (!threadLocalMap.get().isEmpty()) {
+			markCleared();
+		}
+		threadLocalMap.remove();
 	}
 
 	@Override
 	public void putAll(Map<? extends String, ? extends String> entries) {
-		threadLocalMap.get().putAll(entries);
+		for (Map.Entry<? extends String, ? extends String> entry : entries.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	protected Set<String> contextKeys() {
+		return threadLocalMap.get().keySet();
 	}
 
 	@Override
@@ -59,7 +88,36 @@ class ThreadLocalTraceeBackend extends BackendBase {
 		return new HashMap<>(threadLocalMap.get());
 	}
 
-	ThreadLocalMap<String, String> getThreadLocalMap() {
+	/**
+	 * @return the context of the current thread itself, snapshots are free
+	 */
+	@Override
+	public PersistentContextMap snapshot() {
+		return threadLocalMap.get();
+	}
+
+	/**
+	 * Swaps the context of the current thread with the given snapshot.
+	 */
+	@Override
+	public void restore(Map<String, String> snapshot) {
+		final PersistentContextMap restored = PersistentContextMap.copyOf(snapshot);
+		if (restored.isEmpty()) {
+			clear();
+		} else if (restored != threadLocalMap.get()) {
+			threadLocalMap.set(restored);
+			markModified();
+		}
+	}
+
+	ThreadLocal<PersistentContextMap> getThreadLocalMap() {
 		return threadLocalMap;
 	}
+
+	private static final class NonInheritableThreadLocalMap extends ThreadLocal<PersistentContextMap> {
+		@Override
+		protected PersistentContextMap initialValue() {
+			return PersistentContextMap.EMPTY;
+		}
+	}
 }
@@ -1,11 +1,13 @@
 package io.tracee.backend.threadlocalstore;
 
 import io.tracee.TraceeBackend;
+import io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration;
 import io.tracee.spi.TraceeBackendProvider;
 
 public class ThreadLocalTraceeBackendProvider implements TraceeBackendProvider {
 
-	private final ThreadLocalTraceeBackend backend = new ThreadLocalTraceeBackend();
+	private final ThreadLocalTraceeBackend backend = new ThreadLocalTraceeBackend(
+		PropertiesBasedTraceeFilterConfiguration.isContextInheritable(PropertiesBasedTraceeFilterConfiguration.loadPropertyChain()));
 
 	@Override
 	public final TraceeBackend provideBackend() {
@@ -26,19 +26,19 @@ public class MdcLikeThreadLocalMapAdapterTest {
 
 	@Test
 	public void shouldReturnTrueIfKeyIsInMDC() {
-		unit.getThreadLocalMap().get().put("BB", "vBB");
+		unit.getThreadLocalMap().set(unit.getThreadLocalMap().get().with("BB", "vBB"));
 		assertThat(unit.containsKey("BB"), is(true));
 	}
 
 	@Test
 	public void shouldReturnValueFromMDC() {
-		unit.getThreadLocalMap().get().put("BB", "vBB");
+		unit.getThreadLocalMap().set(unit.getThreadLocalMap().get().with("BB", "vBB"));
 		assertThat(unit.get("BB"), is("vBB"));
 	}
 
 	@Test
 	public void shouldCallRemoveOnMDC() {
-		unit.getThreadLocalMap().get().put("BB", "vBB");
+		unit.getThreadLocalMap().set(unit.getThreadLocalMap().get().with("BB", "vBB"));
 		unit.remove("BB");
 		assertThat(unit.getThreadLocalMap().get().containsKey("BB"), is(false));
 	}
@@ -1,14 +1,20 @@
 package io.tracee.backend.threadlocalstore;
 
+import io.tracee.transport.HttpHeaderTransport;
 import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
+import static io.tracee.configuration.TraceeFilterConfiguration.Profile.DEFAULT;
 
 public class ThreadLocalTraceeBackendTest {
 
@@ -76,5 +82,105 @@ public class ThreadLocalTraceeBackendTest {
 		assertThat(unit.containsKey("key2"), is(true));
 	}
 
+	@Test
+	public void renderedContextShouldBeReusedUntilContextIsModified() {
+		final HttpHeaderTransport transport = new HttpHeaderTransport();
+		unit.put("key1", "value1");
+		final String rendered = unit.renderContext(unit.getConfiguration(), OutgoingRequest, transport);
+		assertThat(rendered, is("key1=value1"));
+		assertThat(unit.renderContext(unit.getConfiguration(DEFAULT), OutgoingRequest, transport), is(sameInstance(rendered)));
+
+		unit.put("key1", "value1");
+		assertThat(unit.renderContext(unit.getConfiguration(DEFAULT), OutgoingRequest, transport), is(sameInstance(rendered)));
+
+		unit.put("key1", "value2");
+		assertThat(unit.renderContext(unit.getConfiguration(DEFAULT), OutgoingRequest, transport), is("key1=value2"));
+	}
+
+	@Test
+	public void modificationCountShouldOnlyChangeOnEffectiveModifications() {
+		final long initialCount = unit.getModificationCount();
+		unit.remove("unknown");
+		unit.clear();
+		assertThat(unit.getModificationCount(), is(initialCount));
+
+		unit.put("key1", "value1");
+		final long countAfterPut = unit.getModificationCount();
+		assertThat(countAfterPut, is(not(initialCount)));
+		unit.put("key1", "value1");
+		assertThat(unit.getModificationCount(), is(countAfterPut));
+
+		unit.clear();
+		assertThat(unit.getModificationCount(), is(not(countAfterPut)));
+	}
+
+	@Test
+	public void snapshotShouldNotChangeWithContext() {
+		unit.put("key1", "value1");
+		final Map<String, String> snapshot = unit.snapshot();
+		assertThat(unit.snapshot(), is(sameInstance(snapshot)));
+
+		unit.put("key2", "value2");
+		assertThat(snapshot.size(), is(1));
+		assertThat(unit.size(), is(2));
+	}
+
+	@Test
+	public void restoreShouldReplaceContextWithSnapshot() {
+		unit.put("key1", "value1");
+		final Map<String, String> snapshot = unit.snapshot();
+		unit.clear();
+		unit.put("key2", "value2");
 
+		final long countBeforeRestore = unit.getModificationCount();
+		unit.restore(snapshot);
+		assertThat(unit.copyToMap(), is(snapshot));
+		assertThat(unit.snapshot(), is(sameInstance(snapshot)));
+		assertThat(unit.getModificationCount(), is(not(countBeforeRestore)));
+	}
+
+	@Test
+	public void childThreadShouldShareContextOfParent() throws InterruptedException {
+		unit.put("key1", "value1");
+		final Map<String, String> parentSnapshot = unit.snapshot();
+		final AtomicReference<Map<String, String>> childSnapshot = new AtomicReference<>();
+		final Thread child = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				childSnapshot.set(unit.snapshot());
+				unit.put("key2", "value2");
+			}
+		});
+		child.start();
+		child.join();
+		assertThat(childSnapshot.get(), is(sameInstance(parentSnapshot)));
+		assertThat(unit.containsKey("key2"), is(false));
+	}
+
+	@Test
+	public void childThreadShouldNotInheritContextIfInheritanceIsDisabled() throws InterruptedException {
+		final ThreadLocalTraceeBackend nonInheritingUnit = new ThreadLocalTraceeBackend(false);
+		nonInheritingUnit.put("key1", "value1");
+		final AtomicReference<Boolean> childIsEmpty = new AtomicReference<>();
+		final Thread child = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				childIsEmpty.set(nonInheritingUnit.isEmpty());
+			}
+		});
+		child.start();
+		child.join();
+		assertThat(childIsEmpty.get(), is(true));
+		assertThat(nonInheritingUnit.get("key1"), is("value1"));
+	}
+
+	@Test
+	public void clearShouldDiscardCachedRendering() {
+		final HttpHeaderTransport transport = new HttpHeaderTransport();
+		unit.put("key1", "value1");
+		assertThat(unit.renderContext(unit.getConfiguration(), OutgoingRequest, transport), is("key1=value1"));
+		unit.clear();
+		assertThat(unit.renderContext(unit.getConfiguration(), OutgoingRequest, transport), is(""));
+		assertThat(unit.snapshot().isEmpty(), is(true));
+	}
 }
@@ -0,0 +1,80 @@
+package io.tracee.benchmark;
+
+import io.tracee.TraceeBackend;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import io.tracee.backend.threadlocalstore.ThreadLocalTraceeBackendProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the basic operations of the slf4j (MDC based) and the thread local backend. A complete request lifecycle is
+ * covered by {@link #putAllAndClear()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackendBenchmark {
+
+	@Param({"1", "5", "20", "100"})
+	int contextSize;
+
+	@Param({"slf4j", "threadlocal"})
+	String backendName;
+
+	private TraceeBackend backend;
+	private Map<String, String> context;
+	private String existingKey;
+
+	@Setup
+	public void setUp() {
+		backend = "slf4j".equals(backendName)
+			? new Slf4jTraceeBackendProvider().provideBackend()
+			: new ThreadLocalTraceeBackendProvider().provideBackend();
+		context = TpicContexts.create(contextSize);
+		existingKey = context.keySet().iterator().next();
+		backend.putAll(context);
+	}
+
+	@TearDown
+	public void tearDown() {
+		backend.clear();
+	}
+
+	@Benchmark
+	public String get() {
+		return backend.get(existingKey);
+	}
+
+	@Benchmark
+	public void put() {
+		backend.put(existingKey, "changedValue");
+		backend.put(existingKey, "value");
+	}
+
+	@Benchmark
+	public Map<String, String> copyToMap() {
+		return backend.copyToMap();
+	}
+
+	@Benchmark
+	public void putAllAndClear() {
+		backend.putAll(context);
+		backend.clear();
+	}
+}
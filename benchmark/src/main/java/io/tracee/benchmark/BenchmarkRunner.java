@@ -0,0 +1,27 @@
+package io.tracee.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected by the JMH command line options (e.g. a regular expression of benchmark names) and always
+ * reports the allocation rates of the GC profiler.
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+		// hide constructor
+	}
+
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder()
+			.parent(commandLineOptions)
+			.addProfiler(GCProfiler.class)
+			.build()).run();
+	}
+}
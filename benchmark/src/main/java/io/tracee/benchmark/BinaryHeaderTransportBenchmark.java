@@ -0,0 +1,49 @@
+package io.tracee.benchmark;
+
+import io.tracee.transport.BinaryHeaderTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryHeaderTransportBenchmark {
+
+	@Param({"1", "5", "20", "100"})
+	int contextSize;
+
+	private final BinaryHeaderTransport transport = new BinaryHeaderTransport();
+	private Map<String, String> context;
+	private byte[] serialized;
+
+	@Setup
+	public void setUp() {
+		context = TpicContexts.create(contextSize);
+		serialized = transport.render(context);
+	}
+
+	@Benchmark
+	public byte[] render() {
+		return transport.render(context);
+	}
+
+	@Benchmark
+	public Map<String, String> parse() {
+		return transport.parse(serialized);
+	}
+}
@@ -0,0 +1,79 @@
+package io.tracee.benchmark;
+
+import io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration;
+import io.tracee.configuration.PropertyChain;
+import io.tracee.configuration.TraceePropertiesFileLoader;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration.Channel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters contexts with the shipped default configuration and with profiles that use literal keys, prefixes and regular
+ * expressions. The dots of the keys are escaped, so that the profiles accept exactly the keys of the generated contexts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterConfigurationBenchmark {
+
+	private static final Channel CHANNEL = Channel.OutgoingRequest;
+
+	@Param({"1", "5", "20", "100"})
+	int contextSize;
+
+	@Param({"default", "Literals", "Prefixes", "Regex"})
+	String profile;
+
+	private TraceeFilterConfiguration configuration;
+	private Map<String, String> context;
+
+	@Setup
+	public void setUp() throws IOException {
+		final Properties defaultProperties = new TraceePropertiesFileLoader().loadTraceeProperties(TraceePropertiesFileLoader.TRACEE_DEFAULT_PROPERTIES_FILE);
+		final String ids = escape(TpicContexts.INVOCATION_ID_KEY) + ',' + escape(TpicContexts.SESSION_ID_KEY) + ',';
+		final String businessPrefix = escape(TpicContexts.BUSINESS_KEY_PREFIX);
+		final Properties properties = new Properties();
+		properties.setProperty("tracee.profile.Literals." + CHANNEL, ids + businessPrefix + "2," + businessPrefix + "3");
+		properties.setProperty("tracee.profile.Prefixes." + CHANNEL, ids + businessPrefix + ".*");
+		properties.setProperty("tracee.profile.Regex." + CHANNEL, ids + businessPrefix + "[0-9]");
+		final PropertyChain propertyChain = PropertyChain.build(properties, defaultProperties);
+		configuration = new PropertiesBasedTraceeFilterConfiguration(propertyChain, profile);
+		if (!configuration.shouldProcessParam(TpicContexts.INVOCATION_ID_KEY, CHANNEL)
+			|| !configuration.shouldProcessParam(TpicContexts.BUSINESS_KEY_PREFIX + "2", CHANNEL)) {
+			throw new IllegalStateException("Profile " + profile + " does not accept the keys of the generated contexts");
+		}
+		context = TpicContexts.create(contextSize);
+	}
+
+	private static String escape(final String key) {
+		return key.replace(".", "\\.");
+	}
+
+	@Benchmark
+	public Map<String, String> filterDeniedParams() {
+		return configuration.filterDeniedParams(context, CHANNEL);
+	}
+
+	@Benchmark
+	public boolean shouldProcessContext() {
+		return configuration.shouldProcessContext(CHANNEL);
+	}
+}
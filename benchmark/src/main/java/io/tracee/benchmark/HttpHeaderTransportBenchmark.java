@@ -0,0 +1,59 @@
+package io.tracee.benchmark;
+
+import io.tracee.transport.HttpHeaderTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpHeaderTransportBenchmark {
+
+	@Param({"1", "5", "20", "100"})
+	int contextSize;
+
+	private final HttpHeaderTransport transport = new HttpHeaderTransport();
+	private Map<String, String> context;
+	private List<String> serializedHeaders;
+	private final StringBuilder buffer = new StringBuilder(256);
+
+	@Setup
+	public void setUp() {
+		context = TpicContexts.create(contextSize);
+		serializedHeaders = Collections.singletonList(transport.render(context));
+	}
+
+	@Benchmark
+	public String render() {
+		return transport.render(context);
+	}
+
+	@Benchmark
+	public StringBuilder renderIntoBuffer() {
+		buffer.setLength(0);
+		transport.render(context, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public Map<String, String> parse() {
+		return transport.parse(serializedHeaders);
+	}
+}
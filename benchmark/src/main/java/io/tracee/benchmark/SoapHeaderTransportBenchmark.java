@@ -0,0 +1,56 @@
+package io.tracee.benchmark;
+
+import io.tracee.transport.SoapHeaderTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.transform.dom.DOMResult;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoapHeaderTransportBenchmark {
+
+	@Param({"1", "5", "20", "100"})
+	int contextSize;
+
+	private final SoapHeaderTransport transport = SoapHeaderTransport.getInstance();
+	private Map<String, String> context;
+	private Element tpicHeader;
+
+	@Setup
+	public void setUp() {
+		context = TpicContexts.create(contextSize);
+		final DOMResult result = new DOMResult();
+		transport.renderSoapHeader(context, result);
+		tpicHeader = ((Document) result.getNode()).getDocumentElement();
+	}
+
+	@Benchmark
+	public DOMResult render() {
+		final DOMResult result = new DOMResult();
+		transport.renderSoapHeader(context, result);
+		return result;
+	}
+
+	@Benchmark
+	public Map<String, String> parse() {
+		return transport.parseTpicHeader(tpicHeader);
+	}
+}
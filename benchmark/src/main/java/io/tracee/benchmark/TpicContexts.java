@@ -0,0 +1,36 @@
+package io.tracee.benchmark;
+
+import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates TracEE contexts of a given size. The first keys are the invocation and session id, the remaining keys look like
+ * typical business keys.
+ */
+final class TpicContexts {
+
+	static final String INVOCATION_ID_KEY = TraceeConstants.INVOCATION_ID_KEY;
+	static final String SESSION_ID_KEY = TraceeConstants.SESSION_ID_KEY;
+	static final String BUSINESS_KEY_PREFIX = "tracee.business.key";
+
+	private TpicContexts() {
+		// hide constructor
+	}
+
+	static Map<String, String> create(final int size) {
+		final Map<String, String> context = new HashMap<>();
+		if (size > 0) {
+			context.put(INVOCATION_ID_KEY, Utilities.createRandomAlphanumeric(32));
+		}
+		if (size > 1) {
+			context.put(SESSION_ID_KEY, Utilities.createRandomAlphanumeric(32));
+		}
+		for (int i = 2; i < size; i++) {
+			context.put(BUSINESS_KEY_PREFIX + i, "value-" + Utilities.createRandomAlphanumeric(12));
+		}
+		return context;
+	}
+}
@@ -0,0 +1,451 @@
+package io.tracee.binding.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+import io.tracee.concurrent.TraceeExecutors;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link CompletableFuture} whose stages run with the context that was current when the first future of the pipeline
+ * was created, on whichever thread they run. The context of the executing thread is restored after each stage.
+ * <p/>
+ * All dependent stages are {@code TraceeCompletableFuture}s again and share the same immutable snapshot of the
+ * context, so composing many stages does not copy the context.
+ */
+public class TraceeCompletableFuture<T> extends CompletableFuture<T> {
+
+	private static final Executor ASYNC_POOL = ForkJoinPool.getCommonPoolParallelism() > 1
+		? ForkJoinPool.commonPool() : new ThreadPerTaskExecutor();
+
+	private final TraceeBackend backend;
+	private final Map<String, String> context;
+
+	/**
+	 * Creates an incomplete future whose dependent stages run with the current context.
+	 */
+	public TraceeCompletableFuture() {
+		this(Tracee.getBackend());
+	}
+
+	public TraceeCompletableFuture(final TraceeBackend backend) {
+		this(backend, ContextSnapshots.snapshot(backend));
+	}
+
+	private TraceeCompletableFuture(final TraceeBackend backend, final Map<String, String> context) {
+		this.backend = backend;
+		this.context = context;
+	}
+
+	/**
+	 * Like {@link CompletableFuture#supplyAsync(Supplier)}, but runs the supplier and all dependent stages with the current context.
+	 */
+	public static <U> TraceeCompletableFuture<U> supplyAsync(final Supplier<U> supplier) {
+		return supplyAsync(Tracee.getBackend(), supplier, ASYNC_POOL);
+	}
+
+	public static <U> TraceeCompletableFuture<U> supplyAsync(final Supplier<U> supplier, final Executor executor) {
+		return supplyAsync(Tracee.getBackend(), supplier, executor);
+	}
+
+	public static <U> TraceeCompletableFuture<U> supplyAsync(final TraceeBackend backend, final Supplier<U> supplier, final Executor executor) {
+		final TraceeCompletableFuture<U> future = new TraceeCompletableFuture<>(backend);
+		future.completeAsync(supplier, executor);
+		return future;
+	}
+
+	/**
+	 * Like {@link CompletableFuture#runAsync(Runnable)}, but runs the task and all dependent stages with the current context.
+	 */
+	public static TraceeCompletableFuture<Void> runAsync(final Runnable runnable) {
+		return runAsync(Tracee.getBackend(), runnable, ASYNC_POOL);
+	}
+
+	public static TraceeCompletableFuture<Void> runAsync(final Runnable runnable, final Executor executor) {
+		return runAsync(Tracee.getBackend(), runnable, executor);
+	}
+
+	public static TraceeCompletableFuture<Void> runAsync(final TraceeBackend backend, final Runnable runnable, final Executor executor) {
+		return supplyAsync(backend, () -> {
+			runnable.run();
+			return null;
+		}, executor);
+	}
+
+	/**
+	 * Decorates a stage of a third party, e.g. of an asynchronous client, so that its dependent stages run with the current context.
+	 */
+	public static <U> TraceeCompletableFuture<U> decorate(final CompletionStage<U> stage) {
+		return new TraceeCompletableFuture<U>(Tracee.getBackend()).adopt(stage.toCompletableFuture());
+	}
+
+	/**
+	 * Returns the given future if it is a {@code TraceeCompletableFuture} (always from Java 9 on, see
+	 * {@link #newIncompleteFuture()}), otherwise a {@code TraceeCompletableFuture} with the context of this future that
+	 * completes with the given future.
+	 */
+	private <U> TraceeCompletableFuture<U> adopt(final CompletableFuture<U> future) {
+		if (future instanceof TraceeCompletableFuture) {
+			return (TraceeCompletableFuture<U>) future;
+		}
+		final TraceeCompletableFuture<U> decorated = new TraceeCompletableFuture<>(backend, context);
+		future.whenComplete((value, failure) -> {
+			if (failure != null) {
+				decorated.completeExceptionally(failure);
+			} else {
+				decorated.complete(value);
+			}
+		});
+		return decorated;
+	}
+
+	/**
+	 * Lets the dependent stages of {@link CompletableFuture} be {@code TraceeCompletableFuture}s with the context of this
+	 * future. Overrides {@code CompletableFuture#newIncompleteFuture} of Java 9 and later; on Java 8 the stages are
+	 * decorated instead.
+	 */
+	public <U> CompletableFuture<U> newIncompleteFuture() {
+		return new TraceeCompletableFuture<>(backend, context);
+	}
+
+	private <R> R withContext(final Supplier<R> supplier) {
+		final Map<String, String> previous = ContextSnapshots.snapshot(backend);
+		ContextSnapshots.restore(backend, context);
+		try {
+			return supplier.get();
+		} finally {
+			ContextSnapshots.restore(backend, previous);
+		}
+	}
+
+	private <A, R> Function<A, R> withContext(final Function<? super A, ? extends R> fn) {
+		return a -> withContext(() -> fn.apply(a));
+	}
+
+	private <A, B, R> BiFunction<A, B, R> withContext(final BiFunction<? super A, ? super B, ? extends R> fn) {
+		return (a, b) -> withContext(() -> fn.apply(a, b));
+	}
+
+	private <A> Consumer<A> withContext(final Consumer<? super A> action) {
+		return a -> withContext(() -> {
+			action.accept(a);
+			return null;
+		});
+	}
+
+	private <A, B> BiConsumer<A, B> withContext(final BiConsumer<? super A, ? super B> action) {
+		return (a, b) -> withContext(() -> {
+			action.accept(a, b);
+			return null;
+		});
+	}
+
+	private Runnable withContext(final Runnable action) {
+		return () -> withContext(() -> {
+			action.run();
+			return null;
+		});
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> thenApply(Function<? super T, ? extends U> fn) {
+		return adopt(super.thenApply(withContext(fn)));
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn) {
+		return thenApplyAsync(fn, ASYNC_POOL);
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn, Executor executor) {
+		return adopt(super.thenApplyAsync(withContext(fn), executor));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> thenAccept(Consumer<? super T> action) {
+		return adopt(super.thenAccept(withContext(action)));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action) {
+		return thenAcceptAsync(action, ASYNC_POOL);
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action, Executor executor) {
+		return adopt(super.thenAcceptAsync(withContext(action), executor));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> thenRun(Runnable action) {
+		return adopt(super.thenRun(withContext(action)));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> thenRunAsync(Runnable action) {
+		return thenRunAsync(action, ASYNC_POOL);
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> thenRunAsync(Runnable action, Executor executor) {
+		return adopt(super.thenRunAsync(withContext(action), executor));
+	}
+
+	@Override
+	public <U, V> TraceeCompletableFuture<V> thenCombine(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+		return adopt(super.thenCombine(other, withContext(fn)));
+	}
+
+	@Override
+	public <U, V> TraceeCompletableFuture<V> thenCombineAsync(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+		return thenCombineAsync(other, fn, ASYNC_POOL);
+	}
+
+	@Override
+	public <U, V> TraceeCompletableFuture<V> thenCombineAsync(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn,
+															  Executor executor) {
+		return adopt(super.thenCombineAsync(other, withContext(fn), executor));
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<Void> thenAcceptBoth(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+		return adopt(super.thenAcceptBoth(other, withContext(action)));
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<Void> thenAcceptBothAsync(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+		return thenAcceptBothAsync(other, action, ASYNC_POOL);
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<Void> thenAcceptBothAsync(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action,
+																 Executor executor) {
+		return adopt(super.thenAcceptBothAsync(other, withContext(action), executor));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> runAfterBoth(CompletionStage<?> other, Runnable action) {
+		return adopt(super.runAfterBoth(other, withContext(action)));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action) {
+		return runAfterBothAsync(other, action, ASYNC_POOL);
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+		return adopt(super.runAfterBothAsync(other, withContext(action), executor));
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> applyToEither(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+		return adopt(super.applyToEither(other, withContext(fn)));
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+		return applyToEitherAsync(other, fn, ASYNC_POOL);
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn, Executor executor) {
+		return adopt(super.applyToEitherAsync(other, withContext(fn), executor));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> acceptEither(CompletionStage<? extends T> other, Consumer<? super T> action) {
+		return adopt(super.acceptEither(other, withContext(action)));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action) {
+		return acceptEitherAsync(other, action, ASYNC_POOL);
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action, Executor executor) {
+		return adopt(super.acceptEitherAsync(other, withContext(action), executor));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> runAfterEither(CompletionStage<?> other, Runnable action) {
+		return adopt(super.runAfterEither(other, withContext(action)));
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action) {
+		return runAfterEitherAsync(other, action, ASYNC_POOL);
+	}
+
+	@Override
+	public TraceeCompletableFuture<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+		return adopt(super.runAfterEitherAsync(other, withContext(action), executor));
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> thenCompose(Function<? super T, ? extends CompletionStage<U>> fn) {
+		return adopt(super.thenCompose(withContext(fn)));
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn) {
+		return thenComposeAsync(fn, ASYNC_POOL);
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn, Executor executor) {
+		return adopt(super.thenComposeAsync(withContext(fn), executor));
+	}
+
+	@Override
+	public TraceeCompletableFuture<T> whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+		return adopt(super.whenComplete(withContext(action)));
+	}
+
+	@Override
+	public TraceeCompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action) {
+		return whenCompleteAsync(action, ASYNC_POOL);
+	}
+
+	@Override
+	public TraceeCompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action, Executor executor) {
+		return adopt(super.whenCompleteAsync(withContext(action), executor));
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> handle(BiFunction<? super T, Throwable, ? extends U> fn) {
+		return adopt(super.handle(withContext(fn)));
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn) {
+		return handleAsync(fn, ASYNC_POOL);
+	}
+
+	@Override
+	public <U> TraceeCompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn, Executor executor) {
+		return adopt(super.handleAsync(withContext(fn), executor));
+	}
+
+	@Override
+	public TraceeCompletableFuture<T> exceptionally(Function<Throwable, ? extends T> fn) {
+		return adopt(super.exceptionally(withContext(fn)));
+	}
+
+	/*
+	 * The following methods override methods of Java 9 and 12. They are implemented with the API of Java 8 and return
+	 * CompletableFuture, so that they override the methods of newer JDKs at runtime, too.
+	 */
+
+	/**
+	 * Completes this future with the result of the given supplier, which runs with the context of this future.
+	 */
+	public CompletableFuture<T> completeAsync(final Supplier<? extends T> supplier) {
+		return completeAsync(supplier, ASYNC_POOL);
+	}
+
+	public CompletableFuture<T> completeAsync(final Supplier<? extends T> supplier, final Executor executor) {
+		if (supplier == null || executor == null) {
+			throw new NullPointerException();
+		}
+		executor.execute(TraceeExecutors.wrap(backend, context, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					complete(supplier.get());
+				} catch (Throwable t) {
+					completeExceptionally(t);
+				}
+			}
+		}));
+		return this;
+	}
+
+	public CompletableFuture<T> exceptionallyAsync(final Function<Throwable, ? extends T> fn) {
+		return exceptionallyAsync(fn, ASYNC_POOL);
+	}
+
+	public CompletableFuture<T> exceptionallyAsync(final Function<Throwable, ? extends T> fn, final Executor executor) {
+		if (fn == null || executor == null) {
+			throw new NullPointerException();
+		}
+		final Function<Throwable, CompletionStage<T>> recovery = failure -> CompletableFuture.<T>completedFuture(fn.apply(failure));
+		return recover(withContext(recovery), executor);
+	}
+
+	public CompletableFuture<T> exceptionallyCompose(final Function<Throwable, ? extends CompletionStage<T>> fn) {
+		return recover(withContext(fn), null);
+	}
+
+	public CompletableFuture<T> exceptionallyComposeAsync(final Function<Throwable, ? extends CompletionStage<T>> fn) {
+		return exceptionallyComposeAsync(fn, ASYNC_POOL);
+	}
+
+	public CompletableFuture<T> exceptionallyComposeAsync(final Function<Throwable, ? extends CompletionStage<T>> fn, final Executor executor) {
+		if (executor == null) {
+			throw new NullPointerException();
+		}
+		return recover(withContext(fn), executor);
+	}
+
+	/**
+	 * Returns a future that completes like this future or, if this future completes exceptionally, like the stage that
+	 * the given function returns for the failure.
+	 *
+	 * @param executor the executor that calls the function, {@code null} to call it on the completing thread
+	 */
+	private TraceeCompletableFuture<T> recover(final Function<Throwable, ? extends CompletionStage<T>> fn, final Executor executor) {
+		if (fn == null) {
+			throw new NullPointerException();
+		}
+		final TraceeCompletableFuture<T> recovered = new TraceeCompletableFuture<>(backend, context);
+		super.whenComplete((value, failure) -> {
+			if (failure == null) {
+				recovered.complete(value);
+			} else if (executor == null) {
+				recover(recovered, fn, failure);
+			} else {
+				try {
+					executor.execute(() -> recover(recovered, fn, failure));
+				} catch (Throwable t) {
+					recovered.completeExceptionally(t);
+				}
+			}
+		});
+		return recovered;
+	}
+
+	private static <T> void recover(final CompletableFuture<T> recovered, final Function<Throwable, ? extends CompletionStage<T>> fn,
+									final Throwable failure) {
+		try {
+			fn.apply(failure).whenComplete((value, secondFailure) -> {
+				if (secondFailure != null) {
+					recovered.completeExceptionally(secondFailure);
+				} else {
+					recovered.complete(value);
+				}
+			});
+		} catch (Throwable t) {
+			recovered.completeExceptionally(t);
+		}
+	}
+
+	private static final class ThreadPerTaskExecutor implements Executor {
+		@Override
+		public void execute(Runnable command) {
+			new Thread(command).start();
+		}
+	}
+}
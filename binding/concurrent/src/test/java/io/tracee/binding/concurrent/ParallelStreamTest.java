@@ -0,0 +1,45 @@
+package io.tracee.binding.concurrent;
+
+import io.tracee.TraceeBackend;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import io.tracee.concurrent.TraceeExecutors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ParallelStreamTest {
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	@Before
+	public void before() {
+		backend.put("key1", "value1");
+	}
+
+	@After
+	public void after() {
+		backend.clear();
+	}
+
+	@Test
+	public void parallelStreamShouldRunWithContextOfCaller() throws Exception {
+		final ForkJoinPool pool = TraceeExecutors.contextForkJoinPool(4, backend, backend.copyToMap());
+		try {
+			final Set<Map<String, String>> contexts = TraceeExecutors.callInParallel(backend, pool,
+				() -> IntStream.range(0, 10000).parallel().mapToObj(i -> backend.copyToMap()).collect(Collectors.toSet()));
+			assertThat(contexts, is(Collections.singleton(Collections.singletonMap("key1", "value1"))));
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package io.tracee.binding.concurrent;
+
+import io.tracee.BackendBase;
+import io.tracee.TraceeBackend;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TraceeCompletableFutureTest {
+
+	private static final Map<String, String> CONTEXT = Collections.singletonMap("key1", "value1");
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	// the thread is started before the context is set up, so it does not inherit it
+	private final ExecutorService pool = prestartedPool();
+
+	@Before
+	public void before() {
+		backend.put("key1", "value1");
+	}
+
+	@After
+	public void after() {
+		backend.clear();
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void supplierShouldRunWithContextOfCaller() throws Exception {
+		assertThat(TraceeCompletableFuture.supplyAsync(backend, backend::copyToMap, pool).get(), is(CONTEXT));
+	}
+
+	@Test
+	public void dependentStagesShouldRunWithContextOfCaller() throws Exception {
+		final TraceeCompletableFuture<Map<String, String>> future = TraceeCompletableFuture.supplyAsync(backend, () -> "ignored", pool)
+			.thenApplyAsync(value -> backend.get("key1"), pool)
+			.thenCombineAsync(CompletableFuture.completedFuture("value2"), (first, second) -> backend.copyToMap(), pool);
+		backend.clear();
+		assertThat(future.get(), is(CONTEXT));
+	}
+
+	@Test
+	public void poolThreadShouldBeClearedAfterStage() throws Exception {
+		TraceeCompletableFuture.supplyAsync(backend, backend::copyToMap, pool).thenRunAsync(() -> {
+		}, pool).get();
+		assertThat(pool.submit(backend::copyToMap).get().isEmpty(), is(true));
+	}
+
+	@Test
+	public void stagesShouldShareOneSnapshot() throws Exception {
+		final TraceeCompletableFuture<Map<String, String>> first = TraceeCompletableFuture.supplyAsync(backend, ((BackendBase) backend)::snapshot, pool);
+		final Map<String, String> second = first.thenApplyAsync(ignored -> ((BackendBase) backend).snapshot(), pool).get();
+		assertThat(second, is(sameInstance(first.get())));
+	}
+
+	@Test
+	public void decoratedStageShouldRunDependentStagesWithContext() throws Exception {
+		final CompletableFuture<String> foreign = new CompletableFuture<>();
+		final TraceeCompletableFuture<Map<String, String>> future = TraceeCompletableFuture.decorate((CompletionStage<String>) foreign)
+			.thenApply(ignored -> backend.copyToMap());
+		backend.clear();
+		pool.execute(() -> foreign.complete("done"));
+		assertThat(future.get(), is(CONTEXT));
+	}
+
+	@Test
+	public void failuresShouldBePropagatedToDependentStages() throws Exception {
+		final IllegalStateException failure = new IllegalStateException("failed");
+		final TraceeCompletableFuture<String> future = TraceeCompletableFuture.<String>supplyAsync(backend, () -> {
+			throw failure;
+		}, pool).thenApply(String::trim);
+		try {
+			future.get();
+			fail("expected ExecutionException");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is(sameInstance((Throwable) failure)));
+		}
+		assertThat(future.exceptionally(t -> backend.get("key1")).get(), is("value1"));
+	}
+
+	@Test
+	public void completeAsyncShouldRunSupplierWithContextOfFuture() throws Exception {
+		final TraceeCompletableFuture<String> future = new TraceeCompletableFuture<>(backend);
+		backend.clear();
+		assertThat(future.completeAsync(() -> backend.get("key1"), pool).get(), is("value1"));
+	}
+
+	@Test
+	public void exceptionallyAsyncAndComposeShouldRecoverWithContextOfCaller() throws Exception {
+		final TraceeCompletableFuture<String> future = new TraceeCompletableFuture<>(backend);
+		final CompletableFuture<String> recoveredAsync = future.exceptionallyAsync(t -> backend.get("key1"), pool);
+		final CompletableFuture<String> composed = future.exceptionallyCompose(t -> CompletableFuture.completedFuture(backend.get("key1")));
+		final CompletableFuture<String> composedAsync = future.exceptionallyComposeAsync(
+			t -> TraceeCompletableFuture.supplyAsync(backend, () -> backend.get("key1"), pool), pool);
+		assertThat(recoveredAsync, is(instanceOf(TraceeCompletableFuture.class)));
+		backend.clear();
+		future.completeExceptionally(new IllegalStateException());
+		assertThat(recoveredAsync.get(), is("value1"));
+		assertThat(composed.get(), is("value1"));
+		assertThat(composedAsync.get(), is("value1"));
+		assertThat(backend.isEmpty(), is(true));
+	}
+
+	@Test
+	public void exceptionallyComposeShouldPassValueAndFailureOfFunction() throws Exception {
+		final TraceeCompletableFuture<String> future = new TraceeCompletableFuture<>(backend);
+		final IllegalArgumentException failure = new IllegalArgumentException();
+		final CompletableFuture<String> passed = future.exceptionallyComposeAsync(t -> CompletableFuture.completedFuture("recovered"), pool);
+		future.complete("done");
+		assertThat(passed.get(), is("done"));
+
+		final TraceeCompletableFuture<String> failed = new TraceeCompletableFuture<>(backend);
+		final CompletableFuture<String> rethrown = failed.exceptionallyCompose(t -> {
+			throw failure;
+		});
+		failed.completeExceptionally(new IllegalStateException());
+		try {
+			rethrown.get();
+			fail("ExecutionException expected");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is(sameInstance((Throwable) failure)));
+		}
+	}
+
+	@Test
+	public void synchronousStageShouldRestoreContextOfCompletingThread() throws Exception {
+		final TraceeCompletableFuture<String> future = new TraceeCompletableFuture<>(backend);
+		final CompletableFuture<Void> dependent = future.thenAccept(ignored -> backend.put("key2", "value2"));
+		assertThat(dependent, is(instanceOf(TraceeCompletableFuture.class)));
+		backend.put("key3", "value3");
+		future.complete("done");
+		dependent.get();
+		assertThat(backend.containsKey("key2"), is(false));
+		assertThat(backend.get("key3"), is("value3"));
+	}
+
+	private static ExecutorService prestartedPool() {
+		final ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+		pool.prestartAllCoreThreads();
+		return pool;
+	}
+}
@@ -5,6 +5,7 @@ import io.tracee.TraceeConstants;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.transport.HttpHeaderTransport;
 import io.tracee.transport.SoapHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.headers.Header;
 import org.apache.cxf.helpers.CastUtils;
@@ -37,7 +38,7 @@ abstract class AbstractTraceeInInterceptor extends AbstractPhaseInterceptor<Mess
 		this.backend = backend;
 		this.profile = profile;
 		this.httpJsonSerializer = new HttpHeaderTransport();
-		this.httpSoapSerializer = new SoapHeaderTransport();
+		this.httpSoapSerializer = SoapHeaderTransport.getInstance();
 	}
 
 	protected abstract boolean shouldHandleMessage(Message message);
@@ -68,8 +69,7 @@ abstract class AbstractTraceeInInterceptor extends AbstractPhaseInterceptor<Mess
 			final List<String> traceeHeader = requestHeaders.get(TraceeConstants.TPIC_HEADER);
 
 			if (traceeHeader != null && !traceeHeader.isEmpty()) {
-				final Map<String, String> parsedContext = httpJsonSerializer.parse(traceeHeader);
-				backend.putAll(filterConfiguration.filterDeniedParams(parsedContext, channel));
+				TpicPropagation.ingest(backend, filterConfiguration, channel, httpJsonSerializer, traceeHeader);
 			}
 		}
 	}
@@ -78,7 +78,7 @@ abstract class AbstractTraceeInInterceptor extends AbstractPhaseInterceptor<Mess
 		final Header soapHeader = message.getHeader(TraceeConstants.SOAP_HEADER_QNAME);
 		if (soapHeader != null) {
 			final Map<String, String> parsedContext = httpSoapSerializer.parseTpicHeader((Element) soapHeader.getObject());
-			backend.putAll(filterConfiguration.filterDeniedParams(parsedContext, channel));
+			TpicPropagation.ingest(backend, filterConfiguration, channel, parsedContext);
 		}
 	}
 }
@@ -4,6 +4,7 @@ import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import io.tracee.transport.jaxb.TpicMap;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.headers.Header;
@@ -44,8 +45,6 @@ abstract class AbstractTraceeOutInterceptor extends AbstractPhaseInterceptor<Mes
 		if (shouldHandleMessage(message)) {
 			final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
 			if (!backend.isEmpty() && filterConfiguration.shouldProcessContext(channel)) {
-				final Map<String, String> filteredParams = filterConfiguration.filterDeniedParams(backend.copyToMap(), channel);
-
 				LOGGER.debug("Interceptor handles message!");
 				if (Boolean.TRUE.equals(message.getExchange().get(Message.REST_MESSAGE))) {
 					Map<String, List<String>> responseHeaders = CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
@@ -54,12 +53,12 @@ abstract class AbstractTraceeOutInterceptor extends AbstractPhaseInterceptor<Mes
 						message.put(Message.PROTOCOL_HEADERS, responseHeaders);
 					}
 
-					final String contextAsHeader = httpSerializer.render(filteredParams);
+					final String contextAsHeader = TpicPropagation.render(backend, filterConfiguration, channel, httpSerializer);
 					responseHeaders.put(TraceeConstants.TPIC_HEADER, Collections.singletonList(contextAsHeader));
 				} else {
 					try {
 						final SoapMessage soapMessage = (SoapMessage) message;
-						addSoapHeader(filteredParams, soapMessage);
+						addSoapHeader(filterConfiguration.filterDeniedParams(backend.copyToMap(), channel), soapMessage);
 					} catch (NoClassDefFoundError e) {
 						LOGGER.error("Should handle SOAP-message but it seems that cxf soap dependency is not on the classpath. Unable to add Tracee-Headers: {}", e.getMessage(), e);
 					}
@@ -71,7 +70,7 @@ abstract class AbstractTraceeOutInterceptor extends AbstractPhaseInterceptor<Mes
 	private void addSoapHeader(Map<String, String> filteredParams, SoapMessage soapMessage) {
 		try {
 			final Header tpicHeader = new Header(TraceeConstants.SOAP_HEADER_QNAME, TpicMap.wrap(filteredParams),
-				new JAXBDataBinding(TpicMap.class));
+				TpicDataBinding.get());
 			soapMessage.getHeaders().add(tpicHeader);
 		} catch (JAXBException e) {
 			LOGGER.warn("Error occured during TracEE soap header creation: {}", e.getMessage());
@@ -80,4 +79,26 @@ abstract class AbstractTraceeOutInterceptor extends AbstractPhaseInterceptor<Mes
 	}
 
 	protected abstract boolean shouldHandleMessage(Message message);
+
+	/**
+	 * Holds the data binding of the TPIC header. Its JAXB context is created once, when the first SOAP header is written,
+	 * and shared by all interceptors.
+	 */
+	private static final class TpicDataBinding {
+		private static volatile JAXBDataBinding instance;
+
+		private static JAXBDataBinding get() throws JAXBException {
+			JAXBDataBinding dataBinding = instance;
+			if (dataBinding == null) {
+				synchronized (TpicDataBinding.class) {
+					dataBinding = instance;
+					if (dataBinding == null) {
+						dataBinding = new JAXBDataBinding(TpicMap.class);
+						instance = dataBinding;
+					}
+				}
+			}
+			return dataBinding;
+		}
+	}
 }
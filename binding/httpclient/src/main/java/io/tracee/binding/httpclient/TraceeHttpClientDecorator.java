@@ -5,6 +5,7 @@ import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
@@ -17,7 +18,6 @@ import org.apache.commons.httpclient.params.HttpClientParams;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingResponse;
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
@@ -90,8 +90,7 @@ public class TraceeHttpClientDecorator extends HttpClient {
 	private void preRequest(HttpMethod httpMethod) {
 		final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
 		if (!backend.isEmpty() && filterConfiguration.shouldProcessContext(OutgoingRequest)) {
-			final Map<String, String> filteredParams = filterConfiguration.filterDeniedParams(backend.copyToMap(), OutgoingRequest);
-			httpMethod.setRequestHeader(TraceeConstants.TPIC_HEADER, transportSerialization.render(filteredParams));
+			httpMethod.setRequestHeader(TraceeConstants.TPIC_HEADER, TpicPropagation.render(backend, filterConfiguration, OutgoingRequest, transportSerialization));
 		}
 	}
 
@@ -106,7 +105,7 @@ public class TraceeHttpClientDecorator extends HttpClient {
 				stringTraceeHeaders.add(header.getValue());
 			}
 
-			backend.putAll(filterConfiguration.filterDeniedParams(transportSerialization.parse(stringTraceeHeaders), IncomingResponse));
+			TpicPropagation.ingest(backend, filterConfiguration, IncomingResponse, transportSerialization, stringTraceeHeaders);
 		}
 	}
 
@@ -6,11 +6,11 @@ import io.tracee.TraceeConstants;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration.Profile;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.protocol.HttpContext;
 
-import java.util.Map;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
 
@@ -38,8 +38,7 @@ public class TraceeHttpRequestInterceptor implements HttpRequestInterceptor {
 	public final void process(final HttpRequest httpRequest, final HttpContext httpContext) {
 		final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
 		if (!backend.isEmpty() && filterConfiguration.shouldProcessContext(OutgoingRequest)) {
-			final Map<String, String> filteredParams = filterConfiguration.filterDeniedParams(backend.copyToMap(), OutgoingRequest);
-			httpRequest.setHeader(TraceeConstants.TPIC_HEADER, transportSerialization.render(filteredParams));
+			httpRequest.setHeader(TraceeConstants.TPIC_HEADER, TpicPropagation.render(backend, filterConfiguration, OutgoingRequest, transportSerialization));
 		}
 	}
 }
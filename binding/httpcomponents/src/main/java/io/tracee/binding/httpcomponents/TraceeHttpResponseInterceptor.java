@@ -6,6 +6,7 @@ import io.tracee.TraceeConstants;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration.Profile;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseInterceptor;
@@ -46,7 +47,7 @@ public class TraceeHttpResponseInterceptor implements HttpResponseInterceptor {
 			for (Header header : responseHeaders) {
 				stringTraceeHeaders.add(header.getValue());
 			}
-			backend.putAll(filterConfiguration.filterDeniedParams(transportSerialization.parse(stringTraceeHeaders), IncomingResponse));
+			TpicPropagation.ingest(backend, filterConfiguration, IncomingResponse, transportSerialization, stringTraceeHeaders);
 		}
 	}
 }
@@ -2,16 +2,14 @@ package io.tracee.binding.httpcomponents;
 
 import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
-import io.tracee.TraceeConstants;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration.Profile;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpRequestInterceptor;
 import org.apache.hc.core5.http.protocol.HttpContext;
 
-import java.util.Map;
-
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
 
 public class TraceeHttpRequestInterceptor implements HttpRequestInterceptor {
@@ -38,8 +36,18 @@ public class TraceeHttpRequestInterceptor implements HttpRequestInterceptor {
 	public final void process(final HttpRequest httpRequest, final HttpContext httpContext) {
 		final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
 		if (!backend.isEmpty() && filterConfiguration.shouldProcessContext(OutgoingRequest)) {
-			final Map<String, String> filteredParams = filterConfiguration.filterDeniedParams(backend.copyToMap(), OutgoingRequest);
-			httpRequest.setHeader(TraceeConstants.TPIC_HEADER, transportSerialization.render(filteredParams));
+			TpicPropagation.writeFields(TpicPropagation.renderFields(backend, filterConfiguration, OutgoingRequest, transportSerialization),
+				new TpicPropagation.HeaderWriter() {
+					@Override
+					public void setHeader(final String name, final String value) {
+						httpRequest.setHeader(name, value);
+					}
+
+					@Override
+					public void addHeader(final String name, final String value) {
+						httpRequest.addHeader(name, value);
+					}
+				});
 		}
 	}
 }
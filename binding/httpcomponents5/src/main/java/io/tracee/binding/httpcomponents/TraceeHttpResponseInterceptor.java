@@ -6,6 +6,7 @@ import io.tracee.TraceeConstants;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration.Profile;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.HttpResponseInterceptor;
@@ -47,7 +48,7 @@ public class TraceeHttpResponseInterceptor implements HttpResponseInterceptor {
 			while (headerIterator.hasNext()) {
 				stringTraceeHeaders.add(headerIterator.next().getValue());
 			}
-			backend.putAll(filterConfiguration.filterDeniedParams(transportSerialization.parse(stringTraceeHeaders), IncomingResponse));
+			TpicPropagation.ingest(backend, filterConfiguration, IncomingResponse, transportSerialization, stringTraceeHeaders);
 		}
 	}
 }
@@ -4,6 +4,7 @@ import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 
 import javax.ws.rs.client.ClientRequestContext;
 import javax.ws.rs.client.ClientRequestFilter;
@@ -11,7 +12,6 @@ import javax.ws.rs.client.ClientResponseContext;
 import javax.ws.rs.client.ClientResponseFilter;
 import javax.ws.rs.ext.Provider;
 import java.util.List;
-import java.util.Map;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingResponse;
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
@@ -38,8 +38,8 @@ public class TraceeClientFilter implements ClientRequestFilter, ClientResponseFi
 	@Override
 	public void filter(final ClientRequestContext requestContext) {
 		if (!backend.isEmpty() && backend.getConfiguration().shouldProcessContext(OutgoingRequest)) {
-			final Map<String, String> filtered = backend.getConfiguration().filterDeniedParams(backend.copyToMap(), OutgoingRequest);
-			requestContext.getHeaders().putSingle(TraceeConstants.TPIC_HEADER, transportSerialization.render(filtered));
+			requestContext.getHeaders().putSingle(TraceeConstants.TPIC_HEADER,
+				TpicPropagation.render(backend, backend.getConfiguration(), OutgoingRequest, transportSerialization));
 		}
 	}
 
@@ -50,8 +50,7 @@ public class TraceeClientFilter implements ClientRequestFilter, ClientResponseFi
 	public void filter(final ClientRequestContext requestContext, final ClientResponseContext responseContext) {
 		final List<String> serializedHeaders = responseContext.getHeaders().get(TraceeConstants.TPIC_HEADER);
 		if (serializedHeaders != null && backend.getConfiguration().shouldProcessContext(IncomingResponse)) {
-			final Map<String, String> parsed = transportSerialization.parse(serializedHeaders);
-			backend.putAll(backend.getConfiguration().filterDeniedParams(parsed, IncomingResponse));
+			TpicPropagation.ingest(backend, backend.getConfiguration(), IncomingResponse, transportSerialization, serializedHeaders);
 		}
 	}
 }
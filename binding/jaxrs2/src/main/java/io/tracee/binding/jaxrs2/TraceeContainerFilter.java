@@ -5,6 +5,7 @@ import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
 import io.tracee.Utilities;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
@@ -12,7 +13,6 @@ import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.ext.Provider;
 import java.util.List;
-import java.util.Map;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingRequest;
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingResponse;
@@ -42,8 +42,7 @@ public class TraceeContainerFilter implements ContainerRequestFilter, ContainerR
 		if (backend.getConfiguration().shouldProcessContext(IncomingRequest)) {
 			final List<String> serializedTraceeHeaders = containerRequestContext.getHeaders().get(TraceeConstants.TPIC_HEADER);
 			if (serializedTraceeHeaders != null && !serializedTraceeHeaders.isEmpty()) {
-				final Map<String, String> parsed = transportSerialization.parse(serializedTraceeHeaders);
-				backend.putAll(backend.getConfiguration().filterDeniedParams(parsed, IncomingRequest));
+				TpicPropagation.ingest(backend, backend.getConfiguration(), IncomingRequest, transportSerialization, serializedTraceeHeaders);
 			}
 		}
 
@@ -56,8 +55,8 @@ public class TraceeContainerFilter implements ContainerRequestFilter, ContainerR
 	@Override
 	public void filter(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) {
 		if (backend.getConfiguration().shouldProcessContext(OutgoingResponse)) {
-			final Map<String, String> filtered = backend.getConfiguration().filterDeniedParams(backend.copyToMap(), OutgoingResponse);
-			responseContext.getHeaders().putSingle(TraceeConstants.TPIC_HEADER, transportSerialization.render(filtered));
+			responseContext.getHeaders().putSingle(TraceeConstants.TPIC_HEADER,
+				TpicPropagation.render(backend, backend.getConfiguration(), OutgoingResponse, transportSerialization));
 		}
 
 		backend.clear();
@@ -3,6 +3,7 @@ package io.tracee.binding.jaxws;
 import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
 import io.tracee.transport.SoapHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,7 +20,7 @@ public class TraceeClientHandler extends AbstractTraceeHandler {
 
 	private static final Logger logger = LoggerFactory.getLogger(TraceeClientHandler.class);
 
-	private final SoapHeaderTransport transportSerialization = new SoapHeaderTransport();
+	private final SoapHeaderTransport transportSerialization = SoapHeaderTransport.getInstance();
 
 	public TraceeClientHandler() {
 		this(Tracee.getBackend());
@@ -44,7 +45,7 @@ public class TraceeClientHandler extends AbstractTraceeHandler {
 
 				if (header != null) {
 					final Map<String, String> parsedContext = transportSerialization.parseSoapHeader(header);
-					traceeBackend.putAll(traceeBackend.getConfiguration().filterDeniedParams(parsedContext, OutgoingRequest));
+					TpicPropagation.ingest(traceeBackend, traceeBackend.getConfiguration(), OutgoingRequest, parsedContext);
 				}
 			} catch (final SOAPException e) {
 				logger.warn("Error during precessing of inbound soap header: " + e.getMessage());
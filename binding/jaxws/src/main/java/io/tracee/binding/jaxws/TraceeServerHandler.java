@@ -5,6 +5,7 @@ import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
 import io.tracee.Utilities;
 import io.tracee.transport.SoapHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,7 +25,7 @@ public class TraceeServerHandler extends AbstractTraceeHandler {
 	private final SoapHeaderTransport transportSerialization;
 
 	public TraceeServerHandler() {
-		this(Tracee.getBackend(), new SoapHeaderTransport());
+		this(Tracee.getBackend(), SoapHeaderTransport.getInstance());
 	}
 
 	public TraceeServerHandler(TraceeBackend traceeBackend, SoapHeaderTransport soapHeaderTransport) {
@@ -39,8 +40,7 @@ public class TraceeServerHandler extends AbstractTraceeHandler {
 
 			if (header != null && traceeBackend.getConfiguration().shouldProcessContext(IncomingRequest)) {
 				final Map<String, String> parsedContext = transportSerialization.parseSoapHeader(header);
-				final Map<String, String> filteredContext = traceeBackend.getConfiguration().filterDeniedParams(parsedContext, IncomingRequest);
-				traceeBackend.putAll(filteredContext);
+				TpicPropagation.ingest(traceeBackend, traceeBackend.getConfiguration(), IncomingRequest, parsedContext);
 			}
 		} catch (final SOAPException e) {
 			logger.warn("Error during precessing of inbound soap header: {}", e.getMessage());
@@ -0,0 +1,290 @@
+package io.tracee.binding.jdkhttpclient;
+
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.binding.concurrent.TraceeCompletableFuture;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingResponse;
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
+
+/**
+ * Decorates a {@link HttpClient} to add the TPIC to every request and to merge the TPIC of responses of {@link #send}
+ * into the backend.
+ * <p/>
+ * The futures of {@link #sendAsync} are {@link TraceeCompletableFuture}s: their dependent stages run with the context
+ * of the caller, on whichever thread the response arrives. The TPIC of asynchronous responses is not merged, since
+ * the caller thread has moved on.
+ * <p/>
+ * Requests that already carry a TPIC header are sent unchanged. Use {@link #withTpic(HttpRequest.Builder)} to render
+ * the header once for all requests of a builder, e.g. for retries.
+ */
+public class TraceeHttpClient extends HttpClient {
+
+	private final HttpClient delegate;
+	private final TraceeBackend backend;
+	private final HttpHeaderTransport transportSerialization;
+	private final String profile;
+
+	public TraceeHttpClient(HttpClient delegate) {
+		this(delegate, Tracee.getBackend(), new HttpHeaderTransport(), Profile.DEFAULT);
+	}
+
+	public TraceeHttpClient(HttpClient delegate, TraceeBackend backend, HttpHeaderTransport transportSerialization, String profile) {
+		this.delegate = delegate;
+		this.backend = backend;
+		this.transportSerialization = transportSerialization;
+		this.profile = profile;
+	}
+
+	/**
+	 * Sets the TPIC header of the given builder to the current context.
+	 */
+	public HttpRequest.Builder withTpic(final HttpRequest.Builder builder) {
+		final List<String> fields = renderTpic();
+		for (int i = 0; i < fields.size(); i++) {
+			if (i == 0) {
+				builder.setHeader(TraceeConstants.TPIC_HEADER, fields.get(i));
+			} else {
+				builder.header(TraceeConstants.TPIC_HEADER, fields.get(i));
+			}
+		}
+		return builder;
+	}
+
+	private List<String> renderTpic() {
+		final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
+		if (backend.isEmpty() || !filterConfiguration.shouldProcessContext(OutgoingRequest)) {
+			return List.of();
+		}
+		return TpicPropagation.renderFields(backend, filterConfiguration, OutgoingRequest, transportSerialization);
+	}
+
+	private HttpRequest withTpic(final HttpRequest request) {
+		if (request.headers().firstValue(TraceeConstants.TPIC_HEADER).isPresent()) {
+			return request;
+		}
+		final List<String> fields = renderTpic();
+		if (fields.isEmpty()) {
+			return request;
+		}
+		final HttpRequest.Builder builder = HttpRequest.newBuilder(request.uri())
+			.expectContinue(request.expectContinue())
+			.method(request.method(), request.bodyPublisher().orElseGet(HttpRequest.BodyPublishers::noBody));
+		request.timeout().ifPresent(builder::timeout);
+		request.version().ifPresent(builder::version);
+		request.headers().map().forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+		TpicPropagation.writeFields(fields, new TpicPropagation.HeaderWriter() {
+			@Override
+			public void setHeader(final String name, final String value) {
+				builder.setHeader(name, value);
+			}
+
+			@Override
+			public void addHeader(final String name, final String value) {
+				builder.header(name, value);
+			}
+		});
+		return builder.build();
+	}
+
+	private void ingest(final HttpResponse<?> response) {
+		final List<String> headers = response.headers().allValues(TraceeConstants.TPIC_HEADER);
+		if (!headers.isEmpty()) {
+			final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
+			if (filterConfiguration.shouldProcessContext(IncomingResponse)) {
+				TpicPropagation.ingest(backend, filterConfiguration, IncomingResponse, transportSerialization, headers);
+			}
+		}
+	}
+
+	@Override
+	public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) throws IOException, InterruptedException {
+		final HttpResponse<T> response = delegate.send(withTpic(request), responseBodyHandler);
+		ingest(response);
+		return response;
+	}
+
+	@Override
+	public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+		return sendAsync(request, responseBodyHandler, null);
+	}
+
+	@Override
+	public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+															HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+		final CompletableFuture<HttpResponse<T>> sent = delegate.sendAsync(withTpic(request), responseBodyHandler, pushPromiseHandler);
+		final TraceeCompletableFuture<HttpResponse<T>> result = new TraceeCompletableFuture<HttpResponse<T>>(backend) {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				final boolean cancelled = super.cancel(mayInterruptIfRunning);
+				sent.cancel(mayInterruptIfRunning);
+				return cancelled;
+			}
+		};
+		sent.whenComplete((response, failure) -> {
+			if (failure != null) {
+				result.completeExceptionally(failure);
+			} else {
+				result.complete(response);
+			}
+		});
+		return result;
+	}
+
+	@Override
+	public Optional<CookieHandler> cookieHandler() {
+		return delegate.cookieHandler();
+	}
+
+	@Override
+	public Optional<Duration> connectTimeout() {
+		return delegate.connectTimeout();
+	}
+
+	@Override
+	public Redirect followRedirects() {
+		return delegate.followRedirects();
+	}
+
+	@Override
+	public Optional<ProxySelector> proxy() {
+		return delegate.proxy();
+	}
+
+	@Override
+	public SSLContext sslContext() {
+		return delegate.sslContext();
+	}
+
+	@Override
+	public SSLParameters sslParameters() {
+		return delegate.sslParameters();
+	}
+
+	@Override
+	public Optional<Authenticator> authenticator() {
+		return delegate.authenticator();
+	}
+
+	@Override
+	public Version version() {
+		return delegate.version();
+	}
+
+	@Override
+	public Optional<Executor> executor() {
+		return delegate.executor();
+	}
+
+	@Override
+	public WebSocket.Builder newWebSocketBuilder() {
+		return delegate.newWebSocketBuilder();
+	}
+
+	/*
+	 * The following methods override the lifecycle methods of Java 21. The binding is compiled for Java 11, so they are
+	 * delegated reflectively. On older JDKs clients have no lifecycle and the methods do nothing.
+	 */
+
+	public void shutdown() {
+		Lifecycle.invoke(Lifecycle.SHUTDOWN, delegate);
+	}
+
+	public void shutdownNow() {
+		Lifecycle.invoke(Lifecycle.SHUTDOWN_NOW, delegate);
+	}
+
+	public boolean awaitTermination(final Duration duration) throws InterruptedException {
+		if (Lifecycle.AWAIT_TERMINATION == null) {
+			return false;
+		}
+		try {
+			return (Boolean) Lifecycle.AWAIT_TERMINATION.invoke(delegate, duration);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof InterruptedException) {
+				throw (InterruptedException) e.getCause();
+			}
+			throw Lifecycle.rethrow(e);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public boolean isTerminated() {
+		final Object terminated = Lifecycle.invoke(Lifecycle.IS_TERMINATED, delegate);
+		return terminated != null && (Boolean) terminated;
+	}
+
+	public void close() {
+		Lifecycle.invoke(Lifecycle.CLOSE, delegate);
+	}
+
+	private static final class Lifecycle {
+		private static final Method SHUTDOWN = method("shutdown");
+		private static final Method SHUTDOWN_NOW = method("shutdownNow");
+		private static final Method AWAIT_TERMINATION = method("awaitTermination", Duration.class);
+		private static final Method IS_TERMINATED = method("isTerminated");
+		private static final Method CLOSE = method("close");
+
+		private Lifecycle() {
+			// hide constructor
+		}
+
+		private static Method method(final String name, final Class<?>... parameterTypes) {
+			try {
+				return HttpClient.class.getMethod(name, parameterTypes);
+			} catch (NoSuchMethodException e) {
+				return null;
+			}
+		}
+
+		/**
+		 * @return the result of the method or {@code null} if the JDK does not provide the method
+		 */
+		private static Object invoke(final Method method, final HttpClient client) {
+			if (method == null) {
+				return null;
+			}
+			try {
+				return method.invoke(client);
+			} catch (InvocationTargetException e) {
+				throw rethrow(e);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private static RuntimeException rethrow(final InvocationTargetException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			return new IllegalStateException(e.getCause());
+		}
+	}
+}
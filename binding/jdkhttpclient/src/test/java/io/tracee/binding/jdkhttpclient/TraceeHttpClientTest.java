@@ -0,0 +1,228 @@
+package io.tracee.binding.jdkhttpclient;
+
+import com.sun.net.httpserver.HttpServer;
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.HttpHeaderTransport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TraceeHttpClientTest {
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	private final AtomicReference<String> receivedTpic = new AtomicReference<>();
+
+	// the client threads are created before the context is set up, so they do not inherit it
+	private final ExecutorService clientExecutor = Executors.newSingleThreadExecutor();
+
+	private HttpServer server;
+	private TraceeHttpClient unit;
+	private URI uri;
+
+	@Before
+	public void before() throws Exception {
+		clientExecutor.submit(() -> { }).get();
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			receivedTpic.set(exchange.getRequestHeaders().getFirst(TraceeConstants.TPIC_HEADER));
+			exchange.getResponseHeaders().add(TraceeConstants.TPIC_HEADER, "fromServer=yes");
+			exchange.sendResponseHeaders(204, -1);
+			exchange.close();
+		});
+		server.start();
+		uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+		unit = new TraceeHttpClient(HttpClient.newBuilder().executor(clientExecutor).build(), backend, new HttpHeaderTransport(), Profile.DEFAULT);
+		backend.put("foo", "bar");
+	}
+
+	@After
+	public void after() {
+		server.stop(0);
+		clientExecutor.shutdownNow();
+		backend.clear();
+	}
+
+	@Test
+	public void sendShouldPropagateContextAndMergeResponseContext() throws Exception {
+		unit.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+		assertThat(receivedTpic.get(), is("foo=bar"));
+		assertThat(backend.get("fromServer"), is("yes"));
+	}
+
+	@Test
+	public void dependentStagesOfSendAsyncShouldRunWithContextOfCaller() throws Exception {
+		final Map<String, String> context = unit.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding())
+			.thenApplyAsync(response -> backend.copyToMap(), clientExecutor)
+			.get();
+		assertThat(receivedTpic.get(), is("foo=bar"));
+		assertThat(context, is(Collections.singletonMap("foo", "bar")));
+	}
+
+	@Test
+	public void cancelOfSendAsyncShouldCancelFutureOfDelegate() {
+		final StubHttpClient delegate = new StubHttpClient(HttpClient.newHttpClient());
+		final TraceeHttpClient stubbedUnit = new TraceeHttpClient(delegate, backend, new HttpHeaderTransport(), Profile.DEFAULT);
+
+		final CompletableFuture<HttpResponse<Void>> result = stubbedUnit.sendAsync(HttpRequest.newBuilder(uri).build(),
+			HttpResponse.BodyHandlers.discarding());
+		assertThat(result.cancel(true), is(true));
+		assertThat(delegate.sent.isCancelled(), is(true));
+	}
+
+	@Test
+	public void lifecycleMethodsShouldBeDelegated() throws Exception {
+		final StubHttpClient delegate = new StubHttpClient(HttpClient.newHttpClient());
+		final TraceeHttpClient stubbedUnit = new TraceeHttpClient(delegate, backend, new HttpHeaderTransport(), Profile.DEFAULT);
+		stubbedUnit.shutdown();
+		stubbedUnit.close();
+		final boolean lifecycleOfJdk = hasLifecycle();
+		assertThat(stubbedUnit.isTerminated(), is(lifecycleOfJdk));
+		assertThat(stubbedUnit.awaitTermination(Duration.ofMillis(1)), is(lifecycleOfJdk));
+		assertThat(delegate.lifecycleCalls, is(lifecycleOfJdk ? Arrays.asList("shutdown", "close", "isTerminated", "awaitTermination")
+			: Collections.<String>emptyList()));
+	}
+
+	private static boolean hasLifecycle() {
+		try {
+			HttpClient.class.getMethod("shutdown");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	@Test
+	public void requestOfTpicBuilderShouldBeSentWithRenderedHeader() throws Exception {
+		final HttpRequest.Builder builder = unit.withTpic(HttpRequest.newBuilder(uri));
+		backend.put("foo", "changed");
+		unit.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+		assertThat(receivedTpic.get(), is("foo=bar"));
+	}
+
+	/**
+	 * Delegates to a real client, but leaves futures of {@link #sendAsync} incomplete and records the calls of the
+	 * lifecycle methods of Java 21.
+	 */
+	private static final class StubHttpClient extends HttpClient {
+
+		private final HttpClient delegate;
+		private final List<String> lifecycleCalls = new ArrayList<>();
+		private CompletableFuture<?> sent;
+
+		StubHttpClient(HttpClient delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) throws IOException, InterruptedException {
+			return delegate.send(request, responseBodyHandler);
+		}
+
+		@Override
+		public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+			return sendAsync(request, responseBodyHandler, null);
+		}
+
+		@Override
+		public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+																HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+			final CompletableFuture<HttpResponse<T>> future = new CompletableFuture<>();
+			sent = future;
+			return future;
+		}
+
+		@Override
+		public Optional<CookieHandler> cookieHandler() {
+			return delegate.cookieHandler();
+		}
+
+		@Override
+		public Optional<Duration> connectTimeout() {
+			return delegate.connectTimeout();
+		}
+
+		@Override
+		public Redirect followRedirects() {
+			return delegate.followRedirects();
+		}
+
+		@Override
+		public Optional<ProxySelector> proxy() {
+			return delegate.proxy();
+		}
+
+		@Override
+		public SSLContext sslContext() {
+			return delegate.sslContext();
+		}
+
+		@Override
+		public SSLParameters sslParameters() {
+			return delegate.sslParameters();
+		}
+
+		@Override
+		public Optional<Authenticator> authenticator() {
+			return delegate.authenticator();
+		}
+
+		@Override
+		public Version version() {
+			return delegate.version();
+		}
+
+		@Override
+		public Optional<Executor> executor() {
+			return delegate.executor();
+		}
+
+		public void shutdown() {
+			lifecycleCalls.add("shutdown");
+		}
+
+		public void close() {
+			lifecycleCalls.add("close");
+		}
+
+		public boolean isTerminated() {
+			lifecycleCalls.add("isTerminated");
+			return true;
+		}
+
+		public boolean awaitTermination(Duration duration) {
+			lifecycleCalls.add("awaitTermination");
+			return true;
+		}
+	}
+}
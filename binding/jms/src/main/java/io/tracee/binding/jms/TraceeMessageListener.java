@@ -5,13 +5,14 @@ import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
 import io.tracee.Utilities;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicCodecs;
+import io.tracee.transport.TpicPropagation;
 
 import javax.interceptor.AroundInvoke;
 import javax.interceptor.InvocationContext;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import java.lang.reflect.Method;
-import java.util.Map;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.AsyncProcess;
 import static java.util.Collections.singletonList;
@@ -56,8 +57,12 @@ public final class TraceeMessageListener {
 		if (backend.getConfiguration().shouldProcessContext(AsyncProcess)) {
 			final String encodedTraceeContext = message.getStringProperty(TraceeConstants.TPIC_HEADER);
 			if (encodedTraceeContext != null) {
-				final Map<String, String> contextFromMessage = httpHeaderSerialization.parse(singletonList(encodedTraceeContext));
-				backend.putAll(backend.getConfiguration().filterDeniedParams(contextFromMessage, AsyncProcess));
+				TpicPropagation.ingest(backend, backend.getConfiguration(), AsyncProcess, httpHeaderSerialization, singletonList(encodedTraceeContext));
+			}
+			final String base64EncodedContext = message.getStringProperty(TraceeMessageProducer.ENCODED_TPIC_PROPERTY);
+			if (base64EncodedContext != null) {
+				TpicPropagation.ingest(backend, backend.getConfiguration(), AsyncProcess,
+					TpicCodecs.decode(Utilities.decodeBase64(base64EncodedContext)));
 			}
 		}
 
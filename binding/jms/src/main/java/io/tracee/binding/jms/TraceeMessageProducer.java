@@ -3,32 +3,60 @@ package io.tracee.binding.jms;
 import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
+import io.tracee.spi.TpicCodec;
+import io.tracee.transport.BinaryTpicCodec;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TextTpicCodec;
+import io.tracee.transport.TpicCodecs;
+import io.tracee.transport.TpicPropagation;
 
 import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageProducer;
-import java.util.Map;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.AsyncDispatch;
 
 public class TraceeMessageProducer implements MessageProducer {
 
+	/**
+	 * JMS properties can not hold bytes, so contexts of codecs other than the text form are carried Base64 encoded in this
+	 * property. The {@link TraceeConstants#TPIC_HEADER} property keeps carrying the text form only.
+	 */
+	static final String ENCODED_TPIC_PROPERTY = TraceeConstants.TPIC_HEADER + "Base64";
+
 	private final MessageProducer delegate;
 	private final TraceeBackend backend;
 	private final HttpHeaderTransport httpHeaderSerialization;
+	private final TpicCodec codec;
 
-	TraceeMessageProducer(MessageProducer delegate, TraceeBackend backend) {
+	TraceeMessageProducer(MessageProducer delegate, TraceeBackend backend, TpicCodec codec) {
 		this.delegate = delegate;
 		this.backend = backend;
 		this.httpHeaderSerialization = new HttpHeaderTransport();
+		// the text form is rendered by the optimized path of the backend
+		this.codec = codec instanceof TextTpicCodec ? null : codec;
+	}
+
+	TraceeMessageProducer(MessageProducer delegate, TraceeBackend backend) {
+		this(delegate, backend, TpicCodecs.forConfiguration(backend.getConfiguration()));
 	}
 
 	public TraceeMessageProducer(MessageProducer delegate) {
-		this.delegate = delegate;
-		this.backend = Tracee.getBackend();
-		this.httpHeaderSerialization = new HttpHeaderTransport();
+		this(delegate, Tracee.getBackend());
+	}
+
+	/**
+	 * @param binaryEncoding {@code true} to write the context in the compact binary form of {@link BinaryTpicCodec}
+	 *                       instead of the configured codec. Listeners read all forms.
+	 */
+	public TraceeMessageProducer(MessageProducer delegate, boolean binaryEncoding) {
+		this(delegate, Tracee.getBackend(), binaryEncoding);
+	}
+
+	TraceeMessageProducer(MessageProducer delegate, TraceeBackend backend, boolean binaryEncoding) {
+		this(delegate, backend, binaryEncoding ? TpicCodecs.forName(BinaryTpicCodec.NAME) : TpicCodecs.forConfiguration(backend.getConfiguration()));
 	}
 
 	/**
@@ -38,10 +66,13 @@ public class TraceeMessageProducer implements MessageProducer {
 	protected void writeTraceeContextToMessage(Message message) throws JMSException {
 
 		if (!backend.isEmpty() && backend.getConfiguration().shouldProcessContext(AsyncDispatch)) {
-			final Map<String, String> filteredContext = backend.getConfiguration().filterDeniedParams(backend.copyToMap(), AsyncDispatch);
-			final String contextAsString = httpHeaderSerialization.render(filteredContext);
-
-			message.setStringProperty(TraceeConstants.TPIC_HEADER, contextAsString);
+			if (codec != null) {
+				final byte[] encodedContext = codec.encode(backend.getConfiguration().filterDeniedParams(backend.copyToMap(), AsyncDispatch));
+				message.setStringProperty(ENCODED_TPIC_PROPERTY, Utilities.encodeBase64(encodedContext));
+			} else {
+				message.setStringProperty(TraceeConstants.TPIC_HEADER,
+					TpicPropagation.render(backend, backend.getConfiguration(), AsyncDispatch, httpHeaderSerialization));
+			}
 		}
 	}
 
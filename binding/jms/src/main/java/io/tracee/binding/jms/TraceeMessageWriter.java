@@ -20,4 +20,25 @@ public final class TraceeMessageWriter {
 	public static TopicPublisher wrap(TopicPublisher topicPublisher) {
 		return new TraceeTopicPublisher(new TraceeMessageProducer(topicPublisher), topicPublisher);
 	}
+
+	/**
+	 * Wraps the given producer like {@link #wrap(MessageProducer)} but writes the context in the compact binary form.
+	 */
+	public static MessageProducer wrapBinary(MessageProducer messageProducer) {
+		return new TraceeMessageProducer(messageProducer, true);
+	}
+
+	/**
+	 * Wraps the given sender like {@link #wrap(QueueSender)} but writes the context in the compact binary form.
+	 */
+	public static QueueSender wrapBinary(QueueSender queueSender) {
+		return new TraceeQueueSender(new TraceeMessageProducer(queueSender, true), queueSender);
+	}
+
+	/**
+	 * Wraps the given publisher like {@link #wrap(TopicPublisher)} but writes the context in the compact binary form.
+	 */
+	public static TopicPublisher wrapBinary(TopicPublisher topicPublisher) {
+		return new TraceeTopicPublisher(new TraceeMessageProducer(topicPublisher, true), topicPublisher);
+	}
 }
@@ -3,9 +3,13 @@ package io.tracee.binding.jms;
 import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
 import io.tracee.testhelper.FieldAccessUtil;
 import io.tracee.testhelper.SimpleTraceeBackend;
+import io.tracee.transport.BinaryHeaderTransport;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.SoapTpicCodec;
+import io.tracee.transport.TpicCodecs;
 import org.hamcrest.MatcherAssert;
 import org.junit.Before;
 import org.junit.Test;
@@ -96,6 +100,29 @@ public class TraceeMessageListenerTest {
 		verify(message, never()).getObjectProperty(anyString());
 	}
 
+	@Test
+	public void testDecodesBinaryFormFromMessage() throws Exception {
+		encodedContext.put("contextFromMessage", "yes");
+		encodedContext.put(INVOCATION_ID_KEY, "an invocationId");
+		when(message.getStringProperty(TraceeConstants.TPIC_HEADER)).thenReturn(null);
+		when(message.getStringProperty(TraceeMessageProducer.ENCODED_TPIC_PROPERTY))
+			.thenReturn(Utilities.encodeBase64(new BinaryHeaderTransport().render(encodedContext)));
+		unit.intercept(invocationContext);
+		assertThat(backend.getValuesBeforeLastClear(), hasEntry(INVOCATION_ID_KEY, "an invocationId"));
+		assertThat(backend.getValuesBeforeLastClear(), hasEntry("contextFromMessage", "yes"));
+	}
+
+	@Test
+	public void testDecodesFormOfAnyCodecFromMessage() throws Exception {
+		encodedContext.put("contextFromMessage", "yes");
+		final byte[] serialized = TpicCodecs.forName(SoapTpicCodec.NAME).encode(encodedContext);
+		when(message.getStringProperty(TraceeConstants.TPIC_HEADER)).thenReturn(null);
+		when(message.getStringProperty(TraceeConstants.TPIC_HEADER)).thenReturn(null);
+		when(message.getStringProperty(TraceeMessageProducer.ENCODED_TPIC_PROPERTY)).thenReturn(Utilities.encodeBase64(serialized));
+		unit.intercept(invocationContext);
+		assertThat(backend.getValuesBeforeLastClear(), hasEntry("contextFromMessage", "yes"));
+	}
+
 	@EJB
 	private class MdbLike {
 		public void onMessage(Message message) {
@@ -2,8 +2,13 @@ package io.tracee.binding.jms;
 
 import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
 import io.tracee.testhelper.SimpleTraceeBackend;
+import io.tracee.transport.BinaryHeaderTransport;
+import io.tracee.spi.TpicCodec;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.SoapTpicCodec;
+import io.tracee.transport.TpicCodecs;
 import org.junit.Test;
 
 import javax.jms.DeliveryMode;
@@ -38,6 +43,26 @@ public class TraceeMessageProducerTest {
 		verify(message).setStringProperty(eq(TraceeConstants.TPIC_HEADER), eq(renderedTpic));
 	}
 
+	@Test
+	public void writeTraceeContextInBinaryForm() throws Exception {
+		final TraceeMessageProducer binaryUnit = new TraceeMessageProducer(messageProducer, backend, true);
+		backend.put("random", "entry");
+		binaryUnit.writeTraceeContextToMessage(message);
+		final byte[] renderedTpic = new BinaryHeaderTransport().render(Collections.singletonMap("random", "entry"));
+		verify(message).setStringProperty(eq(TraceeMessageProducer.ENCODED_TPIC_PROPERTY), eq(Utilities.encodeBase64(renderedTpic)));
+		verify(message, never()).setStringProperty(eq(TraceeConstants.TPIC_HEADER), anyString());
+	}
+
+	@Test
+	public void writeTraceeContextWithGivenCodec() throws Exception {
+		final TpicCodec codec = TpicCodecs.forName(SoapTpicCodec.NAME);
+		final TraceeMessageProducer soapUnit = new TraceeMessageProducer(messageProducer, backend, codec);
+		backend.put("random", "entry");
+		soapUnit.writeTraceeContextToMessage(message);
+		final byte[] renderedTpic = codec.encode(Collections.singletonMap("random", "entry"));
+		verify(message).setStringProperty(eq(TraceeMessageProducer.ENCODED_TPIC_PROPERTY), eq(Utilities.encodeBase64(renderedTpic)));
+	}
+
 	@Test
 	public void testDontWriteEmptyTraceeContextToMessage() throws Exception {
 		backend.clear();
@@ -0,0 +1,103 @@
+package io.tracee.binding.netty;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.AsciiString;
+import io.netty.util.Attribute;
+import io.tracee.ContextSnapshots;
+import io.tracee.PersistentContextMap;
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration.Channel;
+import io.tracee.transport.HttpHeaderTransport;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reads and writes the TPIC header as {@link CharSequence} and binds the context of the channel to the backend while
+ * inbound messages are passed down the pipeline.
+ */
+abstract class ContextBindingHandler extends ChannelDuplexHandler {
+
+	static final AsciiString TPIC_HEADER = AsciiString.cached(TraceeConstants.TPIC_HEADER);
+
+	protected final TraceeBackend backend;
+	protected final HttpHeaderTransport transport;
+	protected final String profile;
+
+	ContextBindingHandler(final TraceeBackend backend, final HttpHeaderTransport transport, final String profile) {
+		this.backend = backend;
+		this.transport = transport;
+		this.profile = profile;
+	}
+
+	/**
+	 * Adds all pairs of the TPIC headers that are allowed on the given channel to the given context.
+	 */
+	final PersistentContextMap parse(final HttpHeaders headers, final Channel channel, final PersistentContextMap context) {
+		final TraceeFilterConfiguration configuration = backend.getConfiguration(profile);
+		if (!configuration.shouldProcessContext(channel)) {
+			return context;
+		}
+		PersistentContextMap result = context;
+		final Iterator<? extends CharSequence> values = headers.valueCharSequenceIterator(TPIC_HEADER);
+		while (values.hasNext()) {
+			final Map<String, String> parsed = configuration.filterDeniedParams(transport.parse(values.next()), channel);
+			for (Map.Entry<String, String> entry : parsed.entrySet()) {
+				result = result.with(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the TPIC header to the pairs of the given context that are allowed on the given channel. The header value is
+	 * rendered into a builder that Netty encodes without creating a String.
+	 */
+	final void render(final HttpHeaders headers, final Channel channel, final Map<String, String> context) {
+		if (context == null || context.isEmpty()) {
+			return;
+		}
+		final TraceeFilterConfiguration configuration = backend.getConfiguration(profile);
+		if (configuration.shouldProcessContext(channel)) {
+			final Map<String, String> filtered = configuration.filterDeniedParams(context, channel);
+			if (!filtered.isEmpty()) {
+				final StringBuilder header = new StringBuilder(128);
+				transport.render(filtered, header);
+				headers.set(TPIC_HEADER, header);
+			}
+		}
+	}
+
+	/**
+	 * Passes the message down the pipeline with the context of the channel bound to the backend. Modifications of the
+	 * context by the following handlers are stored in the channel attribute.
+	 */
+	final void fireChannelRead(final ChannelHandlerContext ctx, final Object msg) {
+		final Attribute<Map<String, String>> attribute = ctx.channel().attr(TraceeNetty.CONTEXT);
+		final Map<String, String> context = attribute.get();
+		if (context == null) {
+			ctx.fireChannelRead(msg);
+			return;
+		}
+		final Map<String, String> previous = ContextSnapshots.snapshot(backend);
+		final boolean bind = previous != context;
+		if (bind) {
+			ContextSnapshots.restore(backend, context);
+		}
+		try {
+			ctx.fireChannelRead(msg);
+		} finally {
+			final Map<String, String> modified = ContextSnapshots.snapshot(backend);
+			if (modified != context && attribute.get() == context) {
+				attribute.set(modified);
+			}
+			if (bind) {
+				ContextSnapshots.restore(backend, previous);
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package io.tracee.binding.netty;
+
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.Attribute;
+import io.tracee.ContextSnapshots;
+import io.tracee.PersistentContextMap;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.HttpHeaderTransport;
+
+import java.util.Map;
+
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingResponse;
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
+
+/**
+ * Handler for HTTP clients, to be added after the {@code HttpClientCodec}. Requests carry the context that is bound to
+ * the backend of the event loop, e.g. by a {@link TraceeHttpServerHandler} of a proxy, or else the context that was
+ * {@link TraceeNetty#captureContext(io.netty.channel.Channel) captured} for the channel. The TPIC of the response is
+ * merged into this context, which is bound to the backend while the response is passed to the following handlers and
+ * discarded after its last content.
+ */
+@Sharable
+public class TraceeHttpClientHandler extends ContextBindingHandler {
+
+	public TraceeHttpClientHandler() {
+		this(Tracee.getBackend(), new HttpHeaderTransport(), Profile.DEFAULT);
+	}
+
+	public TraceeHttpClientHandler(TraceeBackend backend, HttpHeaderTransport transport, String profile) {
+		super(backend, transport, profile);
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		if (msg instanceof HttpRequest) {
+			final Attribute<Map<String, String>> attribute = ctx.channel().attr(TraceeNetty.CONTEXT);
+			final Map<String, String> context = backend.isEmpty() ? attribute.get() : ContextSnapshots.snapshot(backend);
+			attribute.set(context);
+			render(((HttpRequest) msg).headers(), OutgoingRequest, context);
+		}
+		ctx.write(msg, promise);
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) {
+		if (msg instanceof HttpResponse) {
+			final Attribute<Map<String, String>> attribute = ctx.channel().attr(TraceeNetty.CONTEXT);
+			final PersistentContextMap context = PersistentContextMap.copyOf(TraceeNetty.getContext(ctx.channel()));
+			final PersistentContextMap merged = parse(((HttpResponse) msg).headers(), IncomingResponse, context);
+			if (!merged.isEmpty()) {
+				attribute.set(merged);
+			}
+		}
+		try {
+			fireChannelRead(ctx, msg);
+		} finally {
+			if (msg instanceof LastHttpContent) {
+				ctx.channel().attr(TraceeNetty.CONTEXT).set(null);
+			}
+		}
+	}
+}
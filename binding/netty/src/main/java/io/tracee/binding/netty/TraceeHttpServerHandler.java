@@ -0,0 +1,62 @@
+package io.tracee.binding.netty;
+
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.tracee.PersistentContextMap;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.HttpHeaderTransport;
+
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingRequest;
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingResponse;
+
+/**
+ * Handler for HTTP servers, to be added after the {@code HttpServerCodec}. It parses the TPIC of each request into the
+ * channel attribute {@link TraceeNetty#CONTEXT}, binds it to the backend while the request and its content are passed
+ * to the following handlers and writes it to the response. The context of a channel is discarded when the last content
+ * of the response is written.
+ */
+@Sharable
+public class TraceeHttpServerHandler extends ContextBindingHandler {
+
+	public TraceeHttpServerHandler() {
+		this(Tracee.getBackend(), new HttpHeaderTransport(), Profile.DEFAULT);
+	}
+
+	public TraceeHttpServerHandler(TraceeBackend backend, HttpHeaderTransport transport, String profile) {
+		super(backend, transport, profile);
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) {
+		if (msg instanceof HttpRequest) {
+			PersistentContextMap context = parse(((HttpRequest) msg).headers(), IncomingRequest, PersistentContextMap.EMPTY);
+			final TraceeFilterConfiguration configuration = backend.getConfiguration(profile);
+			if (!context.containsKey(TraceeConstants.INVOCATION_ID_KEY) && configuration.shouldGenerateInvocationId()) {
+				context = context.with(TraceeConstants.INVOCATION_ID_KEY,
+					Utilities.createRandomAlphanumeric(configuration.generatedInvocationIdLength()));
+			}
+			ctx.channel().attr(TraceeNetty.CONTEXT).set(context);
+		}
+		fireChannelRead(ctx, msg);
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		if (msg instanceof HttpResponse) {
+			render(((HttpResponse) msg).headers(), OutgoingResponse, ctx.channel().attr(TraceeNetty.CONTEXT).get());
+		}
+		if (msg instanceof LastHttpContent) {
+			ctx.channel().attr(TraceeNetty.CONTEXT).set(null);
+		}
+		ctx.write(msg, promise);
+	}
+}
@@ -0,0 +1,46 @@
+package io.tracee.binding.netty;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.tracee.ContextSnapshots;
+import io.tracee.PersistentContextMap;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+
+import java.util.Map;
+
+/**
+ * Holds the TracEE context of a channel in the channel attribute {@link #CONTEXT} between events. The handlers of this
+ * binding bind it to the backend only while they pass an event down the pipeline.
+ */
+public final class TraceeNetty {
+
+	/**
+	 * The immutable TracEE context of the current exchange on a channel.
+	 */
+	public static final AttributeKey<Map<String, String>> CONTEXT = AttributeKey.valueOf("io.tracee.context");
+
+	private TraceeNetty() {
+		// hide constructor
+	}
+
+	/**
+	 * Lets the next request that is written to the given client channel carry the current context, for requests that are
+	 * written from threads other than the event loop.
+	 */
+	public static void captureContext(final Channel channel) {
+		captureContext(channel, Tracee.getBackend());
+	}
+
+	public static void captureContext(final Channel channel, final TraceeBackend backend) {
+		channel.attr(CONTEXT).set(ContextSnapshots.snapshot(backend));
+	}
+
+	/**
+	 * @return the context of the current exchange on the given channel, or an empty map if there is none
+	 */
+	public static Map<String, String> getContext(final Channel channel) {
+		final Map<String, String> context = channel.attr(CONTEXT).get();
+		return context == null ? PersistentContextMap.EMPTY : context;
+	}
+}
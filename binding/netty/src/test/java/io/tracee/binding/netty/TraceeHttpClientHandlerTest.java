@@ -0,0 +1,90 @@
+package io.tracee.binding.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.HttpHeaderTransport;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class TraceeHttpClientHandlerTest {
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	private final ContextRecorder recorder = new ContextRecorder();
+
+	private final EmbeddedChannel channel = new EmbeddedChannel(
+		new TraceeHttpClientHandler(backend, new HttpHeaderTransport(), Profile.DEFAULT), recorder);
+
+	@After
+	public void after() {
+		channel.finishAndReleaseAll();
+		backend.clear();
+	}
+
+	@Test
+	public void shouldAddContextOfEventLoopBackendToRequest() {
+		backend.put("foo", "bar");
+		assertThat(headerOfWrittenRequest(), is("foo=bar"));
+	}
+
+	@Test
+	public void shouldAddCapturedContextToRequest() {
+		backend.put("foo", "bar");
+		TraceeNetty.captureContext(channel, backend);
+		backend.clear();
+		assertThat(headerOfWrittenRequest(), is("foo=bar"));
+	}
+
+	@Test
+	public void shouldBindMergedContextWhileResponseIsHandled() {
+		backend.put("foo", "bar");
+		headerOfWrittenRequest();
+		backend.clear();
+
+		final FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+		response.headers().set(TraceeConstants.TPIC_HEADER, "fromServer=yes");
+		channel.writeInbound(response);
+
+		assertThat(recorder.context.get("foo"), is("bar"));
+		assertThat(recorder.context.get("fromServer"), is("yes"));
+		assertThat(backend.isEmpty(), is(true));
+		assertThat(channel.attr(TraceeNetty.CONTEXT).get(), is(nullValue()));
+	}
+
+	private String headerOfWrittenRequest() {
+		channel.writeOutbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/"));
+		final FullHttpRequest request = channel.readOutbound();
+		final String header = request.headers().get(TraceeConstants.TPIC_HEADER);
+		request.release();
+		return header;
+	}
+
+	private final class ContextRecorder extends ChannelInboundHandlerAdapter {
+		private Map<String, String> context;
+
+		@Override
+		public void channelRead(ChannelHandlerContext ctx, Object msg) {
+			context = backend.copyToMap();
+			ReferenceCountUtil.release(msg);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package io.tracee.binding.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.HttpHeaderTransport;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class TraceeHttpServerHandlerTest {
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	private final ContextRecorder recorder = new ContextRecorder();
+
+	private final EmbeddedChannel channel = new EmbeddedChannel(
+		new TraceeHttpServerHandler(backend, new HttpHeaderTransport(), Profile.DEFAULT), recorder);
+
+	@After
+	public void after() {
+		channel.finishAndReleaseAll();
+		backend.clear();
+	}
+
+	@Test
+	public void shouldBindContextOfRequestWhileHandlersRun() {
+		channel.writeInbound(request("foo=bar"));
+		assertThat(recorder.context.get("foo"), is("bar"));
+		assertThat(recorder.context.get(TraceeConstants.INVOCATION_ID_KEY), is(notNullValue()));
+		assertThat(backend.isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldWriteContextWithModificationsOfHandlersToResponse() {
+		recorder.putOnRead = true;
+		channel.writeInbound(request("foo=bar"));
+		channel.writeOutbound(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+		final FullHttpResponse response = channel.readOutbound();
+		final String header = response.headers().get(TraceeConstants.TPIC_HEADER);
+		assertThat(header, containsString("foo=bar"));
+		assertThat(header, containsString("added=1"));
+		assertThat(header, containsString(TraceeConstants.INVOCATION_ID_KEY + "="));
+		response.release();
+	}
+
+	@Test
+	public void shouldDiscardContextAfterLastContentOfResponse() {
+		channel.writeInbound(request("foo=bar"));
+		channel.writeOutbound(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+		assertThat(channel.attr(TraceeNetty.CONTEXT).get(), is(nullValue()));
+	}
+
+	private static FullHttpRequest request(final String tpic) {
+		final FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
+		request.headers().set(TraceeConstants.TPIC_HEADER, tpic);
+		return request;
+	}
+
+	private final class ContextRecorder extends ChannelInboundHandlerAdapter {
+		private Map<String, String> context;
+		private boolean putOnRead;
+
+		@Override
+		public void channelRead(ChannelHandlerContext ctx, Object msg) {
+			context = backend.copyToMap();
+			if (putOnRead) {
+				backend.put("added", "1");
+			}
+			ReferenceCountUtil.release(msg);
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package io.tracee.binding.quartz;
 
+import io.tracee.ContextSnapshots;
 import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
@@ -45,7 +46,7 @@ public class TraceeContextInjector {
 		final TraceeFilterConfiguration configuration = backend.getConfiguration(profile);
 
 		if (!backend.isEmpty() && configuration.shouldProcessContext(AsyncDispatch)) {
-			jobDataMap.put(TraceeConstants.TPIC_HEADER, backend.getConfiguration(profile).filterDeniedParams(backend.copyToMap(), AsyncDispatch));
+			jobDataMap.put(TraceeConstants.TPIC_HEADER, configuration.filterDeniedParams(ContextSnapshots.snapshot(backend), AsyncDispatch));
 		}
 	}
 }
@@ -6,6 +6,7 @@ import io.tracee.TraceeConstants;
 import io.tracee.Utilities;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.TpicPropagation;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.listeners.JobListenerSupport;
@@ -52,8 +53,7 @@ public class TraceeJobListener extends JobListenerSupport {
 			final Map<String, String> traceeContext = (Map<String, String>) context.getMergedJobDataMap().get(TraceeConstants.TPIC_HEADER);
 
 			if (traceeContext != null && !traceeContext.isEmpty()) {
-				final Map<String, String> filteredContext = configuration.filterDeniedParams(traceeContext, AsyncProcess);
-				backend.putAll(filteredContext);
+				TpicPropagation.ingest(backend, configuration, AsyncProcess, traceeContext);
 			}
 		}
 
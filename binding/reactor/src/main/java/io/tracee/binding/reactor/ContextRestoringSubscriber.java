@@ -0,0 +1,91 @@
+package io.tracee.binding.reactor;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.util.context.Context;
+
+import java.util.Map;
+
+/**
+ * Delivers the signals to the actual subscriber with the TracEE context of its subscriber context bound to the backend.
+ * The context of the subscriber context does not change during a subscription, so it is looked up once. A thread that
+ * already holds this context, e.g. within a chain of synchronous operators, delivers the signals without touching the
+ * backend.
+ */
+final class ContextRestoringSubscriber<T> implements CoreSubscriber<T> {
+
+	private final CoreSubscriber<? super T> actual;
+	private final TraceeBackend backend;
+	private final Map<String, String> context;
+
+	ContextRestoringSubscriber(final CoreSubscriber<? super T> actual, final TraceeBackend backend, final Map<String, String> context) {
+		this.actual = actual;
+		this.backend = backend;
+		this.context = context;
+	}
+
+	@Override
+	public Context currentContext() {
+		return actual.currentContext();
+	}
+
+	@Override
+	public void onSubscribe(Subscription subscription) {
+		final Map<String, String> previous = enter();
+		try {
+			actual.onSubscribe(subscription);
+		} finally {
+			exit(previous);
+		}
+	}
+
+	@Override
+	public void onNext(T value) {
+		final Map<String, String> previous = enter();
+		try {
+			actual.onNext(value);
+		} finally {
+			exit(previous);
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		final Map<String, String> previous = enter();
+		try {
+			actual.onError(throwable);
+		} finally {
+			exit(previous);
+		}
+	}
+
+	@Override
+	public void onComplete() {
+		final Map<String, String> previous = enter();
+		try {
+			actual.onComplete();
+		} finally {
+			exit(previous);
+		}
+	}
+
+	/**
+	 * @return the context to restore afterwards or {@code null} if the thread already held the context
+	 */
+	private Map<String, String> enter() {
+		final Map<String, String> previous = ContextSnapshots.snapshot(backend);
+		if (previous == context) {
+			return null;
+		}
+		ContextSnapshots.restore(backend, context);
+		return previous;
+	}
+
+	private void exit(final Map<String, String> previous) {
+		if (previous != null) {
+			ContextSnapshots.restore(backend, previous);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package io.tracee.binding.reactor;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.PersistentContextMap;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Carries the TracEE context in the {@link Context} of Reactor subscriptions, where it survives operators and scheduler
+ * hops, and restores it into the {@link TraceeBackend} while signals are delivered.
+ * <p/>
+ * Put the context into the subscriber context with {@link #withContext(Map)} or {@link #captureContext()} and
+ * {@link #install()} the hook once, e.g. on application startup:
+ * <pre>
+ * TraceeReactor.install();
+ * mono.subscriberContext(TraceeReactor.captureContext());
+ * </pre>
+ */
+public final class TraceeReactor {
+
+	/**
+	 * Key of the TracEE context in the Reactor {@link Context}. The value is an immutable {@code Map<String, String>}.
+	 */
+	public static final String CONTEXT_KEY = "io.tracee.context";
+
+	private static final String HOOK_KEY = TraceeReactor.class.getName();
+
+	private TraceeReactor() {
+		// hide constructor
+	}
+
+	/**
+	 * Lets every operator that is assembled from now on deliver its signals with the TracEE context of its subscriber
+	 * context bound to the backend. Subscriptions without a TracEE context are not affected.
+	 */
+	public static void install() {
+		install(Tracee.getBackend());
+	}
+
+	public static void install(final TraceeBackend backend) {
+		Hooks.onEachOperator(HOOK_KEY, Operators.lift((scannable, subscriber) -> decorate(backend, subscriber)));
+	}
+
+	/**
+	 * Removes the hook of {@link #install()}. Operators that were assembled before keep restoring the context.
+	 */
+	public static void uninstall() {
+		Hooks.resetOnEachOperator(HOOK_KEY);
+	}
+
+	static <T> CoreSubscriber<? super T> decorate(final TraceeBackend backend, final CoreSubscriber<? super T> subscriber) {
+		if (subscriber instanceof ContextRestoringSubscriber) {
+			return subscriber;
+		}
+		final Map<String, String> context = getContext(subscriber.currentContext());
+		if (context.isEmpty()) {
+			return subscriber;
+		}
+		return new ContextRestoringSubscriber<>(subscriber, backend, context);
+	}
+
+	/**
+	 * @return a function for {@code subscriberContext(..)} that puts the current TracEE context into the subscriber context
+	 */
+	public static Function<Context, Context> captureContext() {
+		return captureContext(Tracee.getBackend());
+	}
+
+	public static Function<Context, Context> captureContext(final TraceeBackend backend) {
+		return withContext(ContextSnapshots.snapshot(backend));
+	}
+
+	/**
+	 * @return a function for {@code subscriberContext(..)} that puts the given TracEE context into the subscriber context
+	 */
+	public static Function<Context, Context> withContext(final Map<String, String> context) {
+		final PersistentContextMap immutableContext = PersistentContextMap.copyOf(context);
+		return subscriberContext -> subscriberContext.put(CONTEXT_KEY, immutableContext);
+	}
+
+	/**
+	 * @return the TracEE context of the given subscriber context, or an empty map if it holds none
+	 */
+	public static Map<String, String> getContext(final Context subscriberContext) {
+		return subscriberContext.getOrDefault(CONTEXT_KEY, PersistentContextMap.EMPTY);
+	}
+}
@@ -0,0 +1,103 @@
+package io.tracee.binding.reactor;
+
+import io.tracee.BackendBase;
+import io.tracee.PersistentContextMap;
+import io.tracee.TraceeBackend;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class TraceeReactorTest {
+
+	private static final Map<String, String> CONTEXT = Collections.singletonMap("key1", "value1");
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	private final Scheduler scheduler = Schedulers.newSingle("tracee-test");
+
+	@Before
+	public void before() {
+		TraceeReactor.install(backend);
+	}
+
+	@After
+	public void after() {
+		TraceeReactor.uninstall();
+		scheduler.dispose();
+		backend.clear();
+	}
+
+	@Test
+	public void signalsShouldBeDeliveredWithContextAfterSchedulerHop() {
+		final Map<String, String> result = Mono.just("value")
+			.publishOn(scheduler)
+			.map(value -> backend.copyToMap())
+			.subscriberContext(TraceeReactor.withContext(CONTEXT))
+			.block();
+		assertThat(result, is(CONTEXT));
+		assertThat(backend.isEmpty(), is(true));
+	}
+
+	@Test
+	public void schedulerThreadShouldBeClearedAfterSignal() {
+		Mono.just("value").publishOn(scheduler).map(value -> backend.copyToMap())
+			.subscriberContext(TraceeReactor.withContext(CONTEXT)).block();
+		final Map<String, String> result = Mono.just("value").publishOn(scheduler).map(value -> backend.copyToMap()).block();
+		assertThat(result.isEmpty(), is(true));
+	}
+
+	@Test
+	public void captureContextShouldPutCurrentContextIntoSubscriberContext() {
+		backend.put("key1", "value1");
+		final Mono<Map<String, String>> mono = Flux.range(0, 3)
+			.publishOn(scheduler)
+			.map(value -> backend.copyToMap())
+			.next()
+			.subscriberContext(TraceeReactor.captureContext(backend));
+		backend.clear();
+		assertThat(mono.block(), is(CONTEXT));
+	}
+
+	@Test
+	public void operatorsShouldShareOneSnapshot() {
+		final List<PersistentContextMap> snapshots = Flux.range(0, 3)
+			.publishOn(scheduler)
+			.map(value -> ((BackendBase) backend).snapshot())
+			.collectList()
+			.subscriberContext(TraceeReactor.withContext(CONTEXT))
+			.block();
+		assertThat(snapshots.get(1), is(sameInstance(snapshots.get(0))));
+		assertThat(snapshots.get(2), is(sameInstance(snapshots.get(0))));
+	}
+
+	@Test
+	public void getContextShouldReturnEmptyMapWithoutContext() {
+		assertThat(TraceeReactor.getContext(Context.empty()).isEmpty(), is(true));
+		assertThat(TraceeReactor.getContext(TraceeReactor.withContext(CONTEXT).apply(Context.empty())), is(CONTEXT));
+	}
+
+	@Test
+	public void uninstallShouldStopRestoringContext() {
+		TraceeReactor.uninstall();
+		final Map<String, String> result = Mono.just("value")
+			.publishOn(scheduler)
+			.map(value -> backend.copyToMap())
+			.subscriberContext(TraceeReactor.withContext(CONTEXT))
+			.block();
+		assertThat(result.isEmpty(), is(true));
+	}
+}
@@ -0,0 +1,110 @@
+package io.tracee.binding.servlet;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+import io.tracee.concurrent.TraceeExecutors;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+/**
+ * An {@link AsyncContext} that runs {@link #start(Runnable) started} tasks with the context of the thread that starts them.
+ * Before the request is {@link #complete() completed} or {@link #dispatch() dispatched}, the context of the calling thread
+ * is kept with the request, so that the response header and the async dispatch see it. The header is written before the
+ * request is completed, because containers may close the response before they notify the listeners.
+ */
+final class TraceeAsyncContext implements AsyncContext {
+
+	private final AsyncContext delegate;
+	private final TraceeBackend backend;
+	private final TraceeAsyncListener listener;
+
+	TraceeAsyncContext(AsyncContext delegate, TraceeBackend backend, TraceeAsyncListener listener) {
+		this.delegate = delegate;
+		this.backend = backend;
+		this.listener = listener;
+	}
+
+	@Override
+	public void start(final Runnable run) {
+		delegate.start(TraceeExecutors.wrap(backend, run));
+	}
+
+	@Override
+	public void complete() {
+		keepContext();
+		listener.writeKeptContext();
+		delegate.complete();
+	}
+
+	@Override
+	public void dispatch() {
+		keepContext();
+		delegate.dispatch();
+	}
+
+	@Override
+	public void dispatch(final String path) {
+		keepContext();
+		delegate.dispatch(path);
+	}
+
+	@Override
+	public void dispatch(final ServletContext context, final String path) {
+		keepContext();
+		delegate.dispatch(context, path);
+	}
+
+	/**
+	 * Threads without a context, e.g. of an executor that is not wrapped, do not replace the kept context.
+	 */
+	private void keepContext() {
+		if (!backend.isEmpty()) {
+			delegate.getRequest().setAttribute(TraceeFilter.CONTEXT_ATTRIBUTE, ContextSnapshots.snapshot(backend));
+		}
+	}
+
+	@Override
+	public ServletRequest getRequest() {
+		return delegate.getRequest();
+	}
+
+	@Override
+	public ServletResponse getResponse() {
+		return delegate.getResponse();
+	}
+
+	@Override
+	public boolean hasOriginalRequestAndResponse() {
+		return delegate.hasOriginalRequestAndResponse();
+	}
+
+	@Override
+	public void addListener(final AsyncListener listener) {
+		delegate.addListener(listener);
+	}
+
+	@Override
+	public void addListener(final AsyncListener listener, final ServletRequest servletRequest, final ServletResponse servletResponse) {
+		delegate.addListener(listener, servletRequest, servletResponse);
+	}
+
+	@Override
+	public <T extends AsyncListener> T createListener(final Class<T> clazz) throws ServletException {
+		return delegate.createListener(clazz);
+	}
+
+	@Override
+	public void setTimeout(final long timeout) {
+		delegate.setTimeout(timeout);
+	}
+
+	@Override
+	public long getTimeout() {
+		return delegate.getTimeout();
+	}
+}
@@ -0,0 +1,58 @@
+package io.tracee.binding.servlet;
+
+import io.tracee.configuration.TraceeFilterConfiguration;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Writes the context that is kept with an async request to the response, unless the response is already committed.
+ * <p/>
+ * Containers notify {@link #onComplete} after the response is closed, so {@link TraceeAsyncContext#complete()} writes the
+ * context before it completes the request. The listener writes it if the request times out or fails instead.
+ */
+final class TraceeAsyncListener implements AsyncListener {
+
+	private final TraceeFilter filter;
+	private final TraceeFilterConfiguration configuration;
+	private final HttpServletRequest request;
+	private final HttpServletResponse response;
+
+	TraceeAsyncListener(TraceeFilter filter, TraceeFilterConfiguration configuration, HttpServletRequest request,
+						HttpServletResponse response) {
+		this.filter = filter;
+		this.configuration = configuration;
+		this.request = request;
+		this.response = response;
+	}
+
+	/**
+	 * Writes the context that is kept with the request to the response, if it is not committed yet.
+	 */
+	void writeKeptContext() {
+		filter.writeKeptContextToResponse(request, response, configuration);
+	}
+
+	@Override
+	public void onComplete(final AsyncEvent event) {
+	}
+
+	@Override
+	public void onTimeout(final AsyncEvent event) {
+		writeKeptContext();
+	}
+
+	@Override
+	public void onError(final AsyncEvent event) {
+		writeKeptContext();
+	}
+
+	/**
+	 * {@link TraceeAsyncRequest} adds the listener again whenever it starts a new async cycle.
+	 */
+	@Override
+	public void onStartAsync(final AsyncEvent event) {
+	}
+}
@@ -0,0 +1,54 @@
+package io.tracee.binding.servlet;
+
+import io.tracee.TraceeBackend;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Hands out {@link TraceeAsyncContext}s to the servlets of an async supporting request. The given listener is added to
+ * every async cycle as soon as it starts, i.e. before any started task can complete it.
+ */
+final class TraceeAsyncRequest extends HttpServletRequestWrapper {
+
+	private final TraceeBackend backend;
+	private final TraceeAsyncListener listener;
+	private boolean asyncStarted;
+
+	TraceeAsyncRequest(HttpServletRequest request, TraceeBackend backend, TraceeAsyncListener listener) {
+		super(request);
+		this.backend = backend;
+		this.listener = listener;
+	}
+
+	@Override
+	public AsyncContext startAsync() {
+		return withListener(super.startAsync());
+	}
+
+	@Override
+	public AsyncContext startAsync(final ServletRequest servletRequest, final ServletResponse servletResponse) {
+		return withListener(super.startAsync(servletRequest, servletResponse));
+	}
+
+	@Override
+	public AsyncContext getAsyncContext() {
+		return new TraceeAsyncContext(super.getAsyncContext(), backend, listener);
+	}
+
+	/**
+	 * @return {@code true} if an async cycle was started through this request, even if it is already completed
+	 */
+	boolean hasStartedAsync() {
+		return asyncStarted;
+	}
+
+	private AsyncContext withListener(final AsyncContext asyncContext) {
+		asyncContext.addListener(listener);
+		asyncStarted = true;
+		return new TraceeAsyncContext(asyncContext, backend, listener);
+	}
+}
@@ -1,10 +1,11 @@
 package io.tracee.binding.servlet;
 
+import io.tracee.ContextSnapshots;
 import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
-import io.tracee.TraceeConstants;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
@@ -21,12 +22,24 @@ import java.util.Map;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingResponse;
 
-@WebFilter(filterName = "traceeFilter", urlPatterns = "/*", dispatcherTypes = DispatcherType.REQUEST)
+/**
+ * Writes the context to the response.
+ * <p/>
+ * Requests that are processed asynchronously keep their context as request attribute {@link #CONTEXT_ATTRIBUTE} while
+ * no thread processes them. The filter restores it on {@link DispatcherType#ASYNC} dispatches, tasks that are started by
+ * {@link javax.servlet.AsyncContext#start(Runnable)} run with the context of the starting thread, and the response
+ * header is written when the async processing completes.
+ */
+@WebFilter(filterName = "traceeFilter", urlPatterns = "/*", dispatcherTypes = {DispatcherType.REQUEST, DispatcherType.ASYNC},
+	asyncSupported = true)
 public class TraceeFilter implements Filter {
 
 	public static final String PROFILE_INIT_PARAM = "profile";
 
-	private static final String HTTP_HEADER_NAME = TraceeConstants.TPIC_HEADER;
+	/**
+	 * Name of the request attribute that holds a snapshot of the context of an async request.
+	 */
+	public static final String CONTEXT_ATTRIBUTE = "io.tracee.binding.servlet.context";
 
 	private String profile = TraceeFilterConfiguration.Profile.DEFAULT;
 
@@ -58,23 +71,70 @@ public class TraceeFilter implements Filter {
 							final FilterChain filterChain) throws IOException, ServletException {
 
 		final TraceeFilterConfiguration configuration = backend.getConfiguration(profile);
+		final Object keptContext = request.getAttribute(CONTEXT_ATTRIBUTE);
+		if (keptContext != null && request.getDispatcherType() == DispatcherType.ASYNC) {
+			restoreContext(keptContext);
+		}
 
+		final TraceeAsyncRequest asyncRequest = request.isAsyncSupported()
+			? new TraceeAsyncRequest(request, backend, new TraceeAsyncListener(this, configuration, request, response)) : null;
 		try {
 			// we need to eagerly write ResponseHeaders since the inner servlets may flush the output stream
 			// and writing of response headers become impossible afterwards. This is a best effort trade-off.
 			writeContextToResponse(response, configuration);
-			filterChain.doFilter(request, response);
+			filterChain.doFilter(asyncRequest != null ? asyncRequest : request, response);
 		} finally {
-			if (!response.isCommitted()) {
+			// the listener was added when the async cycle started, even if a started task did already complete it
+			if (asyncRequest != null && asyncRequest.hasStartedAsync()) {
+				// the request leaves the container thread: keep its context unless the async processing did already.
+				// The header is written when the request completes, possibly already by a started task.
+				if (request.getAttribute(CONTEXT_ATTRIBUTE) == keptContext) {
+					request.setAttribute(CONTEXT_ATTRIBUTE, ContextSnapshots.snapshot(backend));
+				}
+				backend.clear();
+			} else if (!response.isCommitted()) {
+				writeContextToResponse(response, configuration);
+			}
+		}
+	}
+
+	/**
+	 * Writes the context that is kept with the async request to the response, if it is not committed yet. The context of
+	 * the calling thread is restored afterwards.
+	 */
+	final void writeKeptContextToResponse(final HttpServletRequest request, final HttpServletResponse response,
+										  final TraceeFilterConfiguration configuration) {
+		final Object keptContext = request.getAttribute(CONTEXT_ATTRIBUTE);
+		if (keptContext != null && !response.isCommitted()) {
+			final Map<String, String> previous = ContextSnapshots.snapshot(backend);
+			restoreContext(keptContext);
+			try {
 				writeContextToResponse(response, configuration);
+			} finally {
+				ContextSnapshots.restore(backend, previous);
 			}
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	private void restoreContext(final Object keptContext) {
+		ContextSnapshots.restore(backend, (Map<String, String>) keptContext);
+	}
+
 	private void writeContextToResponse(final HttpServletResponse response, final TraceeFilterConfiguration configuration) {
 		if (!backend.isEmpty() && configuration.shouldProcessContext(OutgoingResponse)) {
-			final Map<String, String> filteredContext = backend.getConfiguration(profile).filterDeniedParams(backend.copyToMap(), OutgoingResponse);
-			response.setHeader(HTTP_HEADER_NAME, transportSerialization.render(filteredContext));
+			TpicPropagation.writeFields(TpicPropagation.renderFields(backend, configuration, OutgoingResponse, transportSerialization),
+				new TpicPropagation.HeaderWriter() {
+					@Override
+					public void setHeader(final String name, final String value) {
+						response.setHeader(name, value);
+					}
+
+					@Override
+					public void addHeader(final String name, final String value) {
+						response.addHeader(name, value);
+					}
+				});
 		}
 	}
 
@@ -1,12 +1,15 @@
 package io.tracee.binding.servlet;
 
+import io.tracee.ContextSnapshots;
 import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
 import io.tracee.Utilities;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletRequestEvent;
 import javax.servlet.ServletRequestListener;
@@ -21,6 +24,9 @@ import static io.tracee.configuration.TraceeFilterConfiguration.Channel.Incoming
 
 /**
  * Manages the TracEE lifecycle.
+ * <p/>
+ * Containers that notify listeners about {@link DispatcherType#ASYNC} dispatches get the context back that is kept with
+ * the async request, see {@link TraceeFilter#CONTEXT_ATTRIBUTE}.
  */
 @WebListener("TraceeServletRequestListener to read incoming TPICs into Tracee backend")
 public final class TraceeServletRequestListener implements ServletRequestListener {
@@ -42,6 +48,11 @@ public final class TraceeServletRequestListener implements ServletRequestListene
 
 	@Override
 	public void requestDestroyed(final ServletRequestEvent sre) {
+		final ServletRequest servletRequest = sre.getServletRequest();
+		// the TraceeFilter keeps the context of async requests and clears the thread itself, so the backend is empty then
+		if (!backend.isEmpty() && servletRequest.isAsyncStarted()) {
+			servletRequest.setAttribute(TraceeFilter.CONTEXT_ATTRIBUTE, ContextSnapshots.snapshot(backend));
+		}
 		backend.clear();
 	}
 
@@ -53,15 +64,21 @@ public final class TraceeServletRequestListener implements ServletRequestListene
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	private void httpRequestInitialized(final HttpServletRequest request) {
+		final Object keptContext = request.getAttribute(TraceeFilter.CONTEXT_ATTRIBUTE);
+		if (keptContext != null && request.getDispatcherType() == DispatcherType.ASYNC) {
+			ContextSnapshots.restore(backend, (Map<String, String>) keptContext);
+			return;
+		}
+
 		final TraceeFilterConfiguration configuration = backend.getConfiguration();
 
 		if (configuration.shouldProcessContext(IncomingRequest)) {
 			final Enumeration<String> headers = request.getHeaders(HTTP_HEADER_NAME);
 
 			if (headers != null && headers.hasMoreElements()) {
-				final Map<String, String> contextMap = transportSerialization.parse(Collections.list(headers));
-				backend.putAll(backend.getConfiguration().filterDeniedParams(contextMap, IncomingRequest));
+				TpicPropagation.ingest(backend, configuration, IncomingRequest, transportSerialization, Collections.list(headers));
 			}
 		}
 
@@ -0,0 +1,121 @@
+package io.tracee.binding.servlet;
+
+import io.tracee.TraceeConstants;
+import io.tracee.testhelper.SimpleTraceeBackend;
+import io.tracee.transport.HttpHeaderTransport;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TraceeAsyncContextTest {
+
+	private final SimpleTraceeBackend backend = SimpleTraceeBackend.createNonLoggingAllPermittingBackend();
+	private final AsyncContext delegate = mock(AsyncContext.class);
+	private final HttpServletRequest request = mock(HttpServletRequest.class);
+	private final HttpServletResponse response = mock(HttpServletResponse.class);
+	private final TraceeAsyncListener listener = new TraceeAsyncListener(new TraceeFilter(backend, new HttpHeaderTransport()),
+		backend.getConfiguration(), request, response);
+	private final TraceeAsyncContext unit = new TraceeAsyncContext(delegate, backend, listener);
+
+	@Test
+	public void startedTaskShouldRunWithContextOfStartingThread() {
+		final AtomicReference<Map<String, String>> contextInTask = new AtomicReference<>();
+		backend.put("key1", "value1");
+		unit.start(new Runnable() {
+			@Override
+			public void run() {
+				contextInTask.set(backend.copyToMap());
+			}
+		});
+		backend.clear();
+
+		final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+		verify(delegate).start(task.capture());
+		task.getValue().run();
+		assertThat(contextInTask.get(), is(Collections.singletonMap("key1", "value1")));
+		assertThat(backend.isEmpty(), is(true));
+	}
+
+	@Test
+	public void completeShouldKeepContextOfCallingThreadWithRequest() {
+		when(delegate.getRequest()).thenReturn(request);
+		backend.put("key1", "value1");
+		unit.complete();
+		final InOrder inOrder = inOrder(request, delegate);
+		inOrder.verify(request).setAttribute(TraceeFilter.CONTEXT_ATTRIBUTE, Collections.singletonMap("key1", "value1"));
+		inOrder.verify(delegate).complete();
+	}
+
+	@Test
+	public void completeShouldWriteContextToResponseBeforeTheContainerClosesIt() {
+		final Map<String, Object> attributes = new HashMap<>();
+		final AtomicBoolean committed = new AtomicBoolean();
+		when(delegate.getRequest()).thenReturn(request);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				attributes.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+				return null;
+			}
+		}).when(request).setAttribute(anyString(), anyObject());
+		when(request.getAttribute(anyString())).thenAnswer(new Answer<Object>() {
+			@Override
+			public Object answer(InvocationOnMock invocation) {
+				return attributes.get(invocation.getArguments()[0]);
+			}
+		});
+		when(response.isCommitted()).thenAnswer(new Answer<Boolean>() {
+			@Override
+			public Boolean answer(InvocationOnMock invocation) {
+				return committed.get();
+			}
+		});
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				committed.set(true);
+				return null;
+			}
+		}).when(delegate).complete();
+		backend.put("key1", "value1");
+
+		unit.complete();
+		listener.onComplete(null);
+
+		final InOrder inOrder = inOrder(response, delegate);
+		inOrder.verify(response).setHeader(TraceeConstants.TPIC_HEADER, "key1=value1");
+		inOrder.verify(delegate).complete();
+		verify(response).setHeader(anyString(), anyString());
+		assertThat(backend.copyToMap(), is(Collections.singletonMap("key1", "value1")));
+	}
+
+	@Test
+	public void dispatchFromThreadWithoutContextShouldNotReplaceKeptContext() {
+		when(delegate.getRequest()).thenReturn(request);
+		unit.dispatch("/path");
+		verify(request, never()).setAttribute(anyString(), anyObject());
+		verify(delegate).dispatch("/path");
+	}
+}
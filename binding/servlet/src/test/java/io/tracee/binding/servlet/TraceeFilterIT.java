@@ -16,7 +16,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.DispatcherType;
+import javax.servlet.FilterRegistration;
 import javax.servlet.ServletContainerInitializer;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -57,12 +59,17 @@ public class TraceeFilterIT {
 
 		@Override
 		public void onStartup(Set<Class<?>> c, ServletContext ctx) throws ServletException {
-			ctx.addFilter("traceeFilter", TraceeFilter.class).addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/*");
+			final FilterRegistration.Dynamic traceeFilter = ctx.addFilter("traceeFilter", TraceeFilter.class);
+			traceeFilter.setAsyncSupported(true);
+			traceeFilter.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST, DispatcherType.ASYNC), false, "/*");
 			ctx.addListener(TraceeServletRequestListener.class);
 			ctx.addListener(TraceeSessionListener.class);
 
 			final ServletRegistration.Dynamic sillyServlet = ctx.addServlet("sillyServlet", SillyServlet.class);
 			sillyServlet.addMapping("/sillyServlet", "/sillyFlushingServlet");
+			final ServletRegistration.Dynamic asyncServlet = ctx.addServlet("asyncServlet", AsyncServlet.class);
+			asyncServlet.setAsyncSupported(true);
+			asyncServlet.addMapping("/asyncServlet");
 		}
 	}
 
@@ -74,6 +81,23 @@ public class TraceeFilterIT {
 		}
 	}
 
+	public static final class AsyncServlet extends HttpServlet {
+		@Override
+		protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+			Tracee.getBackend().put("inServlet", "yes");
+			final AsyncContext asyncContext = req.startAsync();
+			asyncContext.start(new Runnable() {
+				@Override
+				public void run() {
+					if (Tracee.getBackend().get("inServlet") != null) {
+						Tracee.getBackend().put("inAsyncTask", "yes");
+					}
+					asyncContext.complete();
+				}
+			});
+		}
+	}
+
 	@After
 	public void stopJetty() throws Exception {
 		if (server != null) {
@@ -101,6 +125,16 @@ public class TraceeFilterIT {
 		assertThat(traceeResponseHeader.getValue(), containsString(TraceeConstants.INVOCATION_ID_KEY + "="));
 	}
 
+	@Test
+	public void testRoundtripWithAsyncServlet() throws Exception {
+		final Header traceeResponseHeader = get("asyncServlet", "inClient=yes").getFirstHeader(TraceeConstants.TPIC_HEADER);
+
+		assertThat(traceeResponseHeader, notNullValue());
+		assertThat(traceeResponseHeader.getValue(), containsString("inClient=yes"));
+		assertThat(traceeResponseHeader.getValue(), containsString("inServlet=yes"));
+		assertThat(traceeResponseHeader.getValue(), containsString("inAsyncTask=yes"));
+	}
+
 	public static final class SillyFlushingServlet extends HttpServlet {
 		@Override
 		protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
@@ -8,8 +8,13 @@ import io.tracee.testhelper.SimpleTraceeBackend;
 import io.tracee.transport.HttpHeaderTransport;
 import org.hamcrest.MatcherAssert;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletException;
@@ -18,14 +23,19 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.contains;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -96,6 +106,92 @@ public class TraceeFilterTest {
 		verify(filterChain).doFilter(httpServletRequest, httpServletResponse);
 	}
 
+	@Test
+	public void shouldKeepContextWithRequestAndClearThreadWhenAsyncProcessingStarts() throws Exception {
+		final AsyncContext asyncContext = mock(AsyncContext.class);
+		when(httpServletRequest.isAsyncSupported()).thenReturn(true);
+		when(httpServletRequest.startAsync()).thenReturn(asyncContext);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				((HttpServletRequest) invocation.getArguments()[0]).startAsync();
+				return null;
+			}
+		}).when(filterChain).doFilter(any(HttpServletRequest.class), eq(httpServletResponse));
+		backend.put("key1", "value1");
+
+		unit.doFilter(httpServletRequest, httpServletResponse, filterChain);
+
+		verify(httpServletRequest).setAttribute(TraceeFilter.CONTEXT_ATTRIBUTE, Collections.singletonMap("key1", "value1"));
+		verify(asyncContext).addListener(any(TraceeAsyncListener.class));
+		MatcherAssert.assertThat(backend.isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldAddListenerAndClearThreadIfStartedTaskCompletesBeforeDispatchReturns() throws Exception {
+		final AsyncContext asyncContext = mock(AsyncContext.class);
+		when(httpServletRequest.isAsyncSupported()).thenReturn(true);
+		when(httpServletRequest.startAsync()).thenReturn(asyncContext);
+		when(asyncContext.getRequest()).thenReturn(httpServletRequest);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				((HttpServletRequest) invocation.getArguments()[0]).startAsync().complete();
+				return null;
+			}
+		}).when(filterChain).doFilter(any(HttpServletRequest.class), eq(httpServletResponse));
+		backend.put("key1", "value1");
+
+		unit.doFilter(httpServletRequest, httpServletResponse, filterChain);
+
+		final InOrder inOrder = inOrder(asyncContext);
+		inOrder.verify(asyncContext).addListener(any(TraceeAsyncListener.class));
+		inOrder.verify(asyncContext).complete();
+		MatcherAssert.assertThat(backend.isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldRestoreKeptContextOnAsyncDispatch() throws Exception {
+		final AtomicReference<Map<String, String>> contextInChain = new AtomicReference<>();
+		when(httpServletRequest.getDispatcherType()).thenReturn(DispatcherType.ASYNC);
+		when(httpServletRequest.getAttribute(TraceeFilter.CONTEXT_ATTRIBUTE)).thenReturn(Collections.singletonMap("key1", "value1"));
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				contextInChain.set(backend.copyToMap());
+				return null;
+			}
+		}).when(filterChain).doFilter(httpServletRequest, httpServletResponse);
+
+		unit.doFilter(httpServletRequest, httpServletResponse, filterChain);
+
+		MatcherAssert.assertThat(contextInChain.get(), is(Collections.singletonMap("key1", "value1")));
+		verify(httpServletResponse, atLeastOnce()).setHeader(TraceeConstants.TPIC_HEADER, "key1=value1");
+	}
+
+	@Test
+	public void asyncListenerShouldWriteKeptContextOnError() throws Exception {
+		when(httpServletRequest.getAttribute(TraceeFilter.CONTEXT_ATTRIBUTE)).thenReturn(Collections.singletonMap("key1", "value1"));
+		new TraceeAsyncListener(unit, backend.getConfiguration(), httpServletRequest, httpServletResponse).onError(null);
+		verify(httpServletResponse).setHeader(TraceeConstants.TPIC_HEADER, "key1=value1");
+		MatcherAssert.assertThat(backend.isEmpty(), is(true));
+	}
+
+	@Test
+	public void asyncListenerShouldNotWriteCommittedResponse() throws Exception {
+		when(httpServletRequest.getAttribute(TraceeFilter.CONTEXT_ATTRIBUTE)).thenReturn(Collections.singletonMap("key1", "value1"));
+		when(httpServletResponse.isCommitted()).thenReturn(true);
+		new TraceeAsyncListener(unit, backend.getConfiguration(), httpServletRequest, httpServletResponse).onTimeout(null);
+		verify(httpServletResponse, never()).setHeader(anyString(), anyString());
+	}
+
+	@Test
+	public void shouldPassAsyncSupportingRequestsWrapped() throws Exception {
+		when(httpServletRequest.isAsyncSupported()).thenReturn(true);
+		unit.doFilter(httpServletRequest, httpServletResponse, filterChain);
+		verify(filterChain).doFilter(any(TraceeAsyncRequest.class), eq(httpServletResponse));
+	}
+
 	@Test
 	public void defaultConstructorUsesTraceeBackend() {
 		final TraceeFilter filter = new TraceeFilter();
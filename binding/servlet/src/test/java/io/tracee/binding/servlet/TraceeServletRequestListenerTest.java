@@ -13,6 +13,7 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletRequestEvent;
@@ -21,6 +22,7 @@ import javax.servlet.http.HttpSession;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 import static io.tracee.TraceeConstants.INVOCATION_ID_KEY;
 import static io.tracee.TraceeConstants.SESSION_ID_KEY;
@@ -109,6 +111,28 @@ public class TraceeServletRequestListenerTest {
 		verify(backend, atLeastOnce()).clear();
 	}
 
+	@Test
+	public void testKeepsContextOfAsyncRequestBeforeClearing() {
+		final Map<String, String> context = Collections.singletonMap("key1", "value1");
+		when(httpServletRequest.isAsyncStarted()).thenReturn(true);
+		when(backend.copyToMap()).thenReturn(context);
+		unit.requestDestroyed(new ServletRequestEvent(mock(ServletContext.class), httpServletRequest));
+		verify(httpServletRequest).setAttribute(TraceeFilter.CONTEXT_ATTRIBUTE, context);
+		verify(backend).clear();
+	}
+
+	@Test
+	public void testRestoresKeptContextOnAsyncDispatch() {
+		final Map<String, String> context = Collections.singletonMap("key1", "value1");
+		when(configuration.shouldGenerateInvocationId()).thenReturn(true);
+		when(httpServletRequest.getDispatcherType()).thenReturn(DispatcherType.ASYNC);
+		when(httpServletRequest.getAttribute(TraceeFilter.CONTEXT_ATTRIBUTE)).thenReturn(context);
+		unit.requestInitialized(wrapToEvent(httpServletRequest));
+		verify(backend).putAll(context);
+		verify(httpServletRequest, never()).getHeaders(anyString());
+		verify(backend, never()).put(eq(TraceeConstants.INVOCATION_ID_KEY), anyString());
+	}
+
 	@Test
 	public void defaultConstructorUsesTraceeBackend() {
 		final TraceeSessionListener listener = new TraceeSessionListener();
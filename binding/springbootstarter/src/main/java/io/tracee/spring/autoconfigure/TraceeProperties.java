@@ -1,5 +1,6 @@
 package io.tracee.spring.autoconfigure;
 
+import io.tracee.configuration.TpicEncodingConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration.Channel;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -26,6 +27,16 @@ public class TraceeProperties {
 	 */
 	private int invocationIdLength = 32;
 
+	/**
+	 * Name of the TPIC codec of bindings that support exchangeable codecs, e.g. {@code binary}. Unset means the default of the binding.
+	 */
+	private String codec;
+
+	/**
+	 * Whether HTTP bindings send the invocation and session id and the remaining TPIC parameters in separate header fields.
+	 */
+	private boolean splitStableKeys;
+
 	/**
 	 * Default configuration for allowed patterns for each Channel.
 	 */
@@ -52,6 +63,22 @@ public class TraceeProperties {
 		this.invocationIdLength = invocationIdLength;
 	}
 
+	public String getCodec() {
+		return codec;
+	}
+
+	public void setCodec(String codec) {
+		this.codec = codec;
+	}
+
+	public boolean isSplitStableKeys() {
+		return splitStableKeys;
+	}
+
+	public void setSplitStableKeys(boolean splitStableKeys) {
+		this.splitStableKeys = splitStableKeys;
+	}
+
 	public Map<Channel, Pattern> getFilter() {
 		return filter;
 	}
@@ -68,7 +95,13 @@ public class TraceeProperties {
 		this.profile = profile;
 	}
 
-	private TraceeFilterConfiguration delegate = new TraceeFilterConfiguration() {
+	private TraceeFilterConfiguration delegate = new FilterConfiguration();
+
+	public TraceeFilterConfiguration getAsFilterConfiguration() {
+		return delegate;
+	}
+
+	private final class FilterConfiguration implements TraceeFilterConfiguration, TpicEncodingConfiguration {
 		@Override
 		public boolean shouldProcessParam(String paramName, Channel channel) {
 			return true;
@@ -103,10 +136,16 @@ public class TraceeProperties {
 		public int generatedSessionIdLength() {
 			return sessionIdLength;
 		}
-	};
 
-	public TraceeFilterConfiguration getAsFilterConfiguration() {
-		return delegate;
+		@Override
+		public String codecName() {
+			return codec;
+		}
+
+		@Override
+		public boolean shouldSplitStableKeys() {
+			return splitStableKeys;
+		}
 	}
 
 
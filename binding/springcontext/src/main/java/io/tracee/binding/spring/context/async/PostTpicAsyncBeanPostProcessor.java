@@ -1,5 +1,6 @@
 package io.tracee.binding.spring.context.async;
 
+import io.tracee.ContextSnapshots;
 import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
 import org.aopalliance.aop.Advice;
@@ -60,8 +61,8 @@ public class PostTpicAsyncBeanPostProcessor extends AbstractAdvisingBeanPostProc
 				final Object tpicObj = methodInvocation.getUserAttribute(TraceeConstants.TPIC_HEADER);
 				if (tpicObj instanceof Map) {
 					@SuppressWarnings("unchecked")
-					final Map<? extends String, ? extends String> tpic = (Map<? extends String, ? extends String>) tpicObj;
-					backend.putAll(tpic);
+					final Map<String, String> tpic = (Map<String, String>) tpicObj;
+					ContextSnapshots.restore(backend, tpic);
 				}
 			}
 
@@ -1,5 +1,6 @@
 package io.tracee.binding.spring.context.async;
 
+import io.tracee.ContextSnapshots;
 import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
 import org.aopalliance.aop.Advice;
@@ -60,7 +61,7 @@ public class PreTpicAsyncBeanPostProcessor extends AsyncAnnotationBeanPostProces
 		@Override
 		public Object invoke(MethodInvocation invocation) throws Throwable {
 			if (invocation instanceof ReflectiveMethodInvocation) {
-				final Map<String, String> tpic = backend.copyToMap();
+				final Map<String, String> tpic = ContextSnapshots.snapshot(backend);
 				((ReflectiveMethodInvocation) invocation).setUserAttribute(TraceeConstants.TPIC_HEADER, tpic);
 			}
 
@@ -6,6 +6,7 @@ import io.tracee.TraceeConstants;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration.Profile;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
@@ -13,7 +14,6 @@ import org.springframework.http.client.ClientHttpResponse;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingResponse;
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
@@ -49,8 +49,7 @@ public final class TraceeClientHttpRequestInterceptor implements ClientHttpReque
 	private void preRequest(final HttpRequest request) {
 		final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
 		if (!backend.isEmpty() && filterConfiguration.shouldProcessContext(OutgoingRequest)) {
-			final Map<String, String> filteredParams = filterConfiguration.filterDeniedParams(backend.copyToMap(), OutgoingRequest);
-			request.getHeaders().add(TraceeConstants.TPIC_HEADER, transportSerialization.render(filteredParams));
+			request.getHeaders().add(TraceeConstants.TPIC_HEADER, TpicPropagation.render(backend, filterConfiguration, OutgoingRequest, transportSerialization));
 		}
 	}
 
@@ -60,7 +59,7 @@ public final class TraceeClientHttpRequestInterceptor implements ClientHttpReque
 			final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
 
 			if (filterConfiguration.shouldProcessContext(IncomingResponse)) {
-				backend.putAll(filterConfiguration.filterDeniedParams(transportSerialization.parse(headers), IncomingResponse));
+				TpicPropagation.ingest(backend, filterConfiguration, IncomingResponse, transportSerialization, headers);
 			}
 		}
 	}
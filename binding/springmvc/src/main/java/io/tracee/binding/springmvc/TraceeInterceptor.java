@@ -6,6 +6,7 @@ import io.tracee.TraceeConstants;
 import io.tracee.Utilities;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
@@ -14,7 +15,6 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.Map;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingRequest;
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingResponse;
@@ -46,8 +46,7 @@ public final class TraceeInterceptor implements HandlerInterceptor {
 			@SuppressWarnings("unchecked")
 			final Enumeration<String> headers = request.getHeaders(incomingHeaderName);
 			if (headers != null && headers.hasMoreElements()) {
-				final Map<String, String> parsedContext = httpHeaderSerialization.parse(Collections.list(headers));
-				backend.putAll(configuration.filterDeniedParams(parsedContext, IncomingResponse));
+				TpicPropagation.ingest(backend, configuration, IncomingResponse, httpHeaderSerialization, Collections.list(headers));
 			}
 		}
 
@@ -84,8 +83,7 @@ public final class TraceeInterceptor implements HandlerInterceptor {
 			final TraceeFilterConfiguration configuration = backend.getConfiguration(profileName);
 
 			if (configuration.shouldProcessContext(OutgoingResponse)) {
-				final Map<String, String> filteredContext = configuration.filterDeniedParams(backend.copyToMap(), OutgoingResponse);
-				response.setHeader(outgoingHeaderName, httpHeaderSerialization.render(filteredContext));
+				response.setHeader(outgoingHeaderName, TpicPropagation.render(backend, configuration, OutgoingResponse, httpHeaderSerialization));
 			}
 		}
 	}
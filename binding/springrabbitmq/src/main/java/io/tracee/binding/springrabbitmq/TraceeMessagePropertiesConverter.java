@@ -7,6 +7,10 @@ import io.tracee.TraceeBackend;
 import io.tracee.Utilities;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.spi.TpicCodec;
+import io.tracee.transport.BinaryTpicCodec;
+import io.tracee.transport.TpicCodecs;
+import io.tracee.transport.TpicPropagation;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
 
@@ -21,6 +25,7 @@ public class TraceeMessagePropertiesConverter extends DefaultMessagePropertiesCo
 
 	private final TraceeBackend backend;
 	private final String profile;
+	private final TpicCodec codec;
 
 	public TraceeMessagePropertiesConverter() {
 		this(Tracee.getBackend(), Profile.DEFAULT);
@@ -30,9 +35,30 @@ public class TraceeMessagePropertiesConverter extends DefaultMessagePropertiesCo
 		this(Tracee.getBackend(), profile);
 	}
 
+	/**
+	 * @param binaryEncoding {@code true} to write the context as bytes in the compact form of {@link BinaryTpicCodec}
+	 *                       instead of the configured codec. Incoming messages are read in all forms.
+	 */
+	public TraceeMessagePropertiesConverter(String profile, boolean binaryEncoding) {
+		this(Tracee.getBackend(), profile, binaryEncoding);
+	}
+
 	TraceeMessagePropertiesConverter(TraceeBackend backend, String profile) {
+		this(backend, profile, false);
+	}
+
+	TraceeMessagePropertiesConverter(TraceeBackend backend, String profile, boolean binaryEncoding) {
+		this(backend, profile, binaryEncoding ? TpicCodecs.forName(BinaryTpicCodec.NAME)
+			: TpicCodecs.forConfiguration(backend.getConfiguration(profile)));
+	}
+
+	/**
+	 * @param codec the codec that encodes the context as bytes, {@code null} to write the context as table
+	 */
+	TraceeMessagePropertiesConverter(TraceeBackend backend, String profile, TpicCodec codec) {
 		this.backend = backend;
 		this.profile = profile;
+		this.codec = codec;
 	}
 
 	/**
@@ -44,11 +70,16 @@ public class TraceeMessagePropertiesConverter extends DefaultMessagePropertiesCo
 
 		final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
 		if (filterConfiguration.shouldProcessContext(AsyncProcess)) {
-			// Values are stored as type of LongStringHelper.ByteArrayLongString - but it's private
-			final Map<String, String> traceeContextMap = transformToTraceeContextMap(
-				(Map<String, ?>) messageProperties.getHeaders().get(TPIC_HEADER));
+			final Object tpicMessageHeader = messageProperties.getHeaders().get(TPIC_HEADER);
+			final Map<String, String> traceeContextMap;
+			if (tpicMessageHeader instanceof byte[]) {
+				traceeContextMap = TpicCodecs.decode((byte[]) tpicMessageHeader);
+			} else {
+				// Values are stored as type of LongStringHelper.ByteArrayLongString - but it's private
+				traceeContextMap = transformToTraceeContextMap((Map<String, ?>) tpicMessageHeader);
+			}
 			if (traceeContextMap != null && !traceeContextMap.isEmpty()) {
-				backend.putAll(filterConfiguration.filterDeniedParams(traceeContextMap, AsyncProcess));
+				TpicPropagation.ingest(backend, filterConfiguration, AsyncProcess, traceeContextMap);
 			}
 		}
 
@@ -75,7 +106,7 @@ public class TraceeMessagePropertiesConverter extends DefaultMessagePropertiesCo
 		final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
 		if (!backend.isEmpty() && filterConfiguration.shouldProcessContext(AsyncDispatch)) {
 			final Map<String, String> filteredParams = filterConfiguration.filterDeniedParams(backend.copyToMap(), AsyncDispatch);
-			source.getHeaders().put(TPIC_HEADER, filteredParams);
+			source.getHeaders().put(TPIC_HEADER, codec != null ? codec.encode(filteredParams) : filteredParams);
 		}
 
 		return super.fromMessageProperties(source, charset);
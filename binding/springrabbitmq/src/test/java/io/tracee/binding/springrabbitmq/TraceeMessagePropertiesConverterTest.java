@@ -6,9 +6,12 @@ import com.rabbitmq.client.LongString;
 import io.tracee.Tracee;
 import io.tracee.TraceeBackend;
 import io.tracee.TraceeConstants;
+import io.tracee.configuration.TpicEncodingConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.testhelper.FieldAccessUtil;
 import io.tracee.testhelper.SimpleTraceeBackend;
+import io.tracee.transport.SoapTpicCodec;
+import io.tracee.transport.TpicCodecs;
 import org.hamcrest.MatcherAssert;
 import org.junit.Test;
 import org.springframework.amqp.core.MessageProperties;
@@ -22,11 +25,18 @@ import java.util.Map;
 
 import static io.tracee.TraceeConstants.INVOCATION_ID_KEY;
 import static io.tracee.TraceeConstants.TPIC_HEADER;
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.AsyncDispatch;
+import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.collection.IsMapContaining.hasEntry;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 public class TraceeMessagePropertiesConverterTest {
 	private static final String USED_PROFILE = "A_PROFILE";
@@ -85,6 +95,38 @@ public class TraceeMessagePropertiesConverterTest {
 		assertThat(backend.size(), is(2));
 	}
 
+	@Test
+	public void binaryEncodingShouldWriteBytesAndRoundTrip() throws Exception {
+		final TraceeMessagePropertiesConverter binaryUnit = new TraceeMessagePropertiesConverter(backend, USED_PROFILE, true);
+		backend.put("inClientBeforeRequest", "true");
+
+		final AMQP.BasicProperties basicProperties = binaryUnit.fromMessageProperties(new MessageProperties(), CHARSET_UTF8);
+		assertThat(basicProperties.getHeaders().get(TPIC_HEADER), instanceOf(byte[].class));
+		backend.clear();
+
+		unit.toMessageProperties(basicProperties, mock(Envelope.class), CHARSET_UTF8);
+		assertThat(backend.copyToMap(), hasEntry("inClientBeforeRequest", "true"));
+		assertThat(backend.copyToMap(), hasKey(INVOCATION_ID_KEY));
+	}
+
+	@Test
+	public void configuredCodecShouldBeResolvedOnConstruction() throws Exception {
+		final TraceeBackend configuredBackend = mock(TraceeBackend.class);
+		final TraceeFilterConfiguration configuration = mock(TraceeFilterConfiguration.class,
+			withSettings().extraInterfaces(TpicEncodingConfiguration.class));
+		when(configuredBackend.getConfiguration(USED_PROFILE)).thenReturn(configuration);
+		when(((TpicEncodingConfiguration) configuration).codecName()).thenReturn(SoapTpicCodec.NAME);
+		when(configuration.shouldProcessContext(AsyncDispatch)).thenReturn(true);
+		when(configuration.filterDeniedParams(anyMapOf(String.class, String.class), eq(AsyncDispatch))).thenReturn(singletonMap("a", "b"));
+
+		final TraceeMessagePropertiesConverter soapUnit = new TraceeMessagePropertiesConverter(configuredBackend, USED_PROFILE);
+		final AMQP.BasicProperties basicProperties = soapUnit.fromMessageProperties(new MessageProperties(), CHARSET_UTF8);
+
+		assertThat((byte[]) basicProperties.getHeaders().get(TPIC_HEADER), is(TpicCodecs.forName(SoapTpicCodec.NAME).encode(singletonMap("a", "b"))));
+		unit.toMessageProperties(basicProperties, mock(Envelope.class), CHARSET_UTF8);
+		assertThat(backend.copyToMap(), hasEntry("a", "b"));
+	}
+
 	@Test
 	public void defaultConstructorUsesDefaultProfile() {
 		final TraceeMessagePropertiesConverter converter = new TraceeMessagePropertiesConverter();
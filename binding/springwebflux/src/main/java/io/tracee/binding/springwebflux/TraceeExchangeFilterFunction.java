@@ -0,0 +1,65 @@
+package io.tracee.binding.springwebflux;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.binding.reactor.TraceeReactor;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.HttpHeaderTransport;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
+
+/**
+ * Adds the TPIC to the requests of a {@code WebClient}. The context is taken from the subscriber context of the exchange,
+ * see {@link TraceeReactor}, or, if there is none, from the backend of the thread that sets up the exchange, so the
+ * filter works for reactive and blocking callers alike.
+ */
+public final class TraceeExchangeFilterFunction implements ExchangeFilterFunction {
+
+	private final TraceeBackend backend;
+	private final HttpHeaderTransport transportSerialization;
+	private final String profile;
+
+	public TraceeExchangeFilterFunction() {
+		this(Tracee.getBackend(), new HttpHeaderTransport(), Profile.DEFAULT);
+	}
+
+	public TraceeExchangeFilterFunction(String profile) {
+		this(Tracee.getBackend(), new HttpHeaderTransport(), profile);
+	}
+
+	public TraceeExchangeFilterFunction(TraceeBackend backend, HttpHeaderTransport transportSerialization, String profile) {
+		this.backend = backend;
+		this.transportSerialization = transportSerialization;
+		this.profile = profile;
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(final ClientRequest request, final ExchangeFunction next) {
+		final TraceeFilterConfiguration filterConfiguration = backend.getConfiguration(profile);
+		if (!filterConfiguration.shouldProcessContext(OutgoingRequest)) {
+			return next.exchange(request);
+		}
+		final Map<String, String> callerContext = ContextSnapshots.snapshot(backend);
+		return Mono.subscriberContext().flatMap(subscriberContext -> {
+			final Map<String, String> context = subscriberContext.hasKey(TraceeReactor.CONTEXT_KEY)
+				? TraceeReactor.getContext(subscriberContext) : callerContext;
+			final Map<String, String> filtered = filterConfiguration.filterDeniedParams(context, OutgoingRequest);
+			if (filtered.isEmpty()) {
+				return next.exchange(request);
+			}
+			return next.exchange(ClientRequest.from(request)
+				.headers(headers -> headers.set(TraceeConstants.TPIC_HEADER, transportSerialization.render(filtered)))
+				.build());
+		});
+	}
+}
@@ -0,0 +1,105 @@
+package io.tracee.binding.springwebflux;
+
+import io.tracee.PersistentContextMap;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
+import io.tracee.binding.reactor.TraceeReactor;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.transport.HttpHeaderTransport;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingRequest;
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingResponse;
+
+/**
+ * Parses the TPIC of incoming requests into the subscriber context of the exchange, see {@link TraceeReactor}, and writes
+ * it to the response right before the response is committed. The filter never touches the backend of the event loop
+ * thread; install the hook of {@link TraceeReactor#install()} to see the context in the backend while signals are delivered.
+ */
+public final class TraceeWebFilter implements WebFilter, Ordered {
+
+	private final TraceeBackend backend;
+	private final HttpHeaderTransport httpHeaderSerialization;
+	private String outgoingHeaderName = TraceeConstants.TPIC_HEADER;
+	private String incomingHeaderName = TraceeConstants.TPIC_HEADER;
+	private String profileName;
+	private int order = Ordered.HIGHEST_PRECEDENCE;
+
+	public TraceeWebFilter() {
+		this(Tracee.getBackend());
+	}
+
+	public TraceeWebFilter(TraceeBackend backend) {
+		this.backend = backend;
+		httpHeaderSerialization = new HttpHeaderTransport();
+	}
+
+	@Override
+	public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+		final TraceeFilterConfiguration configuration = backend.getConfiguration(profileName);
+		final Map<String, String> context = parseContext(exchange, configuration);
+
+		if (!context.isEmpty() && configuration.shouldProcessContext(OutgoingResponse)) {
+			final ServerHttpResponse response = exchange.getResponse();
+			response.beforeCommit(() -> {
+				final Map<String, String> filtered = configuration.filterDeniedParams(context, OutgoingResponse);
+				if (!filtered.isEmpty()) {
+					response.getHeaders().set(outgoingHeaderName, httpHeaderSerialization.render(filtered));
+				}
+				return Mono.empty();
+			});
+		}
+
+		return chain.filter(exchange).subscriberContext(TraceeReactor.withContext(context));
+	}
+
+	private Map<String, String> parseContext(final ServerWebExchange exchange, final TraceeFilterConfiguration configuration) {
+		PersistentContextMap context = PersistentContextMap.EMPTY;
+		if (configuration.shouldProcessContext(IncomingRequest)) {
+			final List<String> headers = exchange.getRequest().getHeaders().get(incomingHeaderName);
+			if (headers != null && !headers.isEmpty()) {
+				context = PersistentContextMap.copyOf(configuration.filterDeniedParams(httpHeaderSerialization.parse(headers), IncomingRequest));
+			}
+		}
+		if (!context.containsKey(TraceeConstants.INVOCATION_ID_KEY) && configuration.shouldGenerateInvocationId()) {
+			context = context.with(TraceeConstants.INVOCATION_ID_KEY,
+				Utilities.createRandomAlphanumeric(configuration.generatedInvocationIdLength()));
+		}
+		return context;
+	}
+
+	@Override
+	public int getOrder() {
+		return order;
+	}
+
+	public void setOrder(int order) {
+		this.order = order;
+	}
+
+	public void setOutgoingHeaderName(String outgoingHeaderName) {
+		this.outgoingHeaderName = outgoingHeaderName;
+	}
+
+	public void setIncomingHeaderName(String incomingHeaderName) {
+		this.incomingHeaderName = incomingHeaderName;
+	}
+
+	public String getProfileName() {
+		return profileName;
+	}
+
+	public void setProfileName(String profileName) {
+		this.profileName = profileName;
+	}
+}
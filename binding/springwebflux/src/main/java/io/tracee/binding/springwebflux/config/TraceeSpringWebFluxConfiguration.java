@@ -0,0 +1,32 @@
+package io.tracee.binding.springwebflux.config;
+
+import io.tracee.TraceeBackend;
+import io.tracee.binding.springwebflux.TraceeExchangeFilterFunction;
+import io.tracee.binding.springwebflux.TraceeWebFilter;
+import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.HttpHeaderTransport;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+/**
+ * Registers the {@link TraceeWebFilter} and a {@link TraceeExchangeFilterFunction} that can be added to
+ * {@code WebClient.Builder#filter}.
+ *
+ * @since 2.0
+ */
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+@Configuration
+public class TraceeSpringWebFluxConfiguration {
+
+	@Bean
+	TraceeWebFilter traceeWebFilter(final TraceeBackend backend) {
+		return new TraceeWebFilter(backend);
+	}
+
+	@Bean
+	TraceeExchangeFilterFunction traceeExchangeFilterFunction(final TraceeBackend backend) {
+		return new TraceeExchangeFilterFunction(backend, new HttpHeaderTransport(), Profile.DEFAULT);
+	}
+}
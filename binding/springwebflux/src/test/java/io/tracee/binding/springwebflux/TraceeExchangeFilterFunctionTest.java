@@ -0,0 +1,77 @@
+package io.tracee.binding.springwebflux;
+
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import io.tracee.binding.reactor.TraceeReactor;
+import io.tracee.configuration.TraceeFilterConfiguration.Profile;
+import io.tracee.transport.HttpHeaderTransport;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class TraceeExchangeFilterFunctionTest {
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	private final TraceeExchangeFilterFunction unit = new TraceeExchangeFilterFunction(backend, new HttpHeaderTransport(), Profile.DEFAULT);
+
+	private final AtomicReference<ClientRequest> sentRequest = new AtomicReference<>();
+
+	private final ExchangeFunction exchangeFunction = request -> {
+		sentRequest.set(request);
+		return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+	};
+
+	private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/")).build();
+
+	@After
+	public void after() {
+		backend.clear();
+	}
+
+	@Test
+	public void shouldAddContextOfSubscriberContext() {
+		unit.filter(request, exchangeFunction)
+			.subscriberContext(TraceeReactor.withContext(Collections.singletonMap("foo", "bar")))
+			.block();
+		assertThat(sentRequest.get().headers().getFirst(TraceeConstants.TPIC_HEADER), is("foo=bar"));
+	}
+
+	@Test
+	public void shouldAddContextOfCallerWithoutSubscriberContext() {
+		backend.put("foo", "bar");
+		final Mono<ClientResponse> response = unit.filter(request, exchangeFunction);
+		backend.clear();
+		response.block();
+		assertThat(sentRequest.get().headers().getFirst(TraceeConstants.TPIC_HEADER), is("foo=bar"));
+	}
+
+	@Test
+	public void shouldReplaceExistingTpicHeader() {
+		final ClientRequest requestWithHeader = ClientRequest.from(request).header(TraceeConstants.TPIC_HEADER, "old=value").build();
+		unit.filter(requestWithHeader, exchangeFunction)
+			.subscriberContext(TraceeReactor.withContext(Collections.singletonMap("foo", "bar")))
+			.block();
+		assertThat(sentRequest.get().headers().get(TraceeConstants.TPIC_HEADER), is(Collections.singletonList("foo=bar")));
+	}
+
+	@Test
+	public void shouldSendRequestUnchangedWithoutContext() {
+		unit.filter(request, exchangeFunction).block();
+		assertThat(sentRequest.get().headers().getFirst(TraceeConstants.TPIC_HEADER), is(nullValue()));
+	}
+}
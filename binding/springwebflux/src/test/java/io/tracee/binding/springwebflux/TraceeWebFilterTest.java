@@ -0,0 +1,77 @@
+package io.tracee.binding.springwebflux;
+
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import io.tracee.binding.reactor.TraceeReactor;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class TraceeWebFilterTest {
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	private final TraceeWebFilter unit = new TraceeWebFilter(backend);
+
+	private final AtomicReference<Map<String, String>> context = new AtomicReference<>();
+
+	private final WebFilterChain chain = exchange -> Mono.subscriberContext()
+		.doOnNext(subscriberContext -> context.set(TraceeReactor.getContext(subscriberContext)))
+		.then(exchange.getResponse().setComplete());
+
+	@After
+	public void after() {
+		backend.clear();
+	}
+
+	@Test
+	public void shouldParseIncomingTpicIntoSubscriberContext() {
+		final MockServerWebExchange exchange = MockServerWebExchange.from(
+			MockServerHttpRequest.get("/").header(TraceeConstants.TPIC_HEADER, "foo=bar," + TraceeConstants.INVOCATION_ID_KEY + "=4711"));
+		unit.filter(exchange, chain).block();
+		assertThat(context.get().get("foo"), is("bar"));
+		assertThat(context.get().get(TraceeConstants.INVOCATION_ID_KEY), is("4711"));
+	}
+
+	@Test
+	public void shouldGenerateInvocationIdIfMissing() {
+		unit.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/")), chain).block();
+		assertThat(context.get().get(TraceeConstants.INVOCATION_ID_KEY), is(notNullValue()));
+	}
+
+	@Test
+	public void shouldWriteContextToResponseBeforeCommit() {
+		final MockServerWebExchange exchange = MockServerWebExchange.from(
+			MockServerHttpRequest.get("/").header(TraceeConstants.TPIC_HEADER, "foo=bar"));
+		unit.filter(exchange, chain).block();
+		final String header = exchange.getResponse().getHeaders().getFirst(TraceeConstants.TPIC_HEADER);
+		assertThat(header.contains("foo=bar"), is(true));
+		assertThat(header.contains(TraceeConstants.INVOCATION_ID_KEY + "="), is(true));
+	}
+
+	@Test
+	public void shouldNotTouchBackendOfFilteringThread() {
+		unit.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/").header(TraceeConstants.TPIC_HEADER, "foo=bar")), chain).block();
+		assertThat(backend.isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldUseConfiguredIncomingHeaderName() {
+		unit.setIncomingHeaderName("X-Custom");
+		unit.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/").header("X-Custom", "foo=bar")), chain).block();
+		assertThat(context.get().get("foo"), is("bar"));
+		assertThat(context.get().get("other"), is(nullValue()));
+	}
+}
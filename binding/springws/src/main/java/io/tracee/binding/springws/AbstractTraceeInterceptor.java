@@ -4,6 +4,7 @@ import io.tracee.TraceeBackend;
 import io.tracee.configuration.TraceeFilterConfiguration;
 import io.tracee.configuration.TraceeFilterConfiguration.Channel;
 import io.tracee.transport.SoapHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ws.WebServiceMessage;
@@ -20,7 +21,7 @@ import static io.tracee.TraceeConstants.SOAP_HEADER_QNAME;
 
 abstract class AbstractTraceeInterceptor {
 
-	protected static final SoapHeaderTransport soapHeaderTransport = new SoapHeaderTransport();
+	protected static final SoapHeaderTransport soapHeaderTransport = SoapHeaderTransport.getInstance();
 
 	protected final TraceeBackend backend;
 	protected static final Logger logger = LoggerFactory.getLogger(AbstractTraceeInterceptor.class);
@@ -48,7 +49,7 @@ abstract class AbstractTraceeInterceptor {
 					}
 					if (tpicHeaders.hasNext()) {
 						final Map<String, String> parsedTpic = soapHeaderTransport.parseTpicHeader(tpicHeaders.next().getSource());
-						backend.putAll(filterConfiguration.filterDeniedParams(parsedTpic, channel));
+						TpicPropagation.ingest(backend, filterConfiguration, channel, parsedTpic);
 					}
 				}
 			}
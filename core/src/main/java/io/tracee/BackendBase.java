@@ -3,13 +3,31 @@ package io.tracee;
 import io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration;
 import io.tracee.configuration.PropertyChain;
 import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration.Channel;
+import io.tracee.transport.HttpHeaderTransport;
+import io.tracee.transport.TpicPropagation;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static io.tracee.configuration.TraceeFilterConfiguration.Profile;
 
 
+/**
+ * Base class of the TracEE backends.
+ * <p/>
+ * Implementations have to call {@link #markModified()} whenever the context of the current thread changes, unless their
+ * {@link #contextIdentity()} changes with every modification. Modifications that bypass the backend (e.g. a direct
+ * manipulation of the underlying MDC) are not detected and may lead to stale results of
+ * {@link #renderContext(TraceeFilterConfiguration, Channel, HttpHeaderTransport)}.
+ * <p/>
+ * The caches of a thread are created when it renders or snapshots its context for the first time, so threads that only
+ * read and modify their context, e.g. short-lived virtual threads, do not allocate them.
+ */
 public abstract class BackendBase implements TraceeBackend {
 
 	// Use #getPropertyChain to retrieve/get the chain
@@ -17,6 +35,9 @@ public abstract class BackendBase implements TraceeBackend {
 
 	private Map<String, TraceeFilterConfiguration> configurationCache = new ConcurrentHashMap<>();
 
+	// Use #threadState() to create the state of a thread, it is null until a thread caches something
+	private final ThreadLocal<ThreadState> threadState = new ThreadLocal<>();
+
 	/**
 	 * Lazily initializes the configuration for this MDCLikeTraceeBackend.
 	 */
@@ -37,6 +58,18 @@ public abstract class BackendBase implements TraceeBackend {
 		return filterConfiguration;
 	}
 
+	/**
+	 * Reloads the configurations of all profiles, so that System properties that changed since their first use take
+	 * effect. Headers that are cached for the threads are rendered again with the reloaded configurations.
+	 */
+	public final void reloadConfiguration() {
+		for (TraceeFilterConfiguration configuration : configurationCache.values()) {
+			if (configuration instanceof PropertiesBasedTraceeFilterConfiguration) {
+				((PropertiesBasedTraceeFilterConfiguration) configuration).reload();
+			}
+		}
+	}
+
 	private PropertyChain getPropertyChain() {
 		if (_lazyPropertyChain == null) {
 			_lazyPropertyChain = PropertiesBasedTraceeFilterConfiguration.loadPropertyChain();
@@ -54,4 +87,264 @@ public abstract class BackendBase implements TraceeBackend {
 		return get(TraceeConstants.SESSION_ID_KEY);
 	}
 
+	/**
+	 * Returns the keys of the context of the current thread. The returned set is only iterated and only as long as the
+	 * context is not modified, so implementations may return their internal key set.
+	 */
+	protected Set<String> contextKeys() {
+		return copyToMap().keySet();
+	}
+
+	/**
+	 * Returns an object that stays the same instance as long as the context of the current thread is unchanged, or
+	 * {@code null} if the backend signals every change by {@link #markModified()}. Backends override it if threads may read
+	 * a context that other threads modify, or to avoid per-thread modification counts, e.g. by returning the
+	 * {@link PersistentContextMap} they read. Rendered contexts are cached until the modification count or this identity changes.
+	 */
+	protected Object contextIdentity() {
+		return null;
+	}
+
+	/**
+	 * Increments the modification count of the current thread and thereby invalidates its rendered contexts. Threads that
+	 * have not cached anything yet have nothing to invalidate.
+	 */
+	protected final void markModified() {
+		final ThreadState state = threadState.get();
+		if (state != null) {
+			state.modificationCount++;
+		}
+	}
+
+	/**
+	 * Like {@link #markModified()}, but also drops the rendered contexts and the snapshot that are cached for the current
+	 * thread and a render buffer that has grown beyond its initial size. Implementations call it when the context of a
+	 * thread is cleared, so that pooled threads do not retain stale contexts or large buffers until their next invocation.
+	 * <p/>
+	 * The state itself stays with the thread: it is small and keeps the modification count increasing.
+	 */
+	protected final void markCleared() {
+		final ThreadState state = threadState.get();
+		if (state == null) {
+			return;
+		}
+		state.modificationCount++;
+		state.snapshot = null;
+		if (state.renderBuffer.capacity() > ThreadState.RENDER_BUFFER_CAPACITY) {
+			state.renderBuffer = new StringBuilder(ThreadState.RENDER_BUFFER_CAPACITY);
+		}
+		for (RenderedContext renderedContext : state.renderedContexts) {
+			if (renderedContext == null) {
+				continue;
+			}
+			renderedContext.header = null;
+			renderedContext.fields = null;
+			renderedContext.contextIdentity = null;
+			renderedContext.configuration = null;
+			renderedContext.transport = null;
+		}
+	}
+
+	/**
+	 * @return a counter that changes whenever the context of the current thread is modified.
+	 */
+	public final long getModificationCount() {
+		return threadState().modificationCount;
+	}
+
+	/**
+	 * Returns an immutable snapshot of the context of the current thread that can be handed to other threads and
+	 * {@link #restore(Map) restored} there.
+	 * <p/>
+	 * The snapshot is cached per thread until the context is modified, so handing an unchanged context to several tasks
+	 * takes it only once. Backends that hold their context in a {@link PersistentContextMap} return it directly.
+	 */
+	public PersistentContextMap snapshot() {
+		final ThreadState state = threadState();
+		if (state.snapshot == null || state.snapshotModificationCount != state.modificationCount) {
+			final Set<String> keys = contextKeys();
+			final String[] pairs = new String[keys.size() * 2];
+			int length = 0;
+			for (String key : keys) {
+				final String value = get(key);
+				if (value != null) {
+					pairs[length++] = key;
+					pairs[length++] = value;
+				}
+			}
+			state.snapshot = PersistentContextMap.ofPairs(pairs, length);
+			state.snapshotModificationCount = state.modificationCount;
+		}
+		return state.snapshot;
+	}
+
+	/**
+	 * Replaces the context of the current thread by the given snapshot, see {@link #snapshot()}. Restoring the snapshot
+	 * that represents the current context is a no-op.
+	 */
+	public void restore(final Map<String, String> snapshot) {
+		final ThreadState state = threadState();
+		if (snapshot == state.snapshot && state.snapshotModificationCount == state.modificationCount) {
+			return;
+		}
+		clear();
+		putAll(snapshot);
+		if (snapshot instanceof PersistentContextMap) {
+			state.snapshot = (PersistentContextMap) snapshot;
+			state.snapshotModificationCount = state.modificationCount;
+		}
+	}
+
+	/**
+	 * Renders the context of the current thread, filtered by the given configuration for the given channel.
+	 * <p/>
+	 * The rendered header is cached per thread, configuration, channel and transport until the context of the thread is
+	 * modified or the configuration is {@link #reloadConfiguration() reloaded}. Repeated calls with an unchanged context
+	 * return the cached header without copying or rendering the context again.
+	 *
+	 * @param configuration a configuration of this backend, see {@link #getConfiguration(String)}
+	 */
+	public final String renderContext(final TraceeFilterConfiguration configuration, final Channel channel,
+									  final HttpHeaderTransport transport) {
+		return renderedContext(configuration, channel, transport).header;
+	}
+
+	/**
+	 * Like {@link #renderContext(TraceeFilterConfiguration, Channel, HttpHeaderTransport)}, but returns the values of the
+	 * header fields to send. If the configuration {@link TpicPropagation#shouldSplitStableKeys splits stable keys},
+	 * the invocation and session id and the remaining parameters are separate fields. The result is cached as well.
+	 *
+	 * @return an unmodifiable list of non-empty header values, empty if nothing is to be propagated
+	 */
+	public final List<String> renderContextFields(final TraceeFilterConfiguration configuration, final Channel channel,
+												  final HttpHeaderTransport transport) {
+		final RenderedContext renderedContext = renderedContext(configuration, channel, transport);
+		if (renderedContext.fields == null) {
+			final String header = renderedContext.header;
+			final int stableLength = renderedContext.stableLength;
+			if (header.isEmpty()) {
+				renderedContext.fields = Collections.emptyList();
+			} else if (!TpicPropagation.shouldSplitStableKeys(configuration) || stableLength == 0 || stableLength == header.length()) {
+				renderedContext.fields = Collections.singletonList(header);
+			} else {
+				renderedContext.fields = Collections.unmodifiableList(Arrays.asList(header.substring(0, stableLength),
+					header.substring(stableLength + 1)));
+			}
+		}
+		return renderedContext.fields;
+	}
+
+	private RenderedContext renderedContext(final TraceeFilterConfiguration configuration, final Channel channel,
+											final HttpHeaderTransport transport) {
+		final ThreadState state = threadState();
+		RenderedContext renderedContext = state.renderedContexts[channel.ordinal()];
+		if (renderedContext == null) {
+			renderedContext = new RenderedContext();
+			state.renderedContexts[channel.ordinal()] = renderedContext;
+		}
+		final Object contextIdentity = contextIdentity();
+		final int configurationGeneration = configurationGeneration(configuration);
+
+		if (renderedContext.modificationCount != state.modificationCount || renderedContext.contextIdentity != contextIdentity
+			|| renderedContext.configuration != configuration || renderedContext.configurationGeneration != configurationGeneration
+			|| renderedContext.transport != transport) {
+			final StringBuilder buffer = state.renderBuffer;
+			buffer.setLength(0);
+			renderedContext.stableLength = render(configuration, channel, transport, buffer, buffer);
+			renderedContext.header = buffer.toString();
+			renderedContext.fields = null;
+			renderedContext.configuration = configuration;
+			renderedContext.configurationGeneration = configurationGeneration;
+			renderedContext.transport = transport;
+			renderedContext.modificationCount = state.modificationCount;
+			renderedContext.contextIdentity = contextIdentity;
+		}
+		return renderedContext;
+	}
+
+	private ThreadState threadState() {
+		ThreadState state = threadState.get();
+		if (state == null) {
+			state = new ThreadState();
+			threadState.set(state);
+		}
+		return state;
+	}
+
+	private static int configurationGeneration(final TraceeFilterConfiguration configuration) {
+		return configuration instanceof PropertiesBasedTraceeFilterConfiguration
+			? ((PropertiesBasedTraceeFilterConfiguration) configuration).generation() : 0;
+	}
+
+	/**
+	 * Renders the context of the current thread, filtered by the given configuration for the given channel, in
+	 * {@link HttpHeaderTransport#sortCanonically(String[], int) canonical order} into the given builder. Neither the
+	 * context nor the filtered context is copied, only their keys are sorted.
+	 *
+	 * @param header a builder that contains nothing but the (possibly empty) header, see {@link HttpHeaderTransport#appendPair}
+	 */
+	public final void renderContext(final TraceeFilterConfiguration configuration, final Channel channel,
+									final HttpHeaderTransport transport, final StringBuilder header) {
+		render(configuration, channel, transport, header, header);
+	}
+
+	/**
+	 * Like {@link #renderContext(TraceeFilterConfiguration, Channel, HttpHeaderTransport, StringBuilder)}, but renders the
+	 * invocation and session id into {@code stableHeader} and all other parameters into {@code volatileHeader}.
+	 */
+	public final void renderContext(final TraceeFilterConfiguration configuration, final Channel channel,
+									final HttpHeaderTransport transport, final StringBuilder stableHeader, final StringBuilder volatileHeader) {
+		render(configuration, channel, transport, stableHeader, volatileHeader);
+	}
+
+	/**
+	 * @return the length of {@code stableHeader} after the stable keys have been appended
+	 */
+	private int render(final TraceeFilterConfiguration configuration, final Channel channel, final HttpHeaderTransport transport,
+					   final StringBuilder stableHeader, final StringBuilder volatileHeader) {
+		final Set<String> contextKeys = contextKeys();
+		final String[] keys = new String[contextKeys.size()];
+		int length = 0;
+		for (String key : contextKeys) {
+			if (configuration.shouldProcessParam(key, channel)) {
+				keys[length++] = key;
+			}
+		}
+		final int stableKeys = HttpHeaderTransport.sortCanonically(keys, length);
+		appendPairs(transport, stableHeader, keys, 0, stableKeys);
+		final int stableLength = stableHeader.length();
+		appendPairs(transport, volatileHeader, keys, stableKeys, length);
+		return stableLength;
+	}
+
+	private void appendPairs(final HttpHeaderTransport transport, final StringBuilder header, final String[] keys, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			final String value = get(keys[i]);
+			if (value != null) {
+				transport.appendPair(header, keys[i], value);
+			}
+		}
+	}
+
+	private static final class ThreadState {
+		private static final int RENDER_BUFFER_CAPACITY = 128;
+
+		private long modificationCount;
+		private PersistentContextMap snapshot;
+		private long snapshotModificationCount;
+		private StringBuilder renderBuffer = new StringBuilder(RENDER_BUFFER_CAPACITY);
+		// created per channel on its first render
+		private final RenderedContext[] renderedContexts = new RenderedContext[Channel.values().length];
+	}
+
+	private static final class RenderedContext {
+		private TraceeFilterConfiguration configuration;
+		private int configurationGeneration;
+		private HttpHeaderTransport transport;
+		private long modificationCount = -1;
+		private Object contextIdentity;
+		private String header;
+		private int stableLength;
+		private List<String> fields;
+	}
 }
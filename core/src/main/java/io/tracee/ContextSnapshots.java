@@ -0,0 +1,38 @@
+package io.tracee;
+
+import java.util.Map;
+
+/**
+ * Shortcuts for bindings that hand the context of a {@link TraceeBackend} over to another thread.
+ * <p/>
+ * Backends based on {@link BackendBase} take and restore immutable {@link BackendBase#snapshot() snapshots}, which are
+ * shared instead of copied. All other backends fall back to {@link TraceeBackend#copyToMap()}.
+ */
+public final class ContextSnapshots {
+
+	private ContextSnapshots() {
+		// hide constructor
+	}
+
+	/**
+	 * @return a snapshot of the context of the current thread that is not affected by later modifications of the context
+	 */
+	public static Map<String, String> snapshot(final TraceeBackend backend) {
+		if (backend instanceof BackendBase) {
+			return ((BackendBase) backend).snapshot();
+		}
+		return backend.copyToMap();
+	}
+
+	/**
+	 * Replaces the context of the current thread by the given snapshot.
+	 */
+	public static void restore(final TraceeBackend backend, final Map<String, String> snapshot) {
+		if (backend instanceof BackendBase) {
+			((BackendBase) backend).restore(snapshot);
+		} else {
+			backend.clear();
+			backend.putAll(snapshot);
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package io.tracee;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable context map whose modifications return a new map and leave the original untouched.
+ * <p/>
+ * The pairs are stored in a single array of alternating keys and values. TracEE contexts contain a handful of pairs, so
+ * a linear scan beats hashing and copying the array on modification is cheaper than the node allocations of a hash trie.
+ * Since instances never change, they can be shared between threads without copying, e.g. as a snapshot that is handed
+ * to an asynchronous task. Keys and values must not be {@code null}.
+ */
+public final class PersistentContextMap extends AbstractMap<String, String> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final PersistentContextMap EMPTY = new PersistentContextMap(new String[0]);
+
+	private final String[] pairs;
+
+	private transient Set<Map.Entry<String, String>> entrySet;
+
+	private PersistentContextMap(final String[] pairs) {
+		this.pairs = pairs;
+	}
+
+	/**
+	 * @return the given map itself if it is a {@link PersistentContextMap}, otherwise a persistent copy of it
+	 * @throws IllegalArgumentException if the map contains {@code null} keys or values
+	 */
+	public static PersistentContextMap copyOf(final Map<String, String> map) {
+		if (map instanceof PersistentContextMap) {
+			return (PersistentContextMap) map;
+		}
+		if (map.isEmpty()) {
+			return EMPTY;
+		}
+		final String[] pairs = new String[map.size() * 2];
+		int index = 0;
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			pairs[index++] = requireNonNull(entry.getKey(), "null keys are not allowed.");
+			pairs[index++] = requireNonNull(entry.getValue(), "null values are not allowed.");
+		}
+		return new PersistentContextMap(pairs);
+	}
+
+	/**
+	 * Creates a map from the first {@code length} elements of the given array of alternating, distinct keys and values.
+	 * The array is taken over if it has exactly this length and must not be modified afterwards.
+	 */
+	static PersistentContextMap ofPairs(final String[] pairs, final int length) {
+		if (length == 0) {
+			return EMPTY;
+		}
+		return new PersistentContextMap(length == pairs.length ? pairs : Arrays.copyOf(pairs, length));
+	}
+
+	/**
+	 * @return a map that contains all pairs of this map and the given pair, or this map if it already contains the pair
+	 * @throws IllegalArgumentException if the key or value is {@code null}
+	 */
+	public PersistentContextMap with(final String key, final String value) {
+		requireNonNull(key, "null keys are not allowed.");
+		requireNonNull(value, "null values are not allowed.");
+		final int index = indexOf(key);
+		if (index >= 0) {
+			if (pairs[index + 1].equals(value)) {
+				return this;
+			}
+			final String[] updated = pairs.clone();
+			updated[index + 1] = value;
+			return new PersistentContextMap(updated);
+		}
+		final String[] extended = Arrays.copyOf(pairs, pairs.length + 2);
+		extended[pairs.length] = key;
+		extended[pairs.length + 1] = value;
+		return new PersistentContextMap(extended);
+	}
+
+	/**
+	 * @return a map that contains all pairs of this map but the one with the given key, or this map if there is no such pair
+	 */
+	public PersistentContextMap without(final String key) {
+		final int index = indexOf(key);
+		if (index < 0) {
+			return this;
+		}
+		if (pairs.length == 2) {
+			return EMPTY;
+		}
+		final String[] reduced = new String[pairs.length - 2];
+		System.arraycopy(pairs, 0, reduced, 0, index);
+		System.arraycopy(pairs, index + 2, reduced, index, pairs.length - index - 2);
+		return new PersistentContextMap(reduced);
+	}
+
+	private int indexOf(final Object key) {
+		if (key != null) {
+			for (int i = 0; i < pairs.length; i += 2) {
+				if (pairs[i].equals(key)) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public String get(final Object key) {
+		final int index = indexOf(key);
+		return index >= 0 ? pairs[index + 1] : null;
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public int size() {
+		return pairs.length / 2;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return pairs.length == 0;
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+		}
+		return entrySet;
+	}
+
+	private Object readResolve() {
+		return pairs.length == 0 ? EMPTY : this;
+	}
+
+	private static String requireNonNull(final String s, final String message) {
+		if (s == null) {
+			throw new IllegalArgumentException(message);
+		}
+		return s;
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+		@Override
+		public Iterator<Map.Entry<String, String>> iterator() {
+			return new Iterator<Map.Entry<String, String>>() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < pairs.length;
+				}
+
+				@Override
+				public Map.Entry<String, String> next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final Map.Entry<String, String> entry = new SimpleImmutableEntry<>(pairs[index], pairs[index + 1]);
+					index += 2;
+					return entry;
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException("PersistentContextMap is immutable");
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return PersistentContextMap.this.size();
+		}
+	}
+}
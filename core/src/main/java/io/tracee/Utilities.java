@@ -4,6 +4,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -11,6 +12,17 @@ public final class Utilities {
 
 	private static final char[] ALPHANUMERICS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
 
+	private static final char[] BASE64_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	private static final int[] BASE64_VALUES = new int[128];
+
+	static {
+		Arrays.fill(BASE64_VALUES, -1);
+		for (int i = 0; i < BASE64_ALPHABET.length; i++) {
+			BASE64_VALUES[BASE64_ALPHABET[i]] = i;
+		}
+	}
+
 	public static final Charset CHARSET_UTF8 = Charset.forName("UTF-8");
 
 	private Utilities() {
@@ -58,6 +70,60 @@ public final class Utilities {
 		}
 	}
 
+	/**
+	 * Encodes the given bytes as padded Base64 (RFC 4648) without line breaks, for transports that can only carry strings.
+	 */
+	public static String encodeBase64(final byte[] bytes) {
+		final char[] encoded = new char[(bytes.length + 2) / 3 * 4];
+		int out = 0;
+		for (int i = 0; i < bytes.length; i += 3) {
+			final int remaining = bytes.length - i;
+			final int group = (bytes[i] & 0xff) << 16
+				| (remaining > 1 ? (bytes[i + 1] & 0xff) << 8 : 0)
+				| (remaining > 2 ? bytes[i + 2] & 0xff : 0);
+			encoded[out++] = BASE64_ALPHABET[group >>> 18];
+			encoded[out++] = BASE64_ALPHABET[group >>> 12 & 0x3f];
+			encoded[out++] = remaining > 1 ? BASE64_ALPHABET[group >>> 6 & 0x3f] : '=';
+			encoded[out++] = remaining > 2 ? BASE64_ALPHABET[group & 0x3f] : '=';
+		}
+		return new String(encoded);
+	}
+
+	/**
+	 * Decodes Base64 (RFC 4648). Like {@code javax.xml.bind.DatatypeConverter#parseBase64Binary} the decoding is lenient:
+	 * characters outside of the alphabet, e.g. line breaks, are skipped and decoding stops at the first padding character.
+	 */
+	public static byte[] decodeBase64(final String encoded) {
+		final byte[] decoded = new byte[encoded.length() / 4 * 3 + 2];
+		int length = 0;
+		int group = 0;
+		int groupSize = 0;
+		for (int i = 0; i < encoded.length(); i++) {
+			final char c = encoded.charAt(i);
+			if (c == '=') {
+				break;
+			}
+			final int value = c < BASE64_VALUES.length ? BASE64_VALUES[c] : -1;
+			if (value >= 0) {
+				group = group << 6 | value;
+				if (++groupSize == 4) {
+					decoded[length++] = (byte) (group >> 16);
+					decoded[length++] = (byte) (group >> 8);
+					decoded[length++] = (byte) group;
+					group = 0;
+					groupSize = 0;
+				}
+			}
+		}
+		if (groupSize == 3) {
+			decoded[length++] = (byte) (group >> 10);
+			decoded[length++] = (byte) (group >> 2);
+		} else if (groupSize == 2) {
+			decoded[length++] = (byte) (group >> 4);
+		}
+		return Arrays.copyOf(decoded, length);
+	}
+
 	/**
 	 * Generate invocation id if it doesn't exist in TraceeBackend and configuration asks for one
 	 *
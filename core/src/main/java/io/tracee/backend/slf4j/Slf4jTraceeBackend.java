@@ -48,10 +48,11 @@ class Slf4jTraceeBackend extends BackendBase {
 		if (key == null) throw new IllegalArgumentException("null keys are not allowed.");
 		if (value == null) throw new IllegalArgumentException("null values are not allowed.");
 		final Set<String> registeredKeys = traceeKeys.get();
-		if (!registeredKeys.contains(key)) {
-			registeredKeys.add(key);
+		if (!registeredKeys.add(key) && value.equals(MDC.get(key))) {
+			return;
 		}
 		MDC.put(key, value);
+		markModified();
 	}
 
 	@Override
@@ -59,13 +60,18 @@ class Slf4jTraceeBackend extends BackendBase {
 		if (key == null) throw new IllegalArgumentException("null keys are not allowed.");
 		if (traceeKeys.get().remove(key)) {
 			MDC.remove(key);
+			markModified();
 		}
 	}
 
 	@Override
 	public void clear() {
-		for (String key : traceeKeys.get()) {
-			MDC.remove(key);
+		final Set<String> keys = traceeKeys.get();
+		if (!keys.isEmpty()) {
+			for (String key : keys) {
+				MDC.remove(key);
+			}
+			markCleared();
 		}
 		traceeKeys.remove();
 	}
@@ -77,6 +83,11 @@ class Slf4jTraceeBackend extends BackendBase {
 		}
 	}
 
+	@Override
+	protected Set<String> contextKeys() {
+		return traceeKeys.get();
+	}
+
 	@Override
 	public Map<String, String> copyToMap() {
 		final Map<String, String> traceeMap = new HashMap<>();
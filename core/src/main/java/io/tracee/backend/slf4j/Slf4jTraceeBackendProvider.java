@@ -2,11 +2,16 @@ package io.tracee.backend.slf4j;
 
 import io.tracee.ThreadLocalHashSet;
 import io.tracee.TraceeBackend;
+import io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration;
 import io.tracee.spi.TraceeBackendProvider;
 
+import java.util.HashSet;
+import java.util.Set;
+
 public class Slf4jTraceeBackendProvider implements TraceeBackendProvider {
 
-	private static final ThreadLocalHashSet<String> TRACEE_KEYS = new ThreadLocalHashSet<>();
+	private static final ThreadLocal<Set<String>> TRACEE_KEYS = createTraceeKeys(
+		PropertiesBasedTraceeFilterConfiguration.isContextInheritable(PropertiesBasedTraceeFilterConfiguration.loadPropertyChain()));
 
 	private final Slf4jTraceeBackend slf4jTraceeContext = new Slf4jTraceeBackend(TRACEE_KEYS);
 
@@ -14,4 +19,19 @@ public class Slf4jTraceeBackendProvider implements TraceeBackendProvider {
 	public final TraceeBackend provideBackend() {
 		return slf4jTraceeContext;
 	}
+
+	/**
+	 * @param inheritContext whether threads inherit the TracEE keys of the thread that creates them
+	 */
+	static ThreadLocal<Set<String>> createTraceeKeys(boolean inheritContext) {
+		if (inheritContext) {
+			return new ThreadLocalHashSet<>();
+		}
+		return new ThreadLocal<Set<String>>() {
+			@Override
+			protected Set<String> initialValue() {
+				return new HashSet<>();
+			}
+		};
+	}
 }
@@ -0,0 +1,34 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Calls a task with the context that was captured when the task was submitted, see {@link ContextRunnable}.
+ */
+final class ContextCallable<T> implements Callable<T> {
+
+	private final TraceeBackend backend;
+	private final Map<String, String> context;
+	private final Callable<T> delegate;
+
+	ContextCallable(final TraceeBackend backend, final Map<String, String> context, final Callable<T> delegate) {
+		this.backend = backend;
+		this.context = context;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public T call() throws Exception {
+		final Map<String, String> previous = ContextSnapshots.snapshot(backend);
+		ContextSnapshots.restore(backend, context);
+		try {
+			return delegate.call();
+		} finally {
+			ContextSnapshots.restore(backend, previous);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Invokes a fork/join task with the context that was captured when the task was submitted, see {@link ContextRunnable}.
+ * Subtasks the delegate forks run with the context of the worker that takes them, use {@link TraceeRecursiveTask} and
+ * {@link TraceeRecursiveAction} to propagate the context into them.
+ */
+final class ContextForkJoinTask<V> extends ForkJoinTask<V> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final TraceeBackend backend;
+	private final Map<String, String> context;
+	private final ForkJoinTask<V> delegate;
+	private V result;
+
+	ContextForkJoinTask(final TraceeBackend backend, final Map<String, String> context, final ForkJoinTask<V> delegate) {
+		this.backend = backend;
+		this.context = context;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public V getRawResult() {
+		return result;
+	}
+
+	@Override
+	protected void setRawResult(V value) {
+		result = value;
+	}
+
+	@Override
+	protected boolean exec() {
+		final Map<String, String> previous = ContextSnapshots.snapshot(backend);
+		ContextSnapshots.restore(backend, context);
+		try {
+			result = delegate.invoke();
+		} finally {
+			ContextSnapshots.restore(backend, previous);
+		}
+		return true;
+	}
+}
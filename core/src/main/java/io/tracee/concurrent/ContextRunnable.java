@@ -0,0 +1,34 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+
+import java.util.Map;
+
+/**
+ * Runs a task with the context that was captured when the task was submitted and restores the previous context of the
+ * executing thread afterwards, which clears the context of pool threads.
+ */
+final class ContextRunnable implements Runnable {
+
+	private final TraceeBackend backend;
+	private final Map<String, String> context;
+	private final Runnable delegate;
+
+	ContextRunnable(final TraceeBackend backend, final Map<String, String> context, final Runnable delegate) {
+		this.backend = backend;
+		this.context = context;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void run() {
+		final Map<String, String> previous = ContextSnapshots.snapshot(backend);
+		ContextSnapshots.restore(backend, context);
+		try {
+			delegate.run();
+		} finally {
+			ContextSnapshots.restore(backend, previous);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Creates fork/join workers that hold the given context for their whole lifetime, so every task of the pool, including
+ * subtasks the pool creates internally like those of parallel streams, runs with it at no cost per task.
+ */
+final class ContextWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+	private final TraceeBackend backend;
+	private final Map<String, String> context;
+
+	ContextWorkerThreadFactory(final TraceeBackend backend, final Map<String, String> context) {
+		this.backend = backend;
+		this.context = context;
+	}
+
+	@Override
+	public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+		return new ContextWorkerThread(pool, backend, context);
+	}
+
+	private static final class ContextWorkerThread extends ForkJoinWorkerThread {
+
+		private final TraceeBackend backend;
+		private final Map<String, String> context;
+
+		ContextWorkerThread(final ForkJoinPool pool, final TraceeBackend backend, final Map<String, String> context) {
+			super(pool);
+			this.backend = backend;
+			this.context = context;
+		}
+
+		@Override
+		protected void onStart() {
+			super.onStart();
+			ContextSnapshots.restore(backend, context);
+		}
+
+		@Override
+		protected void onTermination(Throwable exception) {
+			backend.clear();
+			super.onTermination(exception);
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+
+import java.util.concurrent.Executor;
+
+class TraceeExecutor implements Executor {
+
+	private final Executor delegate;
+	protected final TraceeBackend backend;
+
+	TraceeExecutor(final Executor delegate, final TraceeBackend backend) {
+		this.delegate = delegate;
+		this.backend = backend;
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		delegate.execute(wrap(command));
+	}
+
+	final Runnable wrap(final Runnable task) {
+		return new ContextRunnable(backend, ContextSnapshots.snapshot(backend), task);
+	}
+}
@@ -0,0 +1,188 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Propagates the TracEE context of the submitting thread to tasks that run on other threads.
+ * <p/>
+ * The context is captured as {@link ContextSnapshots#snapshot(TraceeBackend) snapshot} when a task is submitted. The
+ * executing thread runs the task with this snapshot and restores its previous context afterwards, so pool threads
+ * return to an empty context. Snapshots of {@link io.tracee.BackendBase backends} are immutable and shared: submitting
+ * many tasks, e.g. with {@link ExecutorService#invokeAll}, does not copy the context per task.
+ * <p/>
+ * The methods without a backend parameter use the backend of {@link Tracee#getBackend()}.
+ */
+public final class TraceeExecutors {
+
+	private TraceeExecutors() {
+		// hide constructor
+	}
+
+	/**
+	 * @return a runnable that runs the given task with the current context
+	 */
+	public static Runnable wrap(final Runnable task) {
+		return wrap(Tracee.getBackend(), task);
+	}
+
+	public static Runnable wrap(final TraceeBackend backend, final Runnable task) {
+		return new ContextRunnable(backend, ContextSnapshots.snapshot(backend), task);
+	}
+
+	/**
+	 * @return a callable that calls the given task with the current context
+	 */
+	public static <T> Callable<T> wrap(final Callable<T> task) {
+		return wrap(Tracee.getBackend(), task);
+	}
+
+	public static <T> Callable<T> wrap(final TraceeBackend backend, final Callable<T> task) {
+		return new ContextCallable<>(backend, ContextSnapshots.snapshot(backend), task);
+	}
+
+	/**
+	 * @param context a snapshot of a context, see {@link ContextSnapshots#snapshot(TraceeBackend)}
+	 * @return a runnable that runs the given task with the given context
+	 */
+	public static Runnable wrap(final TraceeBackend backend, final Map<String, String> context, final Runnable task) {
+		return new ContextRunnable(backend, context, task);
+	}
+
+	/**
+	 * @param context a snapshot of a context, see {@link ContextSnapshots#snapshot(TraceeBackend)}
+	 * @return a callable that calls the given task with the given context
+	 */
+	public static <T> Callable<T> wrap(final TraceeBackend backend, final Map<String, String> context, final Callable<T> task) {
+		return new ContextCallable<>(backend, context, task);
+	}
+
+	/**
+	 * @return a fork/join task that invokes the given task with the current context. Subtasks forked by the task run with
+	 * the context of the worker that takes them, see {@link TraceeRecursiveTask}.
+	 */
+	public static <V> ForkJoinTask<V> wrap(final ForkJoinTask<V> task) {
+		return wrap(Tracee.getBackend(), task);
+	}
+
+	public static <V> ForkJoinTask<V> wrap(final TraceeBackend backend, final ForkJoinTask<V> task) {
+		return new ContextForkJoinTask<>(backend, ContextSnapshots.snapshot(backend), task);
+	}
+
+	/**
+	 * @return an executor that runs every task with the context of the thread that submits it
+	 */
+	public static Executor executor(final Executor delegate) {
+		return executor(delegate, Tracee.getBackend());
+	}
+
+	public static Executor executor(final Executor delegate, final TraceeBackend backend) {
+		return new TraceeExecutor(delegate, backend);
+	}
+
+	/**
+	 * @return an executor service that runs every task with the context of the thread that submits it
+	 */
+	public static ExecutorService executorService(final ExecutorService delegate) {
+		return executorService(delegate, Tracee.getBackend());
+	}
+
+	public static ExecutorService executorService(final ExecutorService delegate, final TraceeBackend backend) {
+		return new TraceeExecutorService(delegate, backend);
+	}
+
+	/**
+	 * @return a scheduled executor service that runs every task, including every execution of periodic tasks, with the
+	 * context of the thread that scheduled it
+	 */
+	public static ScheduledExecutorService scheduledExecutorService(final ScheduledExecutorService delegate) {
+		return scheduledExecutorService(delegate, Tracee.getBackend());
+	}
+
+	public static ScheduledExecutorService scheduledExecutorService(final ScheduledExecutorService delegate, final TraceeBackend backend) {
+		return new TraceeScheduledExecutorService(delegate, backend);
+	}
+
+	/**
+	 * @return a fork/join pool that runs every submitted task with the context of the thread that submits it
+	 */
+	public static ForkJoinPool forkJoinPool(final int parallelism) {
+		return forkJoinPool(parallelism, Tracee.getBackend());
+	}
+
+	public static ForkJoinPool forkJoinPool(final int parallelism, final TraceeBackend backend) {
+		return new TraceeForkJoinPool(parallelism, backend);
+	}
+
+	/**
+	 * @return a fork/join pool whose workers hold the current context for their whole lifetime, see
+	 * {@link #contextForkJoinPool(int, TraceeBackend, Map)}
+	 */
+	public static ForkJoinPool contextForkJoinPool(final int parallelism) {
+		final TraceeBackend backend = Tracee.getBackend();
+		return contextForkJoinPool(parallelism, backend, ContextSnapshots.snapshot(backend));
+	}
+
+	/**
+	 * Returns a fork/join pool whose workers hold the given context for their whole lifetime, so every task of the pool,
+	 * including the subtasks that parallel streams create internally, runs with it at no cost per task. Create the pool
+	 * once per context, e.g. per batch, run all its parallel computations with {@link #callInParallel(ForkJoinPool, Callable)}
+	 * and shut it down afterwards.
+	 *
+	 * @param context a snapshot of a context, see {@link ContextSnapshots#snapshot(TraceeBackend)}
+	 */
+	public static ForkJoinPool contextForkJoinPool(final int parallelism, final TraceeBackend backend, final Map<String, String> context) {
+		return new ForkJoinPool(parallelism, new ContextWorkerThreadFactory(backend, context), null, false);
+	}
+
+	/**
+	 * Calls the given task, typically the terminal operation of a parallel stream, in the given pool, see
+	 * {@link #callInParallel(TraceeBackend, ForkJoinPool, Callable)}.
+	 */
+	public static <T> T callInParallel(final ForkJoinPool pool, final Callable<T> task) throws Exception {
+		return callInParallel(Tracee.getBackend(), pool, task);
+	}
+
+	/**
+	 * Calls the given task with the current context in the given pool and waits for its result. Parallel streams and other
+	 * fork/join computations started by the task run in this pool instead of the common pool. Their subtasks run with the
+	 * context of the worker that takes them: the workers of a {@link #contextForkJoinPool(int, TraceeBackend, Map) context
+	 * pool} hold its context, other workers only pass it to {@link TraceeRecursiveTask}s and {@link TraceeRecursiveAction}s.
+	 */
+	public static <T> T callInParallel(final TraceeBackend backend, final ForkJoinPool pool, final Callable<T> task) throws Exception {
+		try {
+			return pool.submit(wrap(backend, task)).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns a thread factory whose threads run with the context of the thread that creates them. Thread pools create
+	 * their threads on submission of arbitrary tasks, so wrap pools with {@link #executorService(ExecutorService)} instead.
+	 */
+	public static ThreadFactory threadFactory(final ThreadFactory delegate) {
+		return threadFactory(delegate, Tracee.getBackend());
+	}
+
+	public static ThreadFactory threadFactory(final ThreadFactory delegate, final TraceeBackend backend) {
+		return new TraceeThreadFactory(delegate, backend);
+	}
+}
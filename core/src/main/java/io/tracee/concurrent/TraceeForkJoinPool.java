@@ -0,0 +1,80 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+/**
+ * A fork/join pool that runs every submitted task with the context of the thread that submits it. Subtasks are queued
+ * without touching the context, so work stealing is not slowed down.
+ */
+final class TraceeForkJoinPool extends ForkJoinPool {
+
+	private final TraceeBackend backend;
+
+	TraceeForkJoinPool(final int parallelism, final TraceeBackend backend) {
+		super(parallelism);
+		this.backend = backend;
+	}
+
+	@Override
+	public <T> T invoke(ForkJoinTask<T> task) {
+		return super.invoke(TraceeExecutors.wrap(backend, task));
+	}
+
+	@Override
+	public void execute(ForkJoinTask<?> task) {
+		super.execute(TraceeExecutors.wrap(backend, task));
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		if (task instanceof ForkJoinTask) {
+			execute((ForkJoinTask<?>) task);
+		} else {
+			super.execute(TraceeExecutors.wrap(backend, task));
+		}
+	}
+
+	/**
+	 * @return the given task, which completes when the wrapping task has invoked it
+	 */
+	@Override
+	public <T> ForkJoinTask<T> submit(ForkJoinTask<T> task) {
+		super.submit(TraceeExecutors.wrap(backend, task));
+		return task;
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(Callable<T> task) {
+		return super.submit(TraceeExecutors.wrap(backend, task));
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(Runnable task, T result) {
+		return super.submit(TraceeExecutors.wrap(backend, task), result);
+	}
+
+	@Override
+	public ForkJoinTask<?> submit(Runnable task) {
+		return super.submit(TraceeExecutors.wrap(backend, task));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) {
+		final Map<String, String> context = ContextSnapshots.snapshot(backend);
+		final List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks) {
+			wrapped.add(new ContextCallable<>(backend, context, task));
+		}
+		return super.invokeAll(wrapped);
+	}
+}
@@ -0,0 +1,60 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A {@link RecursiveAction} that computes with the context that was current when it was created, see
+ * {@link TraceeRecursiveTask}.
+ */
+public abstract class TraceeRecursiveAction extends ForkJoinTask<Void> {
+
+	private static final long serialVersionUID = 1L;
+
+	protected final TraceeBackend backend;
+	private final Map<String, String> context;
+
+	protected TraceeRecursiveAction() {
+		this(Tracee.getBackend());
+	}
+
+	protected TraceeRecursiveAction(final TraceeBackend backend) {
+		this.backend = backend;
+		this.context = ContextSnapshots.snapshot(backend);
+	}
+
+	/**
+	 * The main computation performed by this task, see {@link RecursiveAction#compute()}.
+	 */
+	protected abstract void compute();
+
+	@Override
+	public final Void getRawResult() {
+		return null;
+	}
+
+	@Override
+	protected final void setRawResult(Void value) {
+	}
+
+	@Override
+	protected final boolean exec() {
+		final Map<String, String> previous = ContextSnapshots.snapshot(backend);
+		if (previous == context) {
+			compute();
+			return true;
+		}
+		ContextSnapshots.restore(backend, context);
+		try {
+			compute();
+		} finally {
+			ContextSnapshots.restore(backend, previous);
+		}
+		return true;
+	}
+}
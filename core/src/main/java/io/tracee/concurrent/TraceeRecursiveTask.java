@@ -0,0 +1,65 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.Tracee;
+import io.tracee.TraceeBackend;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A {@link RecursiveTask} that computes with the context that was current when it was created. Subtasks created within
+ * {@link #compute()} capture the same context, so it reaches every worker that steals a part of the computation.
+ * <p/>
+ * Workers that already hold the context, e.g. when they compute their own subtasks, do not touch it. Pass the
+ * {@link #backend} to the constructor of subtasks to skip the backend lookup.
+ */
+public abstract class TraceeRecursiveTask<V> extends ForkJoinTask<V> {
+
+	private static final long serialVersionUID = 1L;
+
+	protected final TraceeBackend backend;
+	private final Map<String, String> context;
+	private V result;
+
+	protected TraceeRecursiveTask() {
+		this(Tracee.getBackend());
+	}
+
+	protected TraceeRecursiveTask(final TraceeBackend backend) {
+		this.backend = backend;
+		this.context = ContextSnapshots.snapshot(backend);
+	}
+
+	/**
+	 * The main computation performed by this task, see {@link RecursiveTask#compute()}.
+	 */
+	protected abstract V compute();
+
+	@Override
+	public final V getRawResult() {
+		return result;
+	}
+
+	@Override
+	protected final void setRawResult(V value) {
+		result = value;
+	}
+
+	@Override
+	protected final boolean exec() {
+		final Map<String, String> previous = ContextSnapshots.snapshot(backend);
+		if (previous == context) {
+			result = compute();
+			return true;
+		}
+		ContextSnapshots.restore(backend, context);
+		try {
+			result = compute();
+		} finally {
+			ContextSnapshots.restore(backend, previous);
+		}
+		return true;
+	}
+}
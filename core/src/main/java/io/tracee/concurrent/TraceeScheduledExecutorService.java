@@ -0,0 +1,41 @@
+package io.tracee.concurrent;
+
+import io.tracee.TraceeBackend;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic tasks run with the context that was captured when they were scheduled, on every execution.
+ */
+final class TraceeScheduledExecutorService extends TraceeExecutorService implements ScheduledExecutorService {
+
+	private final ScheduledExecutorService delegate;
+
+	TraceeScheduledExecutorService(final ScheduledExecutorService delegate, final TraceeBackend backend) {
+		super(delegate, backend);
+		this.delegate = delegate;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+		return delegate.schedule(wrap(command), delay, unit);
+	}
+
+	@Override
+	public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+		return delegate.schedule(wrap(callable), delay, unit);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+		return delegate.scheduleAtFixedRate(wrap(command), initialDelay, period, unit);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+		return delegate.scheduleWithFixedDelay(wrap(command), initialDelay, delay, unit);
+	}
+}
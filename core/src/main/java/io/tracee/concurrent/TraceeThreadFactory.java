@@ -0,0 +1,22 @@
+package io.tracee.concurrent;
+
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+
+import java.util.concurrent.ThreadFactory;
+
+final class TraceeThreadFactory implements ThreadFactory {
+
+	private final ThreadFactory delegate;
+	private final TraceeBackend backend;
+
+	TraceeThreadFactory(final ThreadFactory delegate, final TraceeBackend backend) {
+		this.delegate = delegate;
+		this.backend = backend;
+	}
+
+	@Override
+	public Thread newThread(Runnable r) {
+		return delegate.newThread(new ContextRunnable(backend, ContextSnapshots.snapshot(backend), r));
+	}
+}
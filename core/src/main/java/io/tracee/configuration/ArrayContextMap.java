@@ -0,0 +1,93 @@
+package io.tracee.configuration;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only map backed by arrays of keys and values. Used for filtered contexts, which are small and only iterated
+ * or copied into a backend, so a linear lookup is cheaper than hashing.
+ */
+final class ArrayContextMap extends AbstractMap<String, String> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String[] keys;
+	private final String[] values;
+	private final int size;
+
+	/**
+	 * The arrays are not copied and must not be modified afterwards. Only the first {@code size} entries are used.
+	 */
+	ArrayContextMap(String[] keys, String[] values, int size) {
+		this.keys = keys;
+		this.values = values;
+		this.size = size;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public String get(Object key) {
+		final int index = indexOf(key);
+		return index < 0 ? null : values[index];
+	}
+
+	private int indexOf(Object key) {
+		for (int i = 0; i < size; i++) {
+			if (keys[i] == null ? key == null : keys[i].equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public Set<Entry<String, String>> entrySet() {
+		return new AbstractSet<Entry<String, String>>() {
+			@Override
+			public Iterator<Entry<String, String>> iterator() {
+				return new Iterator<Entry<String, String>>() {
+					private int index = 0;
+
+					@Override
+					public boolean hasNext() {
+						return index < size;
+					}
+
+					@Override
+					public Entry<String, String> next() {
+						if (index >= size) {
+							throw new NoSuchElementException();
+						}
+						final Entry<String, String> entry = new SimpleImmutableEntry<>(keys[index], values[index]);
+						index++;
+						return entry;
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+}
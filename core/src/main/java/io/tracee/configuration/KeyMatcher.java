@@ -0,0 +1,180 @@
+package io.tracee.configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Matches parameter names against the patterns of a channel.
+ * <p/>
+ * Most configured patterns are plain key names or simple {@code prefix.*} forms, in which metacharacters like the dots of
+ * {@code TPIC\.invocationId} may be escaped by a backslash. Those are matched by hash and prefix lookups; only patterns
+ * that use further regular expression features are evaluated by {@link Pattern}.
+ * The result is always the same as if every pattern were evaluated with {@code pattern.matcher(paramName).matches()}.
+ */
+final class KeyMatcher {
+
+	static final KeyMatcher NONE = new KeyMatcher(false, new HashSet<String>(), null, new Pattern[0]);
+
+	private static final String MATCH_ALL = ".*";
+	private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+	private final boolean matchAll;
+	private final Set<String> literals;
+	private final PrefixNode prefixes;
+	private final Pattern[] regexes;
+
+	private KeyMatcher(boolean matchAll, Set<String> literals, PrefixNode prefixes, Pattern[] regexes) {
+		this.matchAll = matchAll;
+		this.literals = literals;
+		this.prefixes = prefixes;
+		this.regexes = regexes;
+	}
+
+	/**
+	 * Classifies the given patterns as match-all, literal, prefix or regular expression and combines them into one matcher.
+	 */
+	static KeyMatcher compile(final List<Pattern> patterns) {
+		final Set<String> literals = new HashSet<>();
+		final List<Pattern> regexes = new ArrayList<>();
+		PrefixNode prefixes = null;
+
+		for (Pattern pattern : patterns) {
+			final String expression = pattern.pattern();
+			if (MATCH_ALL.equals(expression)) {
+				return new KeyMatcher(true, new HashSet<String>(), null, new Pattern[0]);
+			}
+			final String literal = pattern.flags() == 0 ? unescapeLiteral(expression, expression.length()) : null;
+			final String prefix = pattern.flags() == 0 && literal == null && expression.endsWith(MATCH_ALL)
+				? unescapeLiteral(expression, expression.length() - MATCH_ALL.length()) : null;
+			if (literal != null) {
+				literals.add(literal);
+			} else if (prefix != null) {
+				if (prefixes == null) {
+					prefixes = new PrefixNode();
+				}
+				prefixes.add(prefix, prefix.length());
+			} else {
+				regexes.add(pattern);
+			}
+		}
+		return new KeyMatcher(false, literals, prefixes, regexes.toArray(new Pattern[regexes.size()]));
+	}
+
+	/**
+	 * @return the characters the first {@code length} characters of the expression match, or {@code null} if they use
+	 * regular expression features besides metacharacters that are escaped by a backslash.
+	 */
+	private static String unescapeLiteral(final String expression, final int length) {
+		StringBuilder unescaped = null;
+		for (int i = 0; i < length; i++) {
+			final char c = expression.charAt(i);
+			if (c == '\\' && i + 1 < length && REGEX_META_CHARACTERS.indexOf(expression.charAt(i + 1)) >= 0) {
+				if (unescaped == null) {
+					unescaped = new StringBuilder(length).append(expression, 0, i);
+				}
+				unescaped.append(expression.charAt(++i));
+			} else if (REGEX_META_CHARACTERS.indexOf(c) >= 0) {
+				return null;
+			} else if (unescaped != null) {
+				unescaped.append(c);
+			}
+		}
+		return unescaped == null ? expression.substring(0, length) : unescaped.toString();
+	}
+
+	boolean matches(final String paramName) {
+		if (matchAll || literals.contains(paramName)) {
+			return true;
+		}
+		if (prefixes != null && prefixes.matchesPrefixOf(paramName)) {
+			return true;
+		}
+		for (Pattern regex : regexes) {
+			if (regex.matcher(paramName).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	boolean matchesAll() {
+		return matchAll;
+	}
+
+	/**
+	 * @return {@code true} if this matcher has to evaluate regular expressions, i.e. if a match is expensive.
+	 */
+	boolean requiresRegexEvaluation() {
+		return regexes.length > 0;
+	}
+
+	/**
+	 * A node of a character trie of prefixes. The trie is only modified while the matcher is compiled.
+	 */
+	private static final class PrefixNode {
+		private boolean terminal;
+		private char[] characters = new char[0];
+		private PrefixNode[] children = new PrefixNode[0];
+
+		private void add(final String prefix, final int length) {
+			PrefixNode node = this;
+			for (int i = 0; i < length; i++) {
+				node = node.childOrCreate(prefix.charAt(i));
+			}
+			node.terminal = true;
+		}
+
+		private PrefixNode childOrCreate(final char c) {
+			final PrefixNode existing = child(c);
+			if (existing != null) {
+				return existing;
+			}
+			final PrefixNode created = new PrefixNode();
+			characters = Arrays.copyOf(characters, characters.length + 1);
+			children = Arrays.copyOf(children, children.length + 1);
+			characters[characters.length - 1] = c;
+			children[children.length - 1] = created;
+			return created;
+		}
+
+		private PrefixNode child(final char c) {
+			for (int i = 0; i < characters.length; i++) {
+				if (characters[i] == c) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		private boolean matchesPrefixOf(final String paramName) {
+			PrefixNode node = this;
+			for (int i = 0; i < paramName.length(); i++) {
+				if (node.terminal && !containsLineTerminator(paramName, i)) {
+					return true;
+				}
+				node = node.child(paramName.charAt(i));
+				if (node == null) {
+					return false;
+				}
+			}
+			return node.terminal;
+		}
+
+		/**
+		 * The {@code .*} suffix of a prefix pattern does not match line terminators.
+		 */
+		private static boolean containsLineTerminator(final String s, final int from) {
+			for (int i = from; i < s.length(); i++) {
+				final char c = s.charAt(i);
+				if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
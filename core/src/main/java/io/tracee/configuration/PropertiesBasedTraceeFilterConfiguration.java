@@ -7,12 +7,13 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -20,18 +21,29 @@ import java.util.regex.PatternSyntaxException;
  * A TraceeFilterConfiguration that is based on a {@link PropertyChain}.
  * The default property chain may be obtained by the {@link #loadPropertyChain()} method.
  */
-public final class PropertiesBasedTraceeFilterConfiguration implements TraceeFilterConfiguration {
+public final class PropertiesBasedTraceeFilterConfiguration implements TraceeFilterConfiguration, TpicEncodingConfiguration {
 
 	static final String TRACEE_CONFIG_PREFIX = "tracee.";
 	static final String PROFILED_PREFIX = TRACEE_CONFIG_PREFIX + "profile.";
 	static final String TRACEE_DEFAULT_PROFILE_PREFIX = TRACEE_CONFIG_PREFIX + Profile.DEFAULT + ".";
 	static final String GENERATE_INVOCATION_ID = "invocationIdLength";
 	static final String GENERATE_SESSION_ID = "sessionIdLength";
+	static final String CODEC = "codec";
+	static final String SPLIT_STABLE_KEYS = "splitStableKeys";
+	static final String INHERIT_CONTEXT = TRACEE_CONFIG_PREFIX + "backend.inheritContext";
+
+	/**
+	 * Upper bound of the cached filter decisions per channel. Parameter names beyond this bound (e.g. from clients that
+	 * send arbitrary keys) are evaluated directly.
+	 */
+	static final int MAX_CACHED_DECISIONS = 512;
 
 	private final PropertyChain propertyChain;
 	private final String profileName;
 
-	private final Map<String, List<Pattern>> patternCache = new ConcurrentHashMap<>();
+	// Use #getCompiledConfiguration to retrieve the snapshot
+	private volatile CompiledConfiguration compiledConfiguration = null;
+	private volatile int generation;
 
 	private static final Logger logger = LoggerFactory.getLogger(PropertiesBasedTraceeFilterConfiguration.class);
 
@@ -53,6 +65,18 @@ public final class PropertiesBasedTraceeFilterConfiguration implements TraceeFil
 		}
 	}
 
+	/**
+	 * Tells the thread local backends whether threads inherit the context of the thread that creates them. Set
+	 * {@code tracee.backend.inheritContext=false} to disable the inheritance; contexts are then only propagated
+	 * explicitly, e.g. by the async bindings or {@link io.tracee.ContextSnapshots}.
+	 *
+	 * @return {@code false} if the inheritance is disabled by the given property chain
+	 */
+	public static boolean isContextInheritable(PropertyChain propertyChain) {
+		final String inheritContext = propertyChain.getProperty(INHERIT_CONTEXT);
+		return inheritContext == null || !"false".equalsIgnoreCase(inheritContext.trim());
+	}
+
 	public PropertiesBasedTraceeFilterConfiguration(PropertyChain propertyChain) {
 		this(propertyChain, null);
 	}
@@ -63,6 +87,24 @@ public final class PropertiesBasedTraceeFilterConfiguration implements TraceeFil
 		this.profileName = profileName;
 	}
 
+	/**
+	 * Discards the compiled snapshot of this configuration. Changes of the underlying {@link PropertyChain} take effect
+	 * with the next call of this configuration. Applications reload the configurations of their backend with
+	 * {@link io.tracee.BackendBase#reloadConfiguration()}.
+	 */
+	public void reload() {
+		compiledConfiguration = null;
+		generation++;
+	}
+
+	/**
+	 * @return a number that changes with every {@link #reload()}. Results that are derived from this configuration and
+	 * cached, e.g. rendered headers, are only valid as long as it is unchanged; read it before deriving a result.
+	 */
+	public int generation() {
+		return generation;
+	}
+
 	private String getProfiledOrDefaultProperty(final String propertyName) {
 		if (profileName != null && !Profile.DEFAULT.equals(profileName)) {
 			final String profiledProperty = propertyChain.getProperty(PROFILED_PREFIX + profileName + '.' + propertyName);
@@ -72,17 +114,47 @@ public final class PropertiesBasedTraceeFilterConfiguration implements TraceeFil
 		return propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + propertyName);
 	}
 
+	/**
+	 * The property chain is read once when the configuration is used for the first time (or after {@link #reload()}).
+	 * Concurrent first calls may compile the snapshot more than once, which is harmless because the snapshots are equal.
+	 */
+	private CompiledConfiguration getCompiledConfiguration() {
+		CompiledConfiguration compiled = compiledConfiguration;
+		if (compiled == null) {
+			compiled = compile();
+			compiledConfiguration = compiled;
+		}
+		return compiled;
+	}
+
+	private CompiledConfiguration compile() {
+		final Channel[] channels = Channel.values();
+		final ChannelFilter[] channelFilters = new ChannelFilter[channels.length];
+		for (Channel channel : channels) {
+			final String messageTypePropertyValue = getProfiledOrDefaultProperty(channel.name());
+			channelFilters[channel.ordinal()] = new ChannelFilter(!Utilities.isNullOrEmptyString(messageTypePropertyValue),
+				messageTypePropertyValue == null ? KeyMatcher.NONE : KeyMatcher.compile(extractPatterns(messageTypePropertyValue)));
+		}
+		final String codecName = getProfiledOrDefaultProperty(CODEC);
+		return new CompiledConfiguration(channelFilters,
+			parseIntOrZero(getProfiledOrDefaultProperty(GENERATE_INVOCATION_ID)),
+			parseIntOrZero(getProfiledOrDefaultProperty(GENERATE_SESSION_ID)),
+			Utilities.isNullOrEmptyString(codecName) ? null : codecName.trim(),
+			isTrue(getProfiledOrDefaultProperty(SPLIT_STABLE_KEYS)));
+	}
+
 	@Override
 	public boolean shouldProcessParam(String paramName, Channel channel) {
-		final String messageTypePropertyValue = getProfiledOrDefaultProperty(channel.name());
-		final List<Pattern> patterns = retrievePatternsForPropertyValue(messageTypePropertyValue);
-		return anyPatternMatchesParamName(patterns, paramName);
+		return getCompiledConfiguration().channelFilters[channel.ordinal()].accepts(paramName);
+	}
+
+	int cachedDecisions(final Channel channel) {
+		return getCompiledConfiguration().channelFilters[channel.ordinal()].cachedDecisions();
 	}
 
 	@Override
 	public boolean shouldProcessContext(final Channel channel) {
-		final String messageTypePropertyValue = getProfiledOrDefaultProperty(channel.name());
-		return !Utilities.isNullOrEmptyString(messageTypePropertyValue);
+		return getCompiledConfiguration().channelFilters[channel.ordinal()].processContext;
 	}
 
 	@Override
@@ -92,7 +164,7 @@ public final class PropertiesBasedTraceeFilterConfiguration implements TraceeFil
 
 	@Override
 	public int generatedInvocationIdLength() {
-		return parseIntOrZero(getProfiledOrDefaultProperty(GENERATE_INVOCATION_ID));
+		return getCompiledConfiguration().invocationIdLength;
 	}
 
 	@Override
@@ -102,18 +174,62 @@ public final class PropertiesBasedTraceeFilterConfiguration implements TraceeFil
 
 	@Override
 	public int generatedSessionIdLength() {
-		return parseIntOrZero(getProfiledOrDefaultProperty(GENERATE_SESSION_ID));
+		return getCompiledConfiguration().sessionIdLength;
 	}
 
+	@Override
+	public String codecName() {
+		return getCompiledConfiguration().codecName;
+	}
+
+	@Override
+	public boolean shouldSplitStableKeys() {
+		return getCompiledConfiguration().splitStableKeys;
+	}
+
+	/**
+	 * Returns a read-only view of {@code unfiltered} if all keys pass the filter of the channel, otherwise a compact
+	 * read-only copy that contains only the allowed entries.
+	 */
 	@Override
 	public Map<String, String> filterDeniedParams(final Map<String, String> unfiltered, final Channel channel) {
-		final Map<String, String> filtered = new HashMap<>(unfiltered.size());
+		final ChannelFilter channelFilter = getCompiledConfiguration().channelFilters[channel.ordinal()];
+		if (channelFilter.keyMatcher.matchesAll()) {
+			return Collections.unmodifiableMap(unfiltered);
+		}
+
+		String[] keys = null;
+		String[] values = null;
+		int size = 0;
+		int index = 0;
 		for (Map.Entry<String, String> entry : unfiltered.entrySet()) {
-			if (shouldProcessParam(entry.getKey(), channel)) {
-				filtered.put(entry.getKey(), entry.getValue());
+			if (channelFilter.accepts(entry.getKey())) {
+				if (keys != null) {
+					keys[size] = entry.getKey();
+					values[size] = entry.getValue();
+					size++;
+				}
+			} else if (keys == null) {
+				// first denied key: copy the already accepted entries that precede it
+				keys = new String[unfiltered.size() - 1];
+				values = new String[unfiltered.size() - 1];
+				final Iterator<Map.Entry<String, String>> accepted = unfiltered.entrySet().iterator();
+				for (; size < index; size++) {
+					final Map.Entry<String, String> acceptedEntry = accepted.next();
+					keys[size] = acceptedEntry.getKey();
+					values[size] = acceptedEntry.getValue();
+				}
 			}
+			index++;
+		}
+
+		if (keys == null) {
+			return Collections.unmodifiableMap(unfiltered);
 		}
-		return filtered;
+		if (size == 0) {
+			return Collections.emptyMap();
+		}
+		return new ArrayContextMap(keys, values, size);
 	}
 
 	private int parseIntOrZero(String intString) {
@@ -124,30 +240,8 @@ public final class PropertiesBasedTraceeFilterConfiguration implements TraceeFil
 		}
 	}
 
-	private boolean anyPatternMatchesParamName(Iterable<Pattern> patterns, String paramName) {
-		for (Pattern pattern : patterns) {
-			if (patternMatchesParamName(pattern, paramName))
-				return true;
-		}
-		return false;
-	}
-
-	private boolean patternMatchesParamName(Pattern pattern, String paramName) {
-		return ".*".equals(pattern.pattern()) || pattern.matcher(paramName).matches();
-	}
-
-	private List<Pattern> retrievePatternsForPropertyValue(final String propertyValue) {
-		if (propertyValue == null) {
-			return Collections.emptyList();
-		}
-		final List<Pattern> patterns = patternCache.get(propertyValue);
-		if (patterns != null) {
-			return patterns;
-		}
-
-		final List<Pattern> unmodPatterns = Collections.unmodifiableList(extractPatterns(propertyValue));
-		patternCache.put(propertyValue, unmodPatterns);
-		return unmodPatterns;
+	private static boolean isTrue(String booleanString) {
+		return booleanString != null && "true".equalsIgnoreCase(booleanString.trim());
 	}
 
 	List<Pattern> extractPatterns(final String propertyValue) {
@@ -169,4 +263,60 @@ public final class PropertiesBasedTraceeFilterConfiguration implements TraceeFil
 		}
 		return trimmedPatterns;
 	}
+
+	/**
+	 * Immutable snapshot of the configuration of a profile. The filters are indexed by {@link Channel#ordinal()}.
+	 */
+	private static final class CompiledConfiguration {
+		private final ChannelFilter[] channelFilters;
+		private final int invocationIdLength;
+		private final int sessionIdLength;
+		private final String codecName;
+		private final boolean splitStableKeys;
+
+		private CompiledConfiguration(ChannelFilter[] channelFilters, int invocationIdLength, int sessionIdLength, String codecName,
+									  boolean splitStableKeys) {
+			this.channelFilters = channelFilters;
+			this.invocationIdLength = invocationIdLength;
+			this.sessionIdLength = sessionIdLength;
+			this.codecName = codecName;
+			this.splitStableKeys = splitStableKeys;
+		}
+	}
+
+	/**
+	 * Filter of a single channel. Decisions of matchers that evaluate regular expressions are cached; the cache belongs to
+	 * the snapshot and is therefore discarded by {@link #reload()}.
+	 */
+	private static final class ChannelFilter {
+		private final boolean processContext;
+		private final KeyMatcher keyMatcher;
+		private final ConcurrentMap<String, Boolean> decisions;
+
+		private ChannelFilter(boolean processContext, KeyMatcher keyMatcher) {
+			this.processContext = processContext;
+			this.keyMatcher = keyMatcher;
+			this.decisions = keyMatcher.requiresRegexEvaluation() ? new ConcurrentHashMap<String, Boolean>() : null;
+		}
+
+		private boolean accepts(String paramName) {
+			if (decisions == null) {
+				return keyMatcher.matches(paramName);
+			}
+			final Boolean cachedDecision = decisions.get(paramName);
+			if (cachedDecision != null) {
+				return cachedDecision;
+			}
+			final boolean decision = keyMatcher.matches(paramName);
+			// the bound may be exceeded slightly by concurrent puts, which is fine
+			if (decisions.size() < MAX_CACHED_DECISIONS) {
+				decisions.put(paramName, decision);
+			}
+			return decision;
+		}
+
+		private int cachedDecisions() {
+			return decisions == null ? 0 : decisions.size();
+		}
+	}
 }
@@ -0,0 +1,187 @@
+package io.tracee.transport;
+
+import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serializes a TPIC to a compact binary form for message headers, e.g. of JMS or AMQP messages:
+ * <pre>
+ * marker  := 0xB1
+ * pair    := keyRef valueLength value
+ * keyRef  := varint 0 followed by keyLength key, or varint n &gt; 0 referencing the n-th entry of the key dictionary
+ * TPIC    := marker pair*
+ * </pre>
+ * Lengths are unsigned LEB128 varints, keys and values are UTF-8 encoded. Well-known keys like
+ * {@link TraceeConstants#INVOCATION_ID_KEY} are replaced by their index in a static dictionary. The dictionary may only be
+ * extended at its end; pairs that reference an unknown dictionary entry (e.g. written by a newer version) are skipped.
+ * <p/>
+ * The marker byte can never start the text form of {@link HttpHeaderTransport}, so both forms can be told apart.
+ * Transports that only carry Strings (like JMS message properties) must encode the bytes, e.g. with
+ * {@link Utilities#encodeBase64(byte[])}.
+ */
+public class BinaryHeaderTransport {
+
+	static final byte FORMAT_MARKER = (byte) 0xB1;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BinaryHeaderTransport.class);
+
+	private static final String[] KEY_DICTIONARY = {
+		TraceeConstants.INVOCATION_ID_KEY,
+		TraceeConstants.SESSION_ID_KEY
+	};
+	private static final Map<String, Integer> KEY_REFERENCES = new HashMap<>();
+
+	static {
+		for (int i = 0; i < KEY_DICTIONARY.length; i++) {
+			KEY_REFERENCES.put(KEY_DICTIONARY[i], i + 1);
+		}
+	}
+
+	/**
+	 * @return {@code true} if the given bytes start with the marker of the binary form
+	 */
+	public static boolean isBinaryForm(final byte[] serialized) {
+		return serialized != null && serialized.length > 0 && serialized[0] == FORMAT_MARKER;
+	}
+
+	public byte[] render(final Map<String, String> context) {
+		final Output output = new Output(16 + context.size() * 48);
+		output.write(FORMAT_MARKER);
+		for (Map.Entry<String, String> entry : context.entrySet()) {
+			final Integer keyReference = KEY_REFERENCES.get(entry.getKey());
+			if (keyReference != null) {
+				output.writeVarint(keyReference);
+			} else {
+				output.writeVarint(0);
+				output.writeString(entry.getKey());
+			}
+			output.writeString(entry.getValue());
+		}
+		return output.toByteArray();
+	}
+
+	/**
+	 * Decodes the binary form. A malformed or truncated input is discarded as a whole.
+	 *
+	 * @return the decoded context, an empty map if the input is not in the binary form or malformed
+	 */
+	public Map<String, String> parse(final byte[] serialized) {
+		final Map<String, String> context = new HashMap<>();
+		if (!isBinaryForm(serialized)) {
+			LOGGER.debug("Ignore TPIC that is not in the binary form");
+			return context;
+		}
+		final Input input = new Input(serialized);
+		try {
+			while (input.hasRemaining()) {
+				final int keyReference = input.readVarint();
+				final String key = keyReference == 0 ? input.readString() : dictionaryKey(keyReference);
+				final String value = input.readString();
+				if (key != null) {
+					context.put(key, value);
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			LOGGER.warn("Unable to parse binary TPIC: {}", e.getMessage());
+			context.clear();
+		}
+		return context;
+	}
+
+	private static String dictionaryKey(final int keyReference) {
+		if (keyReference > KEY_DICTIONARY.length) {
+			LOGGER.debug("Skip TPIC pair with unknown key reference {}", keyReference);
+			return null;
+		}
+		return KEY_DICTIONARY[keyReference - 1];
+	}
+
+	private static final class Output {
+		private byte[] buffer;
+		private int position;
+
+		private Output(final int initialCapacity) {
+			buffer = new byte[initialCapacity];
+		}
+
+		private void write(final byte b) {
+			ensureCapacity(1);
+			buffer[position++] = b;
+		}
+
+		private void writeVarint(int value) {
+			ensureCapacity(5);
+			while ((value & ~0x7F) != 0) {
+				buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[position++] = (byte) value;
+		}
+
+		private void writeString(final String s) {
+			final byte[] bytes = s.getBytes(Utilities.CHARSET_UTF8);
+			writeVarint(bytes.length);
+			ensureCapacity(bytes.length);
+			System.arraycopy(bytes, 0, buffer, position, bytes.length);
+			position += bytes.length;
+		}
+
+		private void ensureCapacity(final int additional) {
+			if (position + additional > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+			}
+		}
+
+		private byte[] toByteArray() {
+			return Arrays.copyOf(buffer, position);
+		}
+	}
+
+	private static final class Input {
+		private final byte[] buffer;
+		// skip the format marker
+		private int position = 1;
+
+		private Input(final byte[] buffer) {
+			this.buffer = buffer;
+		}
+
+		private boolean hasRemaining() {
+			return position < buffer.length;
+		}
+
+		private int readVarint() {
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				if (!hasRemaining()) {
+					throw new IllegalArgumentException("truncated length at byte " + position);
+				}
+				final byte b = buffer[position++];
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					if (value < 0) {
+						throw new IllegalArgumentException("negative length at byte " + position);
+					}
+					return value;
+				}
+			}
+			throw new IllegalArgumentException("overlong length at byte " + position);
+		}
+
+		private String readString() {
+			final int length = readVarint();
+			if (length > buffer.length - position) {
+				throw new IllegalArgumentException("truncated string at byte " + position);
+			}
+			final String s = new String(buffer, position, length, Utilities.CHARSET_UTF8);
+			position += length;
+			return s;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package io.tracee.transport;
+
+import io.tracee.spi.TpicCodec;
+
+import java.util.Map;
+
+/**
+ * The compact form of {@link BinaryHeaderTransport} for messaging bindings.
+ */
+public final class BinaryTpicCodec implements TpicCodec {
+
+	public static final String NAME = "binary";
+
+	private final BinaryHeaderTransport transport = new BinaryHeaderTransport();
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public boolean canDecode(final byte[] serialized) {
+		return BinaryHeaderTransport.isBinaryForm(serialized);
+	}
+
+	@Override
+	public byte[] encode(final Map<String, String> context) {
+		return transport.render(context);
+	}
+
+	@Override
+	public Map<String, String> decode(final byte[] serialized) {
+		return transport.parse(serialized);
+	}
+}
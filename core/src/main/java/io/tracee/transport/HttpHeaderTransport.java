@@ -1,67 +1,366 @@
 package io.tracee.transport;
 
+import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
-import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.StringTokenizer;
 
+/**
+ * Serializes a TPIC to the comma separated {@code key=value} form used in HTTP headers and JMS properties.
+ * <p/>
+ * Keys and values are encoded like {@link java.net.URLEncoder} / {@link java.net.URLDecoder} would do with
+ * {@code UTF-8}, but the codec scans the serialized form only once and allocates nothing besides the resulting
+ * Strings. Keys and values that consist of unreserved characters only are copied without any transformation.
+ * <p/>
+ * Contexts are rendered in a {@link #sortCanonically(String[], int) canonical order}, so equal contexts always result in
+ * equal headers, which HTTP/2 header compression (HPACK) can index.
+ */
 public class HttpHeaderTransport {
 
 	public static final String ENCODING_CHARSET = "UTF-8";
 	private static final Logger LOGGER = LoggerFactory.getLogger(HttpHeaderTransport.class);
 
-	Map<String, String> parse(String serialized) {
-		final StringTokenizer pairTokenizer = new StringTokenizer(serialized.trim(), ",");
-		final Map<String, String> context = new HashMap<>();
-		while (pairTokenizer.hasMoreTokens()) {
-			final String pairStr = pairTokenizer.nextToken();
-			final String[] keyValuePair = pairStr.split("=");
-			if (keyValuePair.length != 2) {
-				continue;
-			}
-			try {
-				final String key = URLDecoder.decode(keyValuePair[0], ENCODING_CHARSET);
-				final String value = URLDecoder.decode(keyValuePair[1], ENCODING_CHARSET);
-				context.put(key, value);
-			} catch (UnsupportedEncodingException e) {
-				LOGGER.error("Charset not found", e);
-			}
+	private static final char PAIR_SEPARATOR = ',';
+	private static final int STABLE_KEYS = 2;
+	private static final char KEY_VALUE_SEPARATOR = '=';
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+	private static final boolean[] UNRESERVED = new boolean[128];
+
+	/**
+	 * Orders the invocation and session id before all other keys, which are ordered by their natural order.
+	 */
+	private static final Comparator<String> CANONICAL_ORDER = new Comparator<String>() {
+		@Override
+		public int compare(String key1, String key2) {
+			final int rank1 = stableRank(key1);
+			final int rank2 = stableRank(key2);
+			return rank1 != rank2 ? rank1 - rank2 : key1.compareTo(key2);
 		}
+	};
 
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			UNRESERVED[c] = true;
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			UNRESERVED[c] = true;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			UNRESERVED[c] = true;
+		}
+		UNRESERVED['-'] = true;
+		UNRESERVED['_'] = true;
+		UNRESERVED['.'] = true;
+		UNRESERVED['*'] = true;
+	}
+
+	/**
+	 * Parses a single serialized element, e.g. a header value that a HTTP library holds as {@link CharSequence} without
+	 * converting it to a String first.
+	 */
+	public Map<String, String> parse(CharSequence serialized) {
+		final Map<String, String> context = new HashMap<>();
+		parseInto(serialized, new MapPairHandler(context));
 		return context;
 	}
 
 	public Map<String, String> parse(List<String> serializedElements) {
 		final Map<String, String> contextMap = new HashMap<>();
+		parse(serializedElements, new MapPairHandler(contextMap));
+		return contextMap;
+	}
+
+	/**
+	 * Passes every decoded pair of the given serialized elements to the handler, in order of appearance.
+	 */
+	void parse(List<String> serializedElements, PairHandler handler) {
 		for (String serializedElement : serializedElements) {
-			contextMap.putAll(parse(serializedElement));
+			parseInto(serializedElement, handler);
 		}
-
-		return contextMap;
 	}
 
 	public String render(Map<String, String> context) {
 		final StringBuilder sb = new StringBuilder(128);
-		for (Iterator<Map.Entry<String, String>> iterator = context.entrySet().iterator(); iterator.hasNext(); ) {
-			Map.Entry<String, String> entry = iterator.next();
-			try {
-				final String key = URLEncoder.encode(entry.getKey().trim(), ENCODING_CHARSET);
-				final String value = URLEncoder.encode(entry.getValue().trim(), ENCODING_CHARSET);
-				sb.append(key).append('=').append(value);
-				if (iterator.hasNext()) {
-					sb.append(',');
+		render(context, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Appends all entries of the context in canonical order to the header in the given builder.
+	 *
+	 * @param header a builder that contains nothing but the (possibly empty) header, e.g. a reused buffer after {@code setLength(0)}
+	 */
+	public void render(Map<String, String> context, StringBuilder header) {
+		render(context, header, header);
+	}
+
+	/**
+	 * Appends the {@link #sortCanonically(String[], int) stable} entries of the context to {@code stableHeader} and all
+	 * other entries to {@code volatileHeader}, both in canonical order. Passing the same builder twice renders a single header.
+	 *
+	 * @param stableHeader a builder that contains nothing but the (possibly empty) header
+	 * @param volatileHeader a builder that contains nothing but the (possibly empty) header
+	 */
+	public void render(Map<String, String> context, StringBuilder stableHeader, StringBuilder volatileHeader) {
+		if (context.size() == 1) {
+			final Map.Entry<String, String> entry = context.entrySet().iterator().next();
+			appendPair(stableRank(entry.getKey()) < STABLE_KEYS ? stableHeader : volatileHeader, entry.getKey(), entry.getValue());
+			return;
+		}
+		final String[] keys = context.keySet().toArray(new String[context.size()]);
+		final int stableKeys = sortCanonically(keys, keys.length);
+		for (int i = 0; i < keys.length; i++) {
+			appendPair(i < stableKeys ? stableHeader : volatileHeader, keys[i], context.get(keys[i]));
+		}
+	}
+
+	/**
+	 * Sorts the first {@code length} keys into the canonical order of rendered headers: the long-lived
+	 * {@link TraceeConstants#INVOCATION_ID_KEY invocation id} and {@link TraceeConstants#SESSION_ID_KEY session id} first,
+	 * followed by all other keys in their natural order.
+	 *
+	 * @return the number of stable keys, i.e. invocation and session id, at the start of the sorted range
+	 */
+	public static int sortCanonically(String[] keys, int length) {
+		Arrays.sort(keys, 0, length, CANONICAL_ORDER);
+		int stableKeys = 0;
+		while (stableKeys < length && stableRank(keys[stableKeys]) < STABLE_KEYS) {
+			stableKeys++;
+		}
+		return stableKeys;
+	}
+
+	private static int stableRank(String key) {
+		if (TraceeConstants.INVOCATION_ID_KEY.equals(key)) {
+			return 0;
+		}
+		if (TraceeConstants.SESSION_ID_KEY.equals(key)) {
+			return 1;
+		}
+		return STABLE_KEYS;
+	}
+
+	/**
+	 * Appends a single pair to the header in the given builder.
+	 *
+	 * @param header a builder that contains nothing but the (possibly empty) header
+	 */
+	public void appendPair(StringBuilder header, String key, String value) {
+		// every rendered pair contains at least the separator, so a non-empty builder means a preceding pair
+		if (header.length() > 0) {
+			header.append(PAIR_SEPARATOR);
+		}
+		encode(key, header);
+		header.append(KEY_VALUE_SEPARATOR);
+		encode(value, header);
+	}
+
+	private void parseInto(final CharSequence serialized, final PairHandler handler) {
+		int start = 0;
+		int end = serialized.length();
+		while (start < end && serialized.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && serialized.charAt(end - 1) <= ' ') {
+			end--;
+		}
+
+		int pairStart = start;
+		while (pairStart < end) {
+			int pairEnd = indexOf(serialized, PAIR_SEPARATOR, pairStart);
+			if (pairEnd < 0 || pairEnd > end) {
+				pairEnd = end;
+			}
+			parsePair(serialized, pairStart, pairEnd, handler);
+			pairStart = pairEnd + 1;
+		}
+	}
+
+	private static int indexOf(final CharSequence s, final char c, final int from) {
+		if (s instanceof String) {
+			return ((String) s).indexOf(c, from);
+		}
+		for (int i = from; i < s.length(); i++) {
+			if (s.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parses a single {@code key=value} pair. Trailing separators are ignored and pairs without a value or with more
+	 * than one separator are skipped.
+	 */
+	private void parsePair(final CharSequence serialized, final int from, final int to, final PairHandler handler) {
+		int valueEnd = to;
+		while (valueEnd > from && serialized.charAt(valueEnd - 1) == KEY_VALUE_SEPARATOR) {
+			valueEnd--;
+		}
+
+		int separator = -1;
+		for (int i = from; i < valueEnd; i++) {
+			if (serialized.charAt(i) == KEY_VALUE_SEPARATOR) {
+				if (separator >= 0) {
+					return;
 				}
-			} catch (UnsupportedEncodingException e) {
-				LOGGER.error("Charset not found", e);
+				separator = i;
+			}
+		}
+		if (separator < 0) {
+			return;
+		}
+
+		final String key = decode(serialized, from, separator);
+		final String value = decode(serialized, separator + 1, valueEnd);
+		if (key == null || value == null) {
+			LOGGER.debug("Skip TPIC pair with malformed escape sequence");
+			return;
+		}
+		handler.handle(key, value);
+	}
+
+	/**
+	 * Decodes the given range of a {@code application/x-www-form-urlencoded} character sequence.
+	 *
+	 * @return the decoded String or {@code null} if the range contains a malformed escape sequence.
+	 */
+	static String decode(final CharSequence s, final int from, final int to) {
+		int i = from;
+		while (i < to) {
+			final char c = s.charAt(i);
+			if (c == '%' || c == '+') {
+				break;
+			}
+			i++;
+		}
+		if (i == to) {
+			return s.subSequence(from, to).toString();
+		}
+
+		final StringBuilder sb = new StringBuilder(to - from);
+		sb.append(s, from, i);
+		byte[] bytes = null;
+		while (i < to) {
+			final char c = s.charAt(i);
+			if (c == '+') {
+				sb.append(' ');
+				i++;
+			} else if (c == '%') {
+				if (bytes == null) {
+					bytes = new byte[(to - i) / 3];
+				}
+				int length = 0;
+				boolean ascii = true;
+				while (i < to && s.charAt(i) == '%') {
+					if (i + 2 >= to) {
+						return null;
+					}
+					final int high = Character.digit(s.charAt(i + 1), 16);
+					final int low = Character.digit(s.charAt(i + 2), 16);
+					if (high < 0 || low < 0) {
+						return null;
+					}
+					final int b = (high << 4) | low;
+					ascii &= b < 0x80;
+					bytes[length++] = (byte) b;
+					i += 3;
+				}
+				if (ascii) {
+					for (int j = 0; j < length; j++) {
+						sb.append((char) bytes[j]);
+					}
+				} else {
+					sb.append(new String(bytes, 0, length, Utilities.CHARSET_UTF8));
+				}
+			} else {
+				sb.append(c);
+				i++;
 			}
 		}
 		return sb.toString();
 	}
+
+	/**
+	 * Appends the trimmed and {@code application/x-www-form-urlencoded} form of the given String to the builder.
+	 * The result is identical to {@code URLEncoder.encode(s.trim(), "UTF-8")}.
+	 */
+	static void encode(final String s, final StringBuilder sb) {
+		int from = 0;
+		int to = s.length();
+		while (from < to && s.charAt(from) <= ' ') {
+			from++;
+		}
+		while (to > from && s.charAt(to - 1) <= ' ') {
+			to--;
+		}
+
+		int i = from;
+		while (i < to && isUnreserved(s.charAt(i))) {
+			i++;
+		}
+		sb.append(s, from, i);
+
+		while (i < to) {
+			final char c = s.charAt(i);
+			if (isUnreserved(c)) {
+				sb.append(c);
+			} else if (c == ' ') {
+				sb.append('+');
+			} else if (c < 0x80) {
+				appendEscaped(sb, c);
+			} else if (c < 0x800) {
+				appendEscaped(sb, 0xC0 | (c >> 6));
+				appendEscaped(sb, 0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(s.charAt(i + 1))) {
+				final int codePoint = Character.toCodePoint(c, s.charAt(++i));
+				appendEscaped(sb, 0xF0 | (codePoint >> 18));
+				appendEscaped(sb, 0x80 | ((codePoint >> 12) & 0x3F));
+				appendEscaped(sb, 0x80 | ((codePoint >> 6) & 0x3F));
+				appendEscaped(sb, 0x80 | (codePoint & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				// unpaired surrogates are replaced like String#getBytes does
+				appendEscaped(sb, '?');
+			} else {
+				appendEscaped(sb, 0xE0 | (c >> 12));
+				appendEscaped(sb, 0x80 | ((c >> 6) & 0x3F));
+				appendEscaped(sb, 0x80 | (c & 0x3F));
+			}
+			i++;
+		}
+	}
+
+	private static boolean isUnreserved(final char c) {
+		return c < UNRESERVED.length && UNRESERVED[c];
+	}
+
+	private static void appendEscaped(final StringBuilder sb, final int b) {
+		sb.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+	}
+
+	/**
+	 * Receives the decoded pairs of a serialized TPIC.
+	 */
+	interface PairHandler {
+		void handle(String key, String value);
+	}
+
+	private static final class MapPairHandler implements PairHandler {
+		private final Map<String, String> context;
+
+		private MapPairHandler(Map<String, String> context) {
+			this.context = context;
+		}
+
+		@Override
+		public void handle(String key, String value) {
+			context.put(key, value);
+		}
+	}
 }
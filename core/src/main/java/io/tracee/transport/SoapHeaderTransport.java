@@ -1,54 +1,80 @@
 package io.tracee.transport;
 
 import io.tracee.TraceeConstants;
-import io.tracee.transport.jaxb.TpicMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.soap.SOAPHeader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Reads and writes the TPIC SOAP header:
+ * <pre>
+ * &lt;TPIC xmlns="http://tracee.io/tpic/1.0"&gt;
+ *     &lt;entry key="TPIC.invocationId"&gt;ANU0N88T6YASTEVHN9VK0HJ75SXB87ZQ&lt;/entry&gt;
+ * &lt;/TPIC&gt;
+ * </pre>
+ * DOM nodes are read and written directly, all other sources and results are streamed with StAX. Only the direct children
+ * of the given elements are inspected.
+ * <p/>
+ * Instances are stateless and thread-safe. The XML factories are shared by all instances and created on first use;
+ * document builders and transformers are confined to the thread that uses them. Bindings should use the shared
+ * {@link #getInstance() instance}.
+ */
 public class SoapHeaderTransport {
 
-	private static final SOAPHeaderMarshaller SOAP_HEADER_MARSHALLER = new SOAPHeaderMarshaller();
-	private static final ResultMarshaller RESULT_MARSHALLER = new ResultMarshaller();
-	private static final ElementUnmarshaller ELEMENT_UNMARSHALLER = new ElementUnmarshaller();
-	private static final SourceUnmarshaller SOURCE_UNMARSHALLER = new SourceUnmarshaller();
-	private final JAXBContext jaxbContext;
-	private final Logger logger = LoggerFactory.getLogger(SoapHeaderTransport.class);
+	private static final String ENTRY_ELEMENT = "entry";
+	private static final String KEY_ATTRIBUTE = "key";
 
+	private final Logger logger = LoggerFactory.getLogger(SoapHeaderTransport.class);
 
-	public SoapHeaderTransport() {
-		try {
-			jaxbContext = JAXBContext.newInstance(TpicMap.class);
-		} catch (JAXBException e) {
-			throw new RuntimeException(e);
-		}
+	/**
+	 * @return the process-wide instance that is shared by all SOAP bindings
+	 */
+	public static SoapHeaderTransport getInstance() {
+		return SharedInstance.INSTANCE;
 	}
 
 	/**
-	 * Retrieves the first TPIC header element out of the soap header and parse it
+	 * Retrieves all TPIC header elements among the direct children of the soap header and parses them.
 	 *
 	 * @param soapHeader soap header of the message
 	 * @return TPIC context map
 	 */
 	public Map<String, String> parseSoapHeader(final Element soapHeader) {
-		final NodeList tpicHeaders = soapHeader.getElementsByTagNameNS(TraceeConstants.SOAP_HEADER_NAMESPACE, TraceeConstants.TPIC_HEADER);
-		final HashMap<String, String> contextMap = new HashMap<>();
-		if (tpicHeaders != null && tpicHeaders.getLength() > 0) {
-			final int items = tpicHeaders.getLength();
-			for (int i = 0; i < items; i++) {
-				contextMap.putAll(parseTpicHeader((Element) tpicHeaders.item(i)));
+		final Map<String, String> contextMap = new HashMap<>();
+		for (Node child = soapHeader.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (isElement(child, TraceeConstants.TPIC_HEADER)) {
+				parseEntries((Element) child, contextMap);
 			}
 		}
 		return contextMap;
@@ -58,89 +84,275 @@ public class SoapHeaderTransport {
 	 * Parses a context map from a given soap element.
 	 */
 	public Map<String, String> parseTpicHeader(final Element element) {
-		return parseTpicHeader(ELEMENT_UNMARSHALLER, element);
+		final Map<String, String> contextMap = new HashMap<>();
+		if (element != null) {
+			parseEntries(element, contextMap);
+		}
+		return contextMap;
 	}
 
 	public Map<String, String> parseTpicHeader(final Source source) {
-		return parseTpicHeader(SOURCE_UNMARSHALLER, source);
-	}
+		if (source instanceof DOMSource) {
+			final Node node = ((DOMSource) source).getNode();
+			if (node instanceof Document) {
+				return parseTpicHeader(((Document) node).getDocumentElement());
+			} else if (node instanceof Element) {
+				return parseTpicHeader((Element) node);
+			}
+		}
 
-	private <T> Map<String, String> parseTpicHeader(final Unmarshallable<T> unmarshallable, final T xmlContext) {
-		try {
-			if (xmlContext != null) {
-				final Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-				final JAXBElement<TpicMap> unmarshal = unmarshallable.unmarshal(unmarshaller, xmlContext);
-				if (unmarshal != null) {
-					return unmarshal.getValue().unwrapValues();
+		final Map<String, String> contextMap = new HashMap<>();
+		if (source != null) {
+			try {
+				final XMLStreamReader reader;
+				if (source instanceof StAXSource && ((StAXSource) source).getXMLStreamReader() != null) {
+					reader = ((StAXSource) source).getXMLStreamReader();
+				} else {
+					try {
+						reader = XmlFactories.INPUT_FACTORY.createXMLStreamReader(source);
+					} catch (UnsupportedOperationException e) {
+						// e.g. SAXSource: the StAX implementation does not support the source, so we take the detour via DOM
+						final InputSource inputSource = SAXSource.sourceToInputSource(source);
+						if (inputSource != null) {
+							return parseTpicHeader(new DOMSource(XmlFactories.documentBuilder().parse(inputSource)));
+						}
+						final DOMResult result = new DOMResult();
+						XmlFactories.transformer().transform(source, result);
+						return parseTpicHeader(new DOMSource(result.getNode()));
+					}
+				}
+				try {
+					parseEntries(reader, contextMap);
+				} finally {
+					reader.close();
 				}
+			} catch (XMLStreamException | TransformerException | SAXException | IOException | ParserConfigurationException | RuntimeException e) {
+				logger.warn("Unable to parse TPIC header: {}", e.getMessage());
+				logger.debug("WithStack: Unable to parse TPIC header: {}", e.getMessage(), e);
+				return new HashMap<>();
 			}
-		} catch (JAXBException e) {
-			logger.warn("Unable to parse TPIC header: {}", e.getMessage());
-			logger.debug("WithStack: Unable to parse TPIC header: {}", e.getMessage(), e);
 		}
-		return new HashMap<>();
+		return contextMap;
 	}
 
-	private interface Unmarshallable<T> {
-		JAXBElement<TpicMap> unmarshal(Unmarshaller unmarshaller, T xmlContext) throws JAXBException;
+	private void parseEntries(final Element tpicHeader, final Map<String, String> contextMap) {
+		for (Node child = tpicHeader.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (isElement(child, ENTRY_ELEMENT)) {
+				final Element entry = (Element) child;
+				if (entry.hasAttribute(KEY_ATTRIBUTE)) {
+					contextMap.put(entry.getAttribute(KEY_ATTRIBUTE), entry.getTextContent());
+				}
+			}
+		}
 	}
 
-	private static class SourceUnmarshaller implements Unmarshallable<Source> {
-		@Override
-		public JAXBElement<TpicMap> unmarshal(final Unmarshaller unmarshaller, final Source source) throws JAXBException {
-			return unmarshaller.unmarshal(source, TpicMap.class);
+	/**
+	 * Reads the entries among the direct children of the root element of the reader.
+	 */
+	private void parseEntries(final XMLStreamReader reader, final Map<String, String> contextMap) throws XMLStreamException {
+		// readers of a StAXSource may already be positioned at the root element
+		int depth = reader.getEventType() == XMLStreamConstants.START_ELEMENT ? 1 : 0;
+		while (reader.hasNext()) {
+			final int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+				if (depth == 2 && ENTRY_ELEMENT.equals(reader.getLocalName())
+					&& TraceeConstants.SOAP_HEADER_NAMESPACE.equals(reader.getNamespaceURI())) {
+					final String key = reader.getAttributeValue(null, KEY_ATTRIBUTE);
+					final String value = reader.getElementText();
+					depth--;
+					if (key != null) {
+						contextMap.put(key, value);
+					}
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+				if (depth == 0) {
+					return;
+				}
+			}
 		}
 	}
 
-	private static class ElementUnmarshaller implements Unmarshallable<Element> {
-		@Override
-		public JAXBElement<TpicMap> unmarshal(final Unmarshaller unmarshaller, final Element element) throws JAXBException {
-			return unmarshaller.unmarshal(element, TpicMap.class);
-		}
+	private static boolean isElement(final Node node, final String localName) {
+		return node.getNodeType() == Node.ELEMENT_NODE && localName.equals(node.getLocalName())
+			&& TraceeConstants.SOAP_HEADER_NAMESPACE.equals(node.getNamespaceURI());
 	}
 
 	/**
 	 * Renders a given context map into a given soapHeader.
 	 */
 	public void renderSoapHeader(final Map<String, String> context, final SOAPHeader soapHeader) {
-		renderSoapHeader(SOAP_HEADER_MARSHALLER, context, soapHeader);
+		try {
+			soapHeader.appendChild(createTpicHeader(context, soapHeader.getOwnerDocument()));
+		} catch (RuntimeException e) {
+			logger.warn("Unable to render TPIC header: {}", e.getMessage());
+			logger.debug("WithStack: Unable to render TPIC header: {}", e.getMessage(), e);
+		}
 	}
 
 	/**
 	 * Renders a given context map into a given result that should be the TPIC header node.
 	 */
 	public void renderSoapHeader(final Map<String, String> context, final Result result) {
-		renderSoapHeader(RESULT_MARSHALLER, context, result);
-	}
-
-	/**
-	 * Renders a given context map into a given result that should be the TPIC header node.
-	 */
-	private <T> void renderSoapHeader(final Marshallable<T> marshallable, final Map<String, String> context, T xmlContext) {
 		try {
-			final Marshaller marshaller = jaxbContext.createMarshaller();
-			marshallable.marshal(marshaller, TpicMap.wrap(context), xmlContext);
-		} catch (JAXBException e) {
+			if (result instanceof DOMResult) {
+				renderSoapHeader(context, (DOMResult) result);
+			} else if (result instanceof StreamResult) {
+				final XMLStreamWriter writer = XmlFactories.OUTPUT_FACTORY.createXMLStreamWriter(result);
+				try {
+					renderSoapHeader(context, writer);
+				} finally {
+					writer.close();
+				}
+			} else {
+				// e.g. SAXResult: not supported by all StAX implementations
+				final Document document = newDocument();
+				document.appendChild(createTpicHeader(context, document));
+				XmlFactories.transformer().transform(new DOMSource(document), result);
+			}
+		} catch (XMLStreamException | TransformerException | ParserConfigurationException | RuntimeException e) {
 			logger.warn("Unable to render TPIC header: {}", e.getMessage());
 			logger.debug("WithStack: Unable to render TPIC header: {}", e.getMessage(), e);
 		}
 	}
 
-	private interface Marshallable<T> {
-		void marshal(Marshaller marshaller, TpicMap tpic, T xmlContext) throws JAXBException;
+	private void renderSoapHeader(final Map<String, String> context, final DOMResult result) throws ParserConfigurationException {
+		Node parent = result.getNode();
+		if (parent == null) {
+			parent = newDocument();
+			result.setNode(parent);
+		}
+		final Document document = parent instanceof Document ? (Document) parent : parent.getOwnerDocument();
+		final Element tpicHeader = createTpicHeader(context, document);
+		if (result.getNextSibling() != null) {
+			parent.insertBefore(tpicHeader, result.getNextSibling());
+		} else {
+			parent.appendChild(tpicHeader);
+		}
+	}
+
+	private void renderSoapHeader(final Map<String, String> context, final XMLStreamWriter writer) throws XMLStreamException {
+		writer.setDefaultNamespace(TraceeConstants.SOAP_HEADER_NAMESPACE);
+		writer.writeStartElement(TraceeConstants.SOAP_HEADER_NAMESPACE, TraceeConstants.TPIC_HEADER);
+		writer.writeDefaultNamespace(TraceeConstants.SOAP_HEADER_NAMESPACE);
+		for (Map.Entry<String, String> entry : context.entrySet()) {
+			writer.writeStartElement(TraceeConstants.SOAP_HEADER_NAMESPACE, ENTRY_ELEMENT);
+			writer.writeAttribute(KEY_ATTRIBUTE, entry.getKey());
+			writer.writeCharacters(entry.getValue());
+			writer.writeEndElement();
+		}
+		writer.writeEndElement();
+		writer.flush();
 	}
 
-	private static class ResultMarshaller implements Marshallable<Result> {
-		@Override
-		public void marshal(final Marshaller marshaller, final TpicMap tpic, final Result result) throws JAXBException {
-			marshaller.marshal(tpic, result);
+	private Element createTpicHeader(final Map<String, String> context, final Document document) {
+		final Element tpicHeader = document.createElementNS(TraceeConstants.SOAP_HEADER_NAMESPACE, TraceeConstants.TPIC_HEADER);
+		tpicHeader.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE, TraceeConstants.SOAP_HEADER_NAMESPACE);
+		for (Map.Entry<String, String> entry : context.entrySet()) {
+			final Element entryElement = document.createElementNS(TraceeConstants.SOAP_HEADER_NAMESPACE, ENTRY_ELEMENT);
+			entryElement.setAttributeNS(null, KEY_ATTRIBUTE, entry.getKey());
+			entryElement.appendChild(document.createTextNode(entry.getValue()));
+			tpicHeader.appendChild(entryElement);
 		}
+		return tpicHeader;
+	}
+
+	private static Document newDocument() throws ParserConfigurationException {
+		return XmlFactories.documentBuilder().newDocument();
 	}
 
-	private static class SOAPHeaderMarshaller implements Marshallable<SOAPHeader> {
-		@Override
-		public void marshal(final Marshaller marshaller, final TpicMap tpic, final SOAPHeader soapHeader) throws JAXBException {
-			marshaller.marshal(tpic, soapHeader);
+	private static final class SharedInstance {
+		private static final SoapHeaderTransport INSTANCE = new SoapHeaderTransport();
+	}
+
+	/**
+	 * Holds the XML factories, which are initialized when the first header is parsed or rendered. Factories are thread-safe
+	 * once configured; document builders and transformers are not and are therefore kept per thread.
+	 * <p/>
+	 * Headers come from untrusted peers, so all factories reject DTDs and access to external entities and stylesheets.
+	 */
+	private static final class XmlFactories {
+		private static final String DISALLOW_DOCTYPE_DECL = "http://apache.org/xml/features/disallow-doctype-decl";
+		private static final XMLInputFactory INPUT_FACTORY = createXmlInputFactory();
+		private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+		private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createDocumentBuilderFactory();
+		private static final TransformerFactory TRANSFORMER_FACTORY = createTransformerFactory();
+
+		private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<>();
+		private static final ThreadLocal<Transformer> TRANSFORMER = new ThreadLocal<>();
+
+		private static XMLInputFactory createXmlInputFactory() {
+			final XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			return factory;
+		}
+
+		private static DocumentBuilderFactory createDocumentBuilderFactory() {
+			final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(true);
+			factory.setExpandEntityReferences(false);
+			factory.setXIncludeAware(false);
+			try {
+				factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+				factory.setFeature(DISALLOW_DOCTYPE_DECL, true);
+			} catch (ParserConfigurationException e) {
+				throw new IllegalStateException("XML parser does not support secure processing", e);
+			}
+			setAttributeIfSupported(factory, XMLConstants.ACCESS_EXTERNAL_DTD);
+			setAttributeIfSupported(factory, XMLConstants.ACCESS_EXTERNAL_SCHEMA);
+			return factory;
+		}
+
+		private static TransformerFactory createTransformerFactory() {
+			final TransformerFactory factory = TransformerFactory.newInstance();
+			try {
+				factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			} catch (TransformerConfigurationException e) {
+				throw new IllegalStateException("XML transformer does not support secure processing", e);
+			}
+			try {
+				factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+				factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+			} catch (IllegalArgumentException ignored) {
+				// pre JAXP 1.5 implementation; secure processing already denies external access
+			}
+			return factory;
+		}
+
+		private static void setAttributeIfSupported(final DocumentBuilderFactory factory, final String name) {
+			try {
+				factory.setAttribute(name, "");
+			} catch (IllegalArgumentException ignored) {
+				// pre JAXP 1.5 implementation; DOCTYPE declarations are disallowed anyway
+			}
+		}
+
+		private static DocumentBuilder documentBuilder() throws ParserConfigurationException {
+			DocumentBuilder documentBuilder = DOCUMENT_BUILDER.get();
+			if (documentBuilder == null) {
+				synchronized (DOCUMENT_BUILDER_FACTORY) {
+					documentBuilder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+				}
+				// report malformed headers by exceptions only instead of printing them to stderr
+				documentBuilder.setErrorHandler(new DefaultHandler());
+				DOCUMENT_BUILDER.set(documentBuilder);
+			}
+			return documentBuilder;
+		}
+
+		private static Transformer transformer() throws TransformerConfigurationException {
+			Transformer transformer = TRANSFORMER.get();
+			if (transformer == null) {
+				synchronized (TRANSFORMER_FACTORY) {
+					transformer = TRANSFORMER_FACTORY.newTransformer();
+				}
+				TRANSFORMER.set(transformer);
+			} else {
+				transformer.reset();
+			}
+			return transformer;
 		}
 	}
 }
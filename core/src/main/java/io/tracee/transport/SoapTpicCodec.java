@@ -0,0 +1,55 @@
+package io.tracee.transport;
+
+import io.tracee.Utilities;
+import io.tracee.spi.TpicCodec;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * The TPIC element of {@link SoapHeaderTransport}, serialized as UTF-8 encoded XML.
+ */
+public final class SoapTpicCodec implements TpicCodec {
+
+	public static final String NAME = "soap";
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public boolean canDecode(final byte[] serialized) {
+		for (byte b : serialized) {
+			if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+				return b == '<';
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public byte[] encode(final Map<String, String> context) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(64 + context.size() * 64);
+		// the StAX writer would choose the encoding of an OutputStream on its own
+		final Writer writer = new OutputStreamWriter(out, Utilities.CHARSET_UTF8);
+		SoapHeaderTransport.getInstance().renderSoapHeader(context, new StreamResult(writer));
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to flush in-memory writer", e);
+		}
+		return out.toByteArray();
+	}
+
+	@Override
+	public Map<String, String> decode(final byte[] serialized) {
+		return SoapHeaderTransport.getInstance().parseTpicHeader(new StreamSource(new ByteArrayInputStream(serialized)));
+	}
+}
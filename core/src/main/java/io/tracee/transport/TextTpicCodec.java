@@ -0,0 +1,43 @@
+package io.tracee.transport;
+
+import io.tracee.Utilities;
+import io.tracee.spi.TpicCodec;
+
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ * The text form of {@link HttpHeaderTransport}. It is the default of the HTTP and JMS bindings.
+ */
+public final class TextTpicCodec implements TpicCodec {
+
+	public static final String NAME = "text";
+
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+	private final HttpHeaderTransport transport = new HttpHeaderTransport();
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	/**
+	 * The text form is the fallback of {@link TpicCodecs#detect(byte[]) detection}: senders do not always url encode every
+	 * char, so it takes everything that does not start like the binary or SOAP form.
+	 */
+	@Override
+	public boolean canDecode(final byte[] serialized) {
+		return serialized.length == 0 || serialized[0] != BinaryHeaderTransport.FORMAT_MARKER && serialized[0] != '<';
+	}
+
+	@Override
+	public byte[] encode(final Map<String, String> context) {
+		return transport.render(context).getBytes(US_ASCII);
+	}
+
+	@Override
+	public Map<String, String> decode(final byte[] serialized) {
+		return transport.parse(new String(serialized, Utilities.CHARSET_UTF8));
+	}
+}
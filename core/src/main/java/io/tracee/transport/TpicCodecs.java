@@ -0,0 +1,138 @@
+package io.tracee.transport;
+
+import io.tracee.configuration.TpicEncodingConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.spi.TpicCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the available {@link TpicCodec codecs}: the builtin {@link TextTpicCodec text}, {@link BinaryTpicCodec binary}
+ * and {@link SoapTpicCodec SOAP} codecs and all codecs that are registered as {@code META-INF/services/io.tracee.spi.TpicCodec}.
+ * <p/>
+ * The services are loaded once, with the class loader of this registry, so the codecs do not depend on the thread that happens
+ * to use the registry first. Bindings resolve their codec when they are constructed and decode with {@link #decode(byte[])},
+ * which detects the codec of the input, so receivers understand every known format regardless of the codec their senders
+ * are configured with.
+ */
+public final class TpicCodecs {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TpicCodecs.class);
+
+	private TpicCodecs() {
+		// hide constructor
+	}
+
+	/**
+	 * @return the codec with the given name or {@code null} if there is none
+	 */
+	public static TpicCodec forName(final String name) {
+		return Registry.INSTANCE.codecs.get(name);
+	}
+
+	/**
+	 * Resolves the codec that is configured for the profile of the given configuration, if it is a
+	 * {@link TpicEncodingConfiguration}.
+	 *
+	 * @return the configured codec or {@code null} if none is configured or the configured codec is unknown
+	 */
+	public static TpicCodec forConfiguration(final TraceeFilterConfiguration configuration) {
+		final String codecName = configuration instanceof TpicEncodingConfiguration
+			? ((TpicEncodingConfiguration) configuration).codecName() : null;
+		if (codecName == null) {
+			return null;
+		}
+		final TpicCodec codec = forName(codecName);
+		if (codec == null) {
+			LOGGER.warn("Unknown TPIC codec '{}' is configured, use default of the binding instead", codecName);
+		}
+		return codec;
+	}
+
+	/**
+	 * Detects the codec by the first byte: the marker of the {@link BinaryTpicCodec binary form}, {@code '<'} of the
+	 * {@link SoapTpicCodec SOAP form} or the signature of a codec that is registered as service. Everything else is read as
+	 * {@link TextTpicCodec text form}, without looking at the remaining bytes.
+	 *
+	 * @return the codec to decode the given bytes with
+	 */
+	public static TpicCodec detect(final byte[] serialized) {
+		final Registry registry = Registry.INSTANCE;
+		if (serialized.length > 0) {
+			if (serialized[0] == BinaryHeaderTransport.FORMAT_MARKER) {
+				return registry.binaryCodec;
+			} else if (serialized[0] == '<') {
+				return registry.soapCodec;
+			}
+		}
+		for (TpicCodec codec : registry.services) {
+			if (codec.canDecode(serialized)) {
+				return codec;
+			}
+		}
+		return registry.textCodec;
+	}
+
+	/**
+	 * Decodes the given bytes with the codec that is {@link #detect(byte[]) detected}.
+	 *
+	 * @return the decoded TPIC
+	 */
+	public static Map<String, String> decode(final byte[] serialized) {
+		return detect(serialized).decode(serialized);
+	}
+
+	/**
+	 * Holds the builtin codecs and the codecs that are registered as service, which are asked in order of registration.
+	 */
+	private static final class Registry {
+		private static final Registry INSTANCE = new Registry();
+
+		private final TpicCodec binaryCodec = new BinaryTpicCodec();
+		private final TpicCodec soapCodec = new SoapTpicCodec();
+		private final TpicCodec textCodec = new TextTpicCodec();
+		private final Map<String, TpicCodec> codecs;
+		private final List<TpicCodec> services;
+
+		private Registry() {
+			final Map<String, TpicCodec> registered = new LinkedHashMap<>();
+			for (TpicCodec builtin : new TpicCodec[]{binaryCodec, soapCodec, textCodec}) {
+				registered.put(builtin.getName(), builtin);
+			}
+			final List<TpicCodec> accepted = new ArrayList<>();
+			for (TpicCodec codec : loadServices()) {
+				if (registered.containsKey(codec.getName())) {
+					LOGGER.warn("Ignore TPIC codec {} because its name '{}' is already taken", codec.getClass().getName(), codec.getName());
+				} else {
+					registered.put(codec.getName(), codec);
+					accepted.add(codec);
+				}
+			}
+			codecs = Collections.unmodifiableMap(registered);
+			services = Collections.unmodifiableList(accepted);
+		}
+
+		private static List<TpicCodec> loadServices() {
+			final List<TpicCodec> services = new ArrayList<>();
+			final Iterator<TpicCodec> iterator = ServiceLoader.load(TpicCodec.class, TpicCodecs.class.getClassLoader()).iterator();
+			while (iterator.hasNext()) {
+				try {
+					services.add(iterator.next());
+				} catch (ServiceConfigurationError e) {
+					// ignore codecs that are not class loader compatible with our API, like the backend providers do
+					LOGGER.debug("Unable to load TPIC codec: {}", e.getMessage());
+				}
+			}
+			return services;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package io.tracee.transport;
+
+import io.tracee.BackendBase;
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.configuration.TpicEncodingConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration.Channel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shortcuts for bindings that propagate the TPIC of a {@link TraceeBackend}.
+ * <p/>
+ * Backends based on {@link BackendBase} are handled by their optimized implementations, all other backends by the
+ * generic combination of {@link TraceeBackend#copyToMap()}, {@link TraceeFilterConfiguration#filterDeniedParams} and
+ * the given transport.
+ */
+public final class TpicPropagation {
+
+	private TpicPropagation() {
+		// hide constructor
+	}
+
+	/**
+	 * Renders the context of the backend, filtered by the given configuration for the given channel, as TPIC header.
+	 *
+	 * @param configuration the configuration of the binding, obtained from the given backend
+	 */
+	public static String render(final TraceeBackend backend, final TraceeFilterConfiguration configuration, final Channel channel,
+								final HttpHeaderTransport transport) {
+		if (backend instanceof BackendBase) {
+			return ((BackendBase) backend).renderContext(configuration, channel, transport);
+		}
+		return transport.render(configuration.filterDeniedParams(backend.copyToMap(), channel));
+	}
+
+	/**
+	 * Renders the context of the backend, filtered by the given configuration for the given channel, into the given builder.
+	 * {@link BackendBase Backends} encode their live context directly into the builder without copying it.
+	 *
+	 * @param configuration the configuration of the binding, obtained from the given backend
+	 * @param header a builder that contains nothing but the (possibly empty) header, e.g. a reused buffer
+	 */
+	public static void render(final TraceeBackend backend, final TraceeFilterConfiguration configuration, final Channel channel,
+							  final HttpHeaderTransport transport, final StringBuilder header) {
+		if (backend instanceof BackendBase) {
+			((BackendBase) backend).renderContext(configuration, channel, transport, header);
+		} else {
+			transport.render(configuration.filterDeniedParams(backend.copyToMap(), channel), header);
+		}
+	}
+
+	/**
+	 * Renders the context of the backend, filtered by the given configuration for the given channel, as values of TPIC
+	 * header fields. If the configuration {@link #shouldSplitStableKeys splits stable keys},
+	 * the long-lived invocation and session id are rendered into their own field, which HTTP/2 header compression indexes
+	 * across requests, and the remaining parameters into a second field. Bindings add every value as separate header field.
+	 *
+	 * @param configuration the configuration of the binding, obtained from the given backend
+	 * @return the values of the header fields, empty if nothing is to be propagated
+	 */
+	public static List<String> renderFields(final TraceeBackend backend, final TraceeFilterConfiguration configuration,
+											final Channel channel, final HttpHeaderTransport transport) {
+		if (backend instanceof BackendBase) {
+			return ((BackendBase) backend).renderContextFields(configuration, channel, transport);
+		}
+		final StringBuilder stableHeader = new StringBuilder(128);
+		final StringBuilder volatileHeader = shouldSplitStableKeys(configuration) ? new StringBuilder(128) : stableHeader;
+		transport.render(configuration.filterDeniedParams(backend.copyToMap(), channel), stableHeader, volatileHeader);
+		final List<String> fields = new ArrayList<>(2);
+		if (stableHeader.length() > 0) {
+			fields.add(stableHeader.toString());
+		}
+		if (volatileHeader != stableHeader && volatileHeader.length() > 0) {
+			fields.add(volatileHeader.toString());
+		}
+		return fields;
+	}
+
+	/**
+	 * Writes the given values of TPIC header fields: the first replaces an existing TPIC header, the others are added.
+	 *
+	 * @param fields the values of the header fields, see {@link #renderFields}
+	 */
+	public static void writeFields(final List<String> fields, final HeaderWriter writer) {
+		for (int i = 0; i < fields.size(); i++) {
+			if (i == 0) {
+				writer.setHeader(TraceeConstants.TPIC_HEADER, fields.get(i));
+			} else {
+				writer.addHeader(TraceeConstants.TPIC_HEADER, fields.get(i));
+			}
+		}
+	}
+
+	/**
+	 * @return {@code true} if the configuration is a {@link TpicEncodingConfiguration} that
+	 * {@link TpicEncodingConfiguration#shouldSplitStableKeys() splits stable keys}
+	 */
+	public static boolean shouldSplitStableKeys(final TraceeFilterConfiguration configuration) {
+		return configuration instanceof TpicEncodingConfiguration && ((TpicEncodingConfiguration) configuration).shouldSplitStableKeys();
+	}
+
+	/**
+	 * Parses the given serialized TPIC headers and puts all pairs that are allowed on the given channel into the backend.
+	 * For {@link BackendBase backends} the decoded pairs are filtered and put one by one without any intermediate map.
+	 *
+	 * @param configuration the configuration of the binding, obtained from the given backend
+	 */
+	public static void ingest(final TraceeBackend backend, final TraceeFilterConfiguration configuration, final Channel channel,
+							  final HttpHeaderTransport transport, final List<String> serializedHeaders) {
+		if (backend instanceof BackendBase) {
+			transport.parse(serializedHeaders, new FilteringPairHandler(backend, configuration, channel));
+		} else {
+			backend.putAll(configuration.filterDeniedParams(transport.parse(serializedHeaders), channel));
+		}
+	}
+
+	/**
+	 * Puts all entries of the given, already parsed context that are allowed on the given channel into the backend.
+	 *
+	 * @param configuration the configuration of the binding, obtained from the given backend
+	 */
+	public static void ingest(final TraceeBackend backend, final TraceeFilterConfiguration configuration, final Channel channel,
+							  final Map<String, String> context) {
+		if (backend instanceof BackendBase) {
+			for (Map.Entry<String, String> entry : context.entrySet()) {
+				if (configuration.shouldProcessParam(entry.getKey(), channel)) {
+					backend.put(entry.getKey(), entry.getValue());
+				}
+			}
+		} else {
+			backend.putAll(configuration.filterDeniedParams(context, channel));
+		}
+	}
+
+	/**
+	 * Adapts the headers of a request or response of a binding for {@link #writeFields}.
+	 */
+	public interface HeaderWriter {
+
+		void setHeader(String name, String value);
+
+		void addHeader(String name, String value);
+	}
+
+	private static final class FilteringPairHandler implements HttpHeaderTransport.PairHandler {
+		private final TraceeBackend backend;
+		private final TraceeFilterConfiguration configuration;
+		private final Channel channel;
+
+		private FilteringPairHandler(TraceeBackend backend, TraceeFilterConfiguration configuration, Channel channel) {
+			this.backend = backend;
+			this.configuration = configuration;
+			this.channel = channel;
+		}
+
+		@Override
+		public void handle(String key, String value) {
+			if (configuration.shouldProcessParam(key, channel)) {
+				backend.put(key, value);
+			}
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package io.tracee;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PersistentContextMapTest {
+
+	@Test
+	public void withShouldLeaveOriginalUntouched() {
+		final PersistentContextMap original = PersistentContextMap.EMPTY.with("a", "vA");
+		final PersistentContextMap modified = original.with("b", "vB").with("a", "vA2");
+
+		assertThat(original, is((Map<String, String>) Collections.singletonMap("a", "vA")));
+		assertThat(modified.size(), is(2));
+		assertThat(modified.get("a"), is("vA2"));
+		assertThat(modified.get("b"), is("vB"));
+	}
+
+	@Test
+	public void withShouldReturnSameInstanceIfPairIsAlreadyContained() {
+		final PersistentContextMap map = PersistentContextMap.EMPTY.with("a", "vA");
+		assertThat(map.with("a", "vA"), is(sameInstance(map)));
+	}
+
+	@Test
+	public void withoutShouldRemovePairFromCopy() {
+		final PersistentContextMap map = PersistentContextMap.EMPTY.with("a", "vA").with("b", "vB").with("c", "vC");
+		final PersistentContextMap reduced = map.without("b");
+
+		assertThat(map.size(), is(3));
+		assertThat(reduced.size(), is(2));
+		assertThat(reduced.containsKey("b"), is(false));
+		assertThat(reduced.get("c"), is("vC"));
+		assertThat(reduced.without("unknown"), is(sameInstance(reduced)));
+		assertThat(reduced.without("a").without("c"), is(sameInstance(PersistentContextMap.EMPTY)));
+	}
+
+	@Test
+	public void copyOfShouldEqualSourceMap() {
+		final Map<String, String> source = new HashMap<>();
+		source.put("a", "vA");
+		source.put("b", "vB");
+		final PersistentContextMap copy = PersistentContextMap.copyOf(source);
+
+		assertThat(copy, is(source));
+		assertThat(copy.hashCode(), is(source.hashCode()));
+		assertThat(PersistentContextMap.copyOf(copy), is(sameInstance(copy)));
+		assertThat(copy.get("unknown"), is(nullValue()));
+		assertThat(copy.get(null), is(nullValue()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void withShouldRejectNullValues() {
+		PersistentContextMap.EMPTY.with("a", null);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void putShouldNotBeSupported() {
+		PersistentContextMap.EMPTY.put("a", "vA");
+	}
+
+	@Test
+	public void shouldBeSerializable() throws Exception {
+		final PersistentContextMap map = PersistentContextMap.EMPTY.with("a", "vA");
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(map);
+			out.writeObject(PersistentContextMap.EMPTY);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertThat(in.readObject(), is((Object) map));
+			assertThat(in.readObject(), is(sameInstance((Object) PersistentContextMap.EMPTY)));
+		}
+	}
+}
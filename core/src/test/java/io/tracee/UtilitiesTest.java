@@ -122,4 +122,28 @@ public class UtilitiesTest {
 		assertThat(backend.get(SESSION_ID_KEY), equalTo(Utilities.createAlphanumericHash("123",
 			PermitAllTraceeFilterConfiguration.ARBITRARY_NUMBER)));
 	}
+
+	@Test
+	public void base64ShouldEncodeAndDecodeTestVectorsOfRfc4648() {
+		final String[] plain = {"", "f", "fo", "foo", "foob", "fooba", "foobar"};
+		final String[] encoded = {"", "Zg==", "Zm8=", "Zm9v", "Zm9vYg==", "Zm9vYmE=", "Zm9vYmFy"};
+		for (int i = 0; i < plain.length; i++) {
+			assertThat(Utilities.encodeBase64(plain[i].getBytes(Utilities.CHARSET_UTF8)), is(encoded[i]));
+			assertThat(new String(Utilities.decodeBase64(encoded[i]), Utilities.CHARSET_UTF8), is(plain[i]));
+		}
+	}
+
+	@Test
+	public void base64ShouldRoundtripAllByteValues() {
+		final byte[] bytes = new byte[256];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+		assertThat(Utilities.decodeBase64(Utilities.encodeBase64(bytes)), is(bytes));
+	}
+
+	@Test
+	public void base64DecodingShouldSkipCharactersOutsideOfTheAlphabet() {
+		assertThat(new String(Utilities.decodeBase64("Zm9v\r\nYmFy\u00e4"), Utilities.CHARSET_UTF8), is("foobar"));
+	}
 }
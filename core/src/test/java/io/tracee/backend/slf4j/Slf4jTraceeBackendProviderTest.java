@@ -2,6 +2,9 @@ package io.tracee.backend.slf4j;
 
 import org.junit.Test;
 
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
 
@@ -13,4 +16,11 @@ public class Slf4jTraceeBackendProviderTest {
 	public void testProvideBackend() {
 		assertThat(unit.provideBackend(), notNullValue());
 	}
+
+	@Test
+	public void traceeKeysShouldOnlyBeInheritableIfRequested() {
+		assertThat(Slf4jTraceeBackendProvider.createTraceeKeys(true), is(instanceOf(InheritableThreadLocal.class)));
+		assertThat(Slf4jTraceeBackendProvider.createTraceeKeys(false), is(not(instanceOf(InheritableThreadLocal.class))));
+		assertThat(Slf4jTraceeBackendProvider.createTraceeKeys(false).get().isEmpty(), is(true));
+	}
 }
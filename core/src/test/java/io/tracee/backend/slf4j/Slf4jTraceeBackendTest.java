@@ -1,15 +1,19 @@
 package io.tracee.backend.slf4j;
 
 import io.tracee.ThreadLocalHashSet;
+import io.tracee.transport.HttpHeaderTransport;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.MDC;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingResponse;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class Slf4jTraceeBackendTest {
@@ -98,4 +102,63 @@ public class Slf4jTraceeBackendTest {
 		assertThat(OUT.get("a"), is(nullValue()));
 	}
 
+	@Test
+	public void renderedContextShouldBeReusedUntilContextIsModified() {
+		final HttpHeaderTransport transport = new HttpHeaderTransport();
+		OUT.clear();
+		OUT.put("a", "ab");
+		final String rendered = OUT.renderContext(OUT.getConfiguration(), OutgoingResponse, transport);
+		assertThat(rendered, is("a=ab"));
+		assertThat(OUT.renderContext(OUT.getConfiguration(), OutgoingResponse, transport), is(sameInstance(rendered)));
+
+		OUT.remove("a");
+		assertThat(OUT.renderContext(OUT.getConfiguration(), OutgoingResponse, transport), is(""));
+	}
+
+	@Test
+	public void renderedContextShouldBeRenderedAgainAfterReloadOfConfiguration() {
+		final HttpHeaderTransport transport = new HttpHeaderTransport();
+		final String property = "tracee.profile.ReloadTest." + OutgoingResponse.name();
+		System.setProperty(property, "a");
+		try {
+			OUT.clear();
+			OUT.put("a", "ab");
+			OUT.put("b", "bc");
+			assertThat(OUT.renderContext(OUT.getConfiguration("ReloadTest"), OutgoingResponse, transport), is("a=ab"));
+
+			System.setProperty(property, "a,b");
+			assertThat(OUT.renderContext(OUT.getConfiguration("ReloadTest"), OutgoingResponse, transport), is("a=ab"));
+			OUT.reloadConfiguration();
+			assertThat(OUT.renderContext(OUT.getConfiguration("ReloadTest"), OutgoingResponse, transport), is("a=ab,b=bc"));
+		} finally {
+			System.clearProperty(property);
+			OUT.clear();
+		}
+	}
+
+	@Test
+	public void snapshotShouldBeReusedUntilContextIsModified() {
+		OUT.put("a", "vA");
+		final Map<String, String> snapshot = OUT.snapshot();
+		assertThat(snapshot, is(Collections.singletonMap("a", "vA")));
+		assertThat(OUT.snapshot(), is(sameInstance(snapshot)));
+
+		OUT.put("b", "vB");
+		assertThat(OUT.snapshot().size(), is(2));
+		assertThat(snapshot.size(), is(1));
+	}
+
+	@Test
+	public void restoreShouldReplaceContextAndMdcEntries() {
+		OUT.put("a", "vA");
+		final Map<String, String> snapshot = OUT.snapshot();
+		OUT.clear();
+		OUT.put("b", "vB");
+
+		OUT.restore(snapshot);
+		assertThat(OUT.copyToMap(), is(snapshot));
+		assertThat(MDC.get("a"), is("vA"));
+		assertThat(MDC.get("b"), is(nullValue()));
+		assertThat(OUT.snapshot(), is(sameInstance(snapshot)));
+	}
 }
@@ -0,0 +1,219 @@
+package io.tracee.concurrent;
+
+import io.tracee.BackendBase;
+import io.tracee.ContextSnapshots;
+import io.tracee.TraceeBackend;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class TraceeExecutorsTest {
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	// the thread is started before the context is set up, so it does not inherit it
+	private final ExecutorService pool = prestartedPool();
+
+	@Before
+	public void before() {
+		backend.put("key1", "value1");
+	}
+
+	@After
+	public void after() {
+		backend.clear();
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void submittedTaskShouldRunWithContextOfSubmitter() throws Exception {
+		final ExecutorService unit = TraceeExecutors.executorService(pool, backend);
+		assertThat(unit.submit(copyContext()).get(), is(Collections.singletonMap("key1", "value1")));
+	}
+
+	@Test
+	public void poolThreadShouldBeClearedAfterTask() throws Exception {
+		final ExecutorService unit = TraceeExecutors.executorService(pool, backend);
+		unit.submit(copyContext()).get();
+		assertThat(pool.submit(copyContext()).get().isEmpty(), is(true));
+	}
+
+	@Test
+	public void contextChangesAfterSubmissionShouldNotAffectTask() throws Exception {
+		final Callable<Map<String, String>> task = TraceeExecutors.wrap(backend, copyContext());
+		backend.put("key2", "value2");
+		assertThat(pool.submit(task).get(), is(Collections.singletonMap("key1", "value1")));
+	}
+
+	@Test
+	public void taskRunInSubmittingThreadShouldRestoreItsContext() {
+		backend.put("key2", "value2");
+		final Runnable task = TraceeExecutors.wrap(backend, new Runnable() {
+			@Override
+			public void run() {
+				backend.remove("key1");
+			}
+		});
+		backend.remove("key2");
+		task.run();
+		assertThat(backend.copyToMap(), is(Collections.singletonMap("key1", "value1")));
+	}
+
+	@Test
+	public void invokeAllShouldShareOneSnapshot() throws Exception {
+		final ExecutorService unit = TraceeExecutors.executorService(pool, backend);
+		final List<Callable<Map<String, String>>> tasks = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			tasks.add(new Callable<Map<String, String>>() {
+				@Override
+				public Map<String, String> call() {
+					return ((BackendBase) backend).snapshot();
+				}
+			});
+		}
+		final List<Future<Map<String, String>>> results = unit.invokeAll(tasks);
+		final Map<String, String> first = results.get(0).get();
+		assertThat(first, is(Collections.singletonMap("key1", "value1")));
+		for (Future<Map<String, String>> result : results) {
+			assertThat(result.get(), is(sameInstance(first)));
+		}
+	}
+
+	@Test
+	public void scheduledTaskShouldRunWithContextOfScheduler() throws Exception {
+		final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		try {
+			final ScheduledExecutorService unit = TraceeExecutors.scheduledExecutorService(scheduler, backend);
+			assertThat(unit.schedule(copyContext(), 1, TimeUnit.MILLISECONDS).get(), is(Collections.singletonMap("key1", "value1")));
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void executorAndThreadFactoryShouldPropagateContext() throws Exception {
+		final AtomicReference<Map<String, String>> fromExecutor = new AtomicReference<>();
+		TraceeExecutors.executor(pool, backend).execute(copyContextTo(fromExecutor));
+		pool.submit(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}).get();
+		assertThat(fromExecutor.get(), is(Collections.singletonMap("key1", "value1")));
+
+		final AtomicReference<Map<String, String>> fromThread = new AtomicReference<>();
+		final Thread thread = TraceeExecutors.threadFactory(Executors.defaultThreadFactory(), backend).newThread(copyContextTo(fromThread));
+		thread.start();
+		thread.join();
+		assertThat(fromThread.get(), is(Collections.singletonMap("key1", "value1")));
+	}
+
+	@Test
+	public void forkJoinPoolShouldRunSubmittedTasksWithContextOfSubmitter() throws Exception {
+		final ForkJoinPool unit = TraceeExecutors.forkJoinPool(1, backend);
+		try {
+			assertThat(unit.submit(copyContext()).get(), is(Collections.singletonMap("key1", "value1")));
+			assertThat(unit.invoke(ForkJoinTask.adapt(copyContext())), is(Collections.singletonMap("key1", "value1")));
+			backend.clear();
+			assertThat(unit.submit(copyContext()).get().isEmpty(), is(true));
+		} finally {
+			unit.shutdownNow();
+		}
+	}
+
+	@Test
+	public void callInParallelShouldRunForkedSubtasksWithContextOfContextPool() throws Exception {
+		final ForkJoinPool pool = TraceeExecutors.contextForkJoinPool(4, backend, ContextSnapshots.snapshot(backend));
+		try {
+			for (int call = 0; call < 2; call++) {
+				final Set<Map<String, String>> contexts = Collections.newSetFromMap(new ConcurrentHashMap<Map<String, String>, Boolean>());
+				TraceeExecutors.callInParallel(backend, pool, new Callable<Void>() {
+					@Override
+					public Void call() {
+						final List<ForkJoinTask<?>> subtasks = new ArrayList<>();
+						for (int i = 0; i < 64; i++) {
+							subtasks.add(ForkJoinTask.adapt(copyContextTo(contexts)));
+						}
+						ForkJoinTask.invokeAll(subtasks);
+						return null;
+					}
+				});
+				assertThat(contexts, is(Collections.singleton(Collections.singletonMap("key1", "value1"))));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void callInParallelShouldCallTaskWithCurrentContextInSharedPool() throws Exception {
+		assertThat(TraceeExecutors.callInParallel(backend, ForkJoinPool.commonPool(), copyContext()),
+			is(Collections.singletonMap("key1", "value1")));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void callInParallelShouldRethrowFailureOfTask() throws Exception {
+		TraceeExecutors.callInParallel(backend, ForkJoinPool.commonPool(), new Callable<Void>() {
+			@Override
+			public Void call() {
+				throw new IllegalStateException("failed");
+			}
+		});
+	}
+
+	private static ExecutorService prestartedPool() {
+		final ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+		pool.prestartAllCoreThreads();
+		return pool;
+	}
+
+	private Callable<Map<String, String>> copyContext() {
+		return new Callable<Map<String, String>>() {
+			@Override
+			public Map<String, String> call() {
+				return backend.copyToMap();
+			}
+		};
+	}
+
+	private Runnable copyContextTo(final Set<Map<String, String>> target) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				target.add(backend.copyToMap());
+			}
+		};
+	}
+
+	private Runnable copyContextTo(final AtomicReference<Map<String, String>> target) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				target.set(backend.copyToMap());
+			}
+		};
+	}
+}
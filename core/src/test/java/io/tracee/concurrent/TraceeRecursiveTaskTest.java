@@ -0,0 +1,114 @@
+package io.tracee.concurrent;
+
+import io.tracee.BackendBase;
+import io.tracee.TraceeBackend;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TraceeRecursiveTaskTest {
+
+	private final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	@Before
+	public void before() {
+		backend.put("key1", "value1");
+	}
+
+	@After
+	public void after() {
+		backend.clear();
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void subtasksShouldComputeWithContextOfRootTask() {
+		final Set<Map<String, String>> contexts = Collections.newSetFromMap(new ConcurrentHashMap<Map<String, String>, Boolean>());
+		final int sum = pool.invoke(new SumTask(backend, 0, 1024, contexts));
+		assertThat(sum, is(1023 * 1024 / 2));
+		assertThat(contexts, is(Collections.singleton(Collections.singletonMap("key1", "value1"))));
+	}
+
+	@Test
+	public void subtasksShouldShareOneSnapshot() {
+		final Set<Map<String, String>> snapshots = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Map<String, String>, Boolean>()));
+		pool.invoke(new SnapshotAction(backend, 0, 1024, snapshots));
+		assertThat(snapshots.size(), is(1));
+	}
+
+	@Test
+	public void callerShouldKeepItsContext() {
+		backend.put("key2", "value2");
+		final SumTask task = new SumTask(backend, 0, 16, Collections.newSetFromMap(new ConcurrentHashMap<Map<String, String>, Boolean>()));
+		backend.remove("key2");
+		task.invoke();
+		assertThat(backend.copyToMap(), is(Collections.singletonMap("key1", "value1")));
+	}
+
+	private static final class SumTask extends TraceeRecursiveTask<Integer> {
+
+		private final int from;
+		private final int to;
+		private final Set<Map<String, String>> contexts;
+
+		SumTask(final TraceeBackend backend, final int from, final int to, final Set<Map<String, String>> contexts) {
+			super(backend);
+			this.from = from;
+			this.to = to;
+			this.contexts = contexts;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= 16) {
+				contexts.add(backend.copyToMap());
+				int sum = 0;
+				for (int i = from; i < to; i++) {
+					sum += i;
+				}
+				return sum;
+			}
+			final int middle = (from + to) / 2;
+			final SumTask left = new SumTask(backend, from, middle, contexts);
+			left.fork();
+			return new SumTask(backend, middle, to, contexts).compute() + left.join();
+		}
+	}
+
+	private static final class SnapshotAction extends TraceeRecursiveAction {
+
+		private final int from;
+		private final int to;
+		private final Set<Map<String, String>> snapshots;
+
+		SnapshotAction(final TraceeBackend backend, final int from, final int to, final Set<Map<String, String>> snapshots) {
+			super(backend);
+			this.from = from;
+			this.to = to;
+			this.snapshots = snapshots;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 16) {
+				snapshots.add(((BackendBase) backend).snapshot());
+				return;
+			}
+			final int middle = (from + to) / 2;
+			invokeAll(new SnapshotAction(backend, from, middle, snapshots), new SnapshotAction(backend, middle, to, snapshots));
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package io.tracee.configuration;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class KeyMatcherTest {
+
+	@Test
+	public void noneShouldMatchNothing() {
+		assertThat(KeyMatcher.NONE.matches("foo"), is(false));
+		assertThat(KeyMatcher.NONE.matches(""), is(false));
+	}
+
+	@Test
+	public void matchAllShouldMatchEverything() {
+		final KeyMatcher unit = compile("foo", ".*");
+		assertThat(unit.matches("bar"), is(true));
+		assertThat(unit.matches(""), is(true));
+	}
+
+	@Test
+	public void literalsShouldMatchExactly() {
+		final KeyMatcher unit = compile("invocationId", "sessionId");
+		assertThat(unit.matches("invocationId"), is(true));
+		assertThat(unit.matches("sessionId"), is(true));
+		assertThat(unit.matches("invocationIds"), is(false));
+		assertThat(unit.matches("session"), is(false));
+	}
+
+	@Test
+	public void dotInLiteralShouldStayWildcard() {
+		final KeyMatcher unit = compile("tracee.id");
+		assertThat(unit.matches("tracee.id"), is(true));
+		assertThat(unit.matches("tracee-id"), is(true));
+	}
+
+	@Test
+	public void escapedMetacharactersShouldBeLiteralOrPrefix() {
+		final KeyMatcher unit = compile("TPIC\\.invocationId", "tracee\\.business\\..*");
+		assertThat(unit.requiresRegexEvaluation(), is(false));
+		assertThat(unit.matches("TPIC.invocationId"), is(true));
+		assertThat(unit.matches("TPICxinvocationId"), is(false));
+		assertThat(unit.matches("tracee.business.key1"), is(true));
+		assertThat(unit.matches("tracee.businessXkey1"), is(false));
+	}
+
+	@Test
+	public void prefixesShouldMatchKeysStartingWithPrefix() {
+		final KeyMatcher unit = compile("tracee.*", "trace-.*", "x.*");
+		assertThat(unit.matches("tracee"), is(true));
+		assertThat(unit.matches("traceeFoo"), is(true));
+		assertThat(unit.matches("trace-"), is(true));
+		assertThat(unit.matches("trace-id"), is(true));
+		assertThat(unit.matches("xyz"), is(true));
+		assertThat(unit.matches("trace"), is(false));
+		assertThat(unit.matches("tracEe"), is(false));
+		assertThat(unit.matches("y"), is(false));
+	}
+
+	@Test
+	public void prefixesShouldNotMatchLineTerminatorsLikeRegex() {
+		final KeyMatcher unit = compile("foo.*");
+		assertThat(unit.matches("foo\nbar"), is(false));
+		assertThat(unit.matches("foobar"), is(true));
+	}
+
+	@Test
+	public void regexesShouldBeEvaluated() {
+		final KeyMatcher unit = compile("b[oa]+b", "foo");
+		assertThat(unit.matches("baab"), is(true));
+		assertThat(unit.matches("boob"), is(true));
+		assertThat(unit.matches("foo"), is(true));
+		assertThat(unit.matches("bb"), is(false));
+	}
+
+	@Test
+	public void shouldBehaveLikeRegexEvaluationOfEveryPattern() {
+		final List<String> expressions = Arrays.asList("foo", "foo.*", "f.o", "(foo|bar)", "x\\.y", "", "bar.+", "a.*b.*", "a\\.*",
+			"x\\..*", "x\\\\.*", "\\d");
+		final List<String> keys = Arrays.asList("foo", "fooBar", "fao", "bar", "x.y", "xzy", "", "bar", "barX", "ab", "aXbY", "foo\r", "a...", "a.", "x.", "x\\y", "1", "x\\");
+		for (String expression : expressions) {
+			final Pattern pattern = Pattern.compile(expression);
+			final KeyMatcher unit = compile(expression);
+			for (String key : keys) {
+				assertThat(expression + " / " + key, unit.matches(key), is(pattern.matcher(key).matches()));
+			}
+		}
+	}
+
+	private KeyMatcher compile(String... expressions) {
+		final List<Pattern> patterns = new ArrayList<>();
+		for (String expression : expressions) {
+			patterns.add(Pattern.compile(expression));
+		}
+		return KeyMatcher.compile(patterns);
+	}
+}
@@ -3,24 +3,36 @@ package io.tracee.configuration;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
+import static io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration.CODEC;
 import static io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration.Channel;
 import static io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration.GENERATE_INVOCATION_ID;
 import static io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration.GENERATE_SESSION_ID;
+import static io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration.INHERIT_CONTEXT;
+import static io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration.MAX_CACHED_DECISIONS;
+import static io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration.PROFILED_PREFIX;
+import static io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration.SPLIT_STABLE_KEYS;
 import static io.tracee.configuration.PropertiesBasedTraceeFilterConfiguration.TRACEE_DEFAULT_PROFILE_PREFIX;
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.AsyncDispatch;
 import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingRequest;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class PropertiesBasedTraceeFilterConfigurationTest {
@@ -152,4 +164,167 @@ public class PropertiesBasedTraceeFilterConfigurationTest {
 		final Map<String, String> unfiltered = Collections.singletonMap("Foo", "Bar");
 		assertThat(unit.filterDeniedParams(unfiltered, Channel.IncomingRequest), equalTo(unfiltered));
 	}
+
+	@Test
+	public void shouldReadPropertyChainOnlyOnce() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + AsyncDispatch.name())).thenReturn("foo");
+		assertTrue(unit.shouldProcessParam("foo", AsyncDispatch));
+		assertTrue(unit.shouldProcessContext(AsyncDispatch));
+		assertFalse(unit.shouldProcessParam("bar", AsyncDispatch));
+		unit.generatedInvocationIdLength();
+		verify(propertyChain, times(1)).getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + AsyncDispatch.name());
+		verify(propertyChain, times(1)).getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + GENERATE_INVOCATION_ID);
+	}
+
+	@Test
+	public void shouldPreferProfiledProperties() {
+		final PropertiesBasedTraceeFilterConfiguration profiledUnit = new PropertiesBasedTraceeFilterConfiguration(propertyChain, "Foo");
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + AsyncDispatch.name())).thenReturn("foo");
+		when(propertyChain.getProperty(PROFILED_PREFIX + "Foo." + AsyncDispatch.name())).thenReturn("bar");
+		assertFalse(profiledUnit.shouldProcessParam("foo", AsyncDispatch));
+		assertTrue(profiledUnit.shouldProcessParam("bar", AsyncDispatch));
+	}
+
+	@Test
+	public void codecNameShouldBeReadFromProfileOrDefault() {
+		final PropertiesBasedTraceeFilterConfiguration profiledUnit = new PropertiesBasedTraceeFilterConfiguration(propertyChain, "Foo");
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + CODEC)).thenReturn(" text ");
+		when(propertyChain.getProperty(PROFILED_PREFIX + "Foo." + CODEC)).thenReturn("binary");
+		assertThat(unit.codecName(), is("text"));
+		assertThat(profiledUnit.codecName(), is("binary"));
+	}
+
+	@Test
+	public void codecNameShouldBeNullIfUnset() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + CODEC)).thenReturn(" ");
+		assertThat(unit.codecName(), is(nullValue()));
+	}
+
+	@Test
+	public void splitStableKeysShouldBeReadFromProfileOrDefault() {
+		final PropertiesBasedTraceeFilterConfiguration profiledUnit = new PropertiesBasedTraceeFilterConfiguration(propertyChain, "Foo");
+		assertThat(unit.shouldSplitStableKeys(), is(false));
+		unit.reload();
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + SPLIT_STABLE_KEYS)).thenReturn(" TRUE ");
+		when(propertyChain.getProperty(PROFILED_PREFIX + "Foo." + SPLIT_STABLE_KEYS)).thenReturn("false");
+		assertThat(unit.shouldSplitStableKeys(), is(true));
+		assertThat(profiledUnit.shouldSplitStableKeys(), is(false));
+	}
+
+	@Test
+	public void reloadShouldApplyChangedProperties() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + GENERATE_SESSION_ID)).thenReturn("1");
+		assertThat(unit.generatedSessionIdLength(), equalTo(1));
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + GENERATE_SESSION_ID)).thenReturn("2");
+		assertThat(unit.generatedSessionIdLength(), equalTo(1));
+		final int generation = unit.generation();
+		unit.reload();
+		assertThat(unit.generatedSessionIdLength(), equalTo(2));
+		assertThat(unit.generation(), is(generation + 1));
+	}
+
+	@Test
+	public void shouldCacheDecisionsOfRegexPatterns() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + AsyncDispatch.name())).thenReturn("b[oa]+b");
+		assertTrue(unit.shouldProcessParam("baab", AsyncDispatch));
+		assertFalse(unit.shouldProcessParam("foo", AsyncDispatch));
+		assertTrue(unit.shouldProcessParam("baab", AsyncDispatch));
+		assertThat(unit.cachedDecisions(AsyncDispatch), is(2));
+	}
+
+	@Test
+	public void shouldNotCacheDecisionsOfLiteralPatterns() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + AsyncDispatch.name())).thenReturn("foo,bar.*");
+		assertTrue(unit.shouldProcessParam("foo", AsyncDispatch));
+		assertTrue(unit.shouldProcessParam("barFoo", AsyncDispatch));
+		assertThat(unit.cachedDecisions(AsyncDispatch), is(0));
+	}
+
+	@Test
+	public void decisionCacheShouldBeBounded() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + AsyncDispatch.name())).thenReturn("key[0-9]+");
+		for (int i = 0; i < MAX_CACHED_DECISIONS * 2; i++) {
+			assertTrue(unit.shouldProcessParam("key" + i, AsyncDispatch));
+			assertFalse(unit.shouldProcessParam("other" + i, AsyncDispatch));
+		}
+		assertThat(unit.cachedDecisions(AsyncDispatch), is(MAX_CACHED_DECISIONS));
+	}
+
+	@Test
+	public void reloadShouldDiscardCachedDecisions() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + AsyncDispatch.name())).thenReturn("b[oa]+b");
+		assertTrue(unit.shouldProcessParam("baab", AsyncDispatch));
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + AsyncDispatch.name())).thenReturn("f[o]+");
+		unit.reload();
+		assertFalse(unit.shouldProcessParam("baab", AsyncDispatch));
+		assertTrue(unit.shouldProcessParam("foo", AsyncDispatch));
+	}
+
+	@Test
+	public void filterDeniedParamsShouldReturnViewIfAllKeysPass() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + IncomingRequest.name())).thenReturn("Foo,Bar");
+		final Map<String, String> unfiltered = new HashMap<>();
+		unfiltered.put("Foo", "1");
+		unfiltered.put("Bar", "2");
+		final Map<String, String> filtered = unit.filterDeniedParams(unfiltered, IncomingRequest);
+		assertThat(filtered, equalTo(unfiltered));
+		unfiltered.put("Baz", "3");
+		assertThat(filtered.get("Baz"), is("3"));
+	}
+
+	@Test
+	public void filterDeniedParamsShouldReturnViewOnMatchAll() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + IncomingRequest.name())).thenReturn(".*");
+		final Map<String, String> unfiltered = Collections.singletonMap("Foo", "Bar");
+		assertThat(unit.filterDeniedParams(unfiltered, IncomingRequest), equalTo(unfiltered));
+	}
+
+	@Test
+	public void filterDeniedParamsShouldReturnOnlyAllowedEntries() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + IncomingRequest.name())).thenReturn("a.*");
+		final Map<String, String> unfiltered = new LinkedHashMap<>();
+		unfiltered.put("a1", "1");
+		unfiltered.put("a2", "2");
+		unfiltered.put("b1", "3");
+		unfiltered.put("a3", "4");
+		unfiltered.put("b2", "5");
+		final Map<String, String> expected = new HashMap<>();
+		expected.put("a1", "1");
+		expected.put("a2", "2");
+		expected.put("a3", "4");
+
+		final Map<String, String> filtered = unit.filterDeniedParams(unfiltered, IncomingRequest);
+		assertThat(filtered, equalTo(expected));
+		assertThat(filtered.size(), is(3));
+		assertThat(filtered.get("a3"), is("4"));
+		assertThat(filtered.containsKey("b1"), is(false));
+		assertThat(new ArrayList<>(filtered.keySet()), contains("a1", "a2", "a3"));
+	}
+
+	@Test
+	public void filterDeniedParamsShouldReturnEmptyMapIfNoKeyPasses() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + IncomingRequest.name())).thenReturn("a");
+		final Map<String, String> unfiltered = new HashMap<>();
+		unfiltered.put("b", "1");
+		unfiltered.put("c", "2");
+		assertThat(unit.filterDeniedParams(unfiltered, IncomingRequest).isEmpty(), is(true));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void filteredParamsShouldBeReadOnly() {
+		when(propertyChain.getProperty(TRACEE_DEFAULT_PROFILE_PREFIX + IncomingRequest.name())).thenReturn("a");
+		final Map<String, String> unfiltered = new HashMap<>();
+		unfiltered.put("a", "1");
+		unfiltered.put("b", "2");
+		unit.filterDeniedParams(unfiltered, IncomingRequest).put("c", "3");
+	}
+
+	@Test
+	public void contextShouldBeInheritableUnlessDisabled() {
+		assertThat(PropertiesBasedTraceeFilterConfiguration.isContextInheritable(propertyChain), is(true));
+		when(propertyChain.getProperty(INHERIT_CONTEXT)).thenReturn(" False ");
+		assertThat(PropertiesBasedTraceeFilterConfiguration.isContextInheritable(propertyChain), is(false));
+		when(propertyChain.getProperty(INHERIT_CONTEXT)).thenReturn("true");
+		assertThat(PropertiesBasedTraceeFilterConfiguration.isContextInheritable(propertyChain), is(true));
+	}
 }
@@ -0,0 +1,88 @@
+package io.tracee.transport;
+
+import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BinaryHeaderTransportTest {
+
+	private final BinaryHeaderTransport unit = new BinaryHeaderTransport();
+	private final HttpHeaderTransport httpHeaderTransport = new HttpHeaderTransport();
+
+	@Test
+	public void renderAndParseShouldRoundTrip() {
+		final Map<String, String> context = new HashMap<>();
+		context.put(TraceeConstants.INVOCATION_ID_KEY, "ANU0N88T6YASTEVHN9VK0HJ75SXB87ZQ");
+		context.put(TraceeConstants.SESSION_ID_KEY, "");
+		context.put("custom key", "ümlaut, = & 😀");
+		context.put("long", repeat('x', 300));
+		assertThat(unit.parse(unit.render(context)), is(context));
+	}
+
+	@Test
+	public void renderEmptyContextShouldOnlyContainMarker() {
+		final byte[] rendered = unit.render(Collections.<String, String>emptyMap());
+		assertThat(rendered.length, is(1));
+		assertThat(BinaryHeaderTransport.isBinaryForm(rendered), is(true));
+		assertThat(unit.parse(rendered).isEmpty(), is(true));
+	}
+
+	@Test
+	public void wellKnownKeysShouldBeReplacedByDictionaryReference() {
+		final byte[] rendered = unit.render(Collections.singletonMap(TraceeConstants.INVOCATION_ID_KEY, "abc"));
+		assertThat(rendered, is(new byte[]{BinaryHeaderTransport.FORMAT_MARKER, 1, 3, 'a', 'b', 'c'}));
+	}
+
+	@Test
+	public void binaryFormShouldBeSmallerThanTextForm() {
+		final Map<String, String> context = Collections.singletonMap(TraceeConstants.INVOCATION_ID_KEY, "ANU0N88T6YASTEVHN9VK0HJ75SXB87ZQ");
+		assertThat(unit.render(context).length < httpHeaderTransport.render(context).length(), is(true));
+	}
+
+	@Test
+	public void shouldTellBinaryFromTextForm() {
+		final Map<String, String> context = Collections.singletonMap("a", "b");
+		assertThat(BinaryHeaderTransport.isBinaryForm(unit.render(context)), is(true));
+		assertThat(BinaryHeaderTransport.isBinaryForm(httpHeaderTransport.render(context).getBytes(Utilities.CHARSET_UTF8)), is(false));
+		assertThat(BinaryHeaderTransport.isBinaryForm(null), is(false));
+		assertThat(BinaryHeaderTransport.isBinaryForm(new byte[0]), is(false));
+	}
+
+	@Test
+	public void parseShouldIgnoreTextForm() {
+		assertThat(unit.parse(new byte[]{'a', '=', 'b'}).isEmpty(), is(true));
+	}
+
+	@Test
+	public void parseShouldSkipPairsWithUnknownDictionaryReference() {
+		final byte[] serialized = {BinaryHeaderTransport.FORMAT_MARKER, 100, 1, 'x', 0, 1, 'a', 1, 'b'};
+		assertThat(unit.parse(serialized), is(Collections.singletonMap("a", "b")));
+	}
+
+	@Test
+	public void parseShouldDiscardTruncatedInput() {
+		final byte[] serialized = {BinaryHeaderTransport.FORMAT_MARKER, 0, 1, 'a', 1, 'b', 0, 5, 'c'};
+		assertThat(unit.parse(serialized).isEmpty(), is(true));
+	}
+
+	@Test
+	public void parseShouldDiscardOverlongVarint() {
+		final byte[] serialized = {BinaryHeaderTransport.FORMAT_MARKER, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 1};
+		assertThat(unit.parse(serialized).isEmpty(), is(true));
+	}
+
+	private static String repeat(char c, int times) {
+		final StringBuilder sb = new StringBuilder(times);
+		for (int i = 0; i < times; i++) {
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+}
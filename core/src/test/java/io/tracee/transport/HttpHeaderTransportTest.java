@@ -1,12 +1,15 @@
 package io.tracee.transport;
 
 import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
 import io.tracee.testhelper.SimpleTraceeBackend;
 import org.junit.Test;
 
+import java.net.URLEncoder;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -16,6 +19,7 @@ import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class HttpHeaderTransportTest {
@@ -144,6 +148,86 @@ public class HttpHeaderTransportTest {
 		assertThat(context.size(), is(3));
 	}
 
+	@Test
+	public void renderShouldBeIdenticalToUrlEncoder() throws Exception {
+		final List<String> samples = Arrays.asList("plain-Value_1.*", " padded ", "a b+c", "!\"§$%&@/( )=?", "ö üäß€",
+			"\uD83D\uDE00 smile", "broken\uD800surrogate", "\uDC00lonely", "tab\tinside", "");
+		for (String sample : samples) {
+			final Map<String, String> context = new LinkedHashMap<>();
+			context.put(sample, sample);
+			final String encoded = URLEncoder.encode(sample.trim(), HttpHeaderTransport.ENCODING_CHARSET);
+			assertThat(UNIT.render(context), is(encoded + "=" + encoded));
+		}
+	}
+
+	@Test
+	public void renderShouldUseCanonicalOrderRegardlessOfIterationOrder() {
+		final Map<String, String> context = new LinkedHashMap<>();
+		context.put("b", "2");
+		context.put(TraceeConstants.SESSION_ID_KEY, "s");
+		context.put("a", "1");
+		context.put(TraceeConstants.INVOCATION_ID_KEY, "i");
+		context.put("", "");
+		final String canonical = "TPIC.invocationId=i,TPIC.sessionId=s,=,a=1,b=2";
+		assertThat(UNIT.render(context), is(canonical));
+		assertThat(UNIT.render(new HashMap<>(context)), is(canonical));
+	}
+
+	@Test
+	public void renderShouldSplitStableKeysIntoSeparateHeader() {
+		final Map<String, String> context = new HashMap<>();
+		context.put("b", "2");
+		context.put(TraceeConstants.INVOCATION_ID_KEY, "i");
+		context.put("a", "1");
+		final StringBuilder stableHeader = new StringBuilder();
+		final StringBuilder volatileHeader = new StringBuilder();
+		UNIT.render(context, stableHeader, volatileHeader);
+		assertThat(stableHeader.toString(), is("TPIC.invocationId=i"));
+		assertThat(volatileHeader.toString(), is("a=1,b=2"));
+
+		final StringBuilder singleVolatileHeader = new StringBuilder();
+		UNIT.render(Collections.singletonMap("a", "1"), stableHeader, singleVolatileHeader);
+		assertThat(singleVolatileHeader.toString(), is("a=1"));
+	}
+
+	@Test
+	public void parseShouldRestoreRenderedContext() {
+		final Map<String, String> context = new HashMap<>();
+		context.put("ö üäß", "Ö ÜÄß€");
+		context.put("emoji", "\uD83D\uDE00+%");
+		context.put("plain", "value");
+		assertThat(UNIT.parse(UNIT.render(context)), is(context));
+	}
+
+	@Test
+	public void parseShouldReturnSameInstanceForUnescapedHeader() {
+		final String header = "value1";
+		assertThat(HttpHeaderTransport.decode(header, 0, header.length()), sameInstance(header));
+	}
+
+	@Test
+	public void skipPairWithMalformedEscapeSequence() {
+		final Map<String, String> context = UNIT.parse("key1=%zz,key2=value%2,key3=%41%42");
+		assertThat(context, hasEntry("key3", "AB"));
+		assertThat(context.size(), is(1));
+	}
+
+	@Test
+	public void parseCharSequenceThatIsNoString() {
+		final Map<String, String> context = UNIT.parse(new StringBuilder(" key1=value1,key%3D2=a%2Bb+c "));
+		assertThat(context, hasEntry("key1", "value1"));
+		assertThat(context, hasEntry("key=2", "a+b c"));
+		assertThat(context.size(), is(2));
+	}
+
+	@Test
+	public void ignoreTrailingEqualSigns() {
+		final Map<String, String> context = UNIT.parse("key1=value1=,key2==,=value3");
+		assertThat(context, hasEntry("key1", "value1"));
+		assertThat(context, hasEntry("", "value3"));
+		assertThat(context.size(), is(2));
+	}
+
 	private int countChars(String str, char c) {
 		int charcount = 0;
 		final char[] charArray = str.toCharArray();
@@ -153,4 +237,12 @@ public class HttpHeaderTransportTest {
 		}
 		return charcount;
 	}
+
+	@Test
+	public void renderIntoBuilderShouldAppendToExistingHeader() {
+		final StringBuilder header = new StringBuilder("a=1");
+		UNIT.render(Collections.singletonMap("b", "2 3"), header);
+		UNIT.appendPair(header, "c", "4");
+		assertThat(header.toString(), is("a=1,b=2+3,c=4"));
+	}
 }
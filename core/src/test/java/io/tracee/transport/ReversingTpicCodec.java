@@ -0,0 +1,50 @@
+package io.tracee.transport;
+
+import io.tracee.spi.TpicCodec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codec that is registered as service for tests: a marker byte followed by the reversed text form.
+ */
+public class ReversingTpicCodec implements TpicCodec {
+
+	static final String NAME = "reversing";
+	private static final byte MARKER = 0x01;
+
+	private final TextTpicCodec textCodec = new TextTpicCodec();
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public boolean canDecode(byte[] serialized) {
+		return serialized.length > 0 && serialized[0] == MARKER;
+	}
+
+	@Override
+	public byte[] encode(Map<String, String> context) {
+		final byte[] text = textCodec.encode(context);
+		final byte[] serialized = new byte[text.length + 1];
+		serialized[0] = MARKER;
+		for (int i = 0; i < text.length; i++) {
+			serialized[i + 1] = text[text.length - 1 - i];
+		}
+		return serialized;
+	}
+
+	@Override
+	public Map<String, String> decode(byte[] serialized) {
+		if (!canDecode(serialized)) {
+			return new HashMap<>();
+		}
+		final byte[] text = new byte[serialized.length - 1];
+		for (int i = 0; i < text.length; i++) {
+			text[i] = serialized[serialized.length - 1 - i];
+		}
+		return textCodec.decode(text);
+	}
+}
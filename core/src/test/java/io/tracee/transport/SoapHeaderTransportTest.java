@@ -7,7 +7,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -17,22 +19,40 @@ import javax.xml.soap.MessageFactory;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPHeader;
 import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
+import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class SoapHeaderTransportTest {
@@ -151,4 +171,114 @@ public class SoapHeaderTransportTest {
 		final Map<String, String> assertContext = unit.parseTpicHeader(new StreamSource(new StringReader(writer.toString())));
 		assertThat(assertContext, Matchers.is(initContext));
 	}
+
+	@Test
+	public void parseSoapHeaderShouldOnlyReadDirectChildren() throws Exception {
+		final String header = "<Header xmlns:t=\"http://tracee.io/tpic/1.0\">"
+			+ "<t:TPIC><t:entry key=\"direct\">yes</t:entry></t:TPIC>"
+			+ "<other><t:TPIC><t:entry key=\"nested\">no</t:entry></t:TPIC></other>"
+			+ "</Header>";
+		final Map<String, String> context = unit.parseSoapHeader(parse(header));
+		assertThat(context, hasEntry("direct", "yes"));
+		assertThat(context.size(), is(1));
+	}
+
+	@Test
+	public void parseTpicHeaderShouldSkipEntriesWithoutKeyAndForeignElements() throws Exception {
+		final String header = "<TPIC xmlns=\"http://tracee.io/tpic/1.0\">"
+			+ "<entry>noKey</entry><entry key=\"a\">1</entry><entry xmlns=\"urn:other\" key=\"b\">2</entry><entry key=\"c\"/>"
+			+ "</TPIC>";
+		final Map<String, String> expected = new HashMap<>();
+		expected.put("a", "1");
+		expected.put("c", "");
+		assertThat(unit.parseTpicHeader(parse(header)), is(expected));
+		assertThat(unit.parseTpicHeader(new StreamSource(new StringReader(header))), is(expected));
+	}
+
+	@Test
+	public void parseTpicHeaderFromStaxAndSaxSources() throws Exception {
+		final String header = "<TPIC xmlns=\"http://tracee.io/tpic/1.0\"><entry key=\"a\">1</entry></TPIC>";
+		final XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(header));
+		assertThat(unit.parseTpicHeader(new StAXSource(reader)), hasEntry("a", "1"));
+		assertThat(unit.parseTpicHeader(new SAXSource(new InputSource(new StringReader(header)))), hasEntry("a", "1"));
+	}
+
+	@Test
+	public void parseTpicHeaderShouldNotResolveExternalEntities() throws Exception {
+		final File secret = File.createTempFile("tracee-xxe", ".txt");
+		secret.deleteOnExit();
+		try (Writer writer = new FileWriter(secret)) {
+			writer.write("secret");
+		}
+		final String header = "<!DOCTYPE TPIC [<!ENTITY xxe SYSTEM \"" + secret.toURI() + "\">]>"
+			+ "<TPIC xmlns=\"http://tracee.io/tpic/1.0\"><entry key=\"a\">&xxe;</entry></TPIC>";
+		assertThat(unit.parseTpicHeader(new SAXSource(new InputSource(new StringReader(header)))), not(hasEntry("a", "secret")));
+		assertThat(unit.parseTpicHeader(new StreamSource(new StringReader(header))), not(hasEntry("a", "secret")));
+	}
+
+	@Test
+	public void parseTpicHeaderShouldReturnEmptyMapOnMalformedXml() {
+		assertThat(unit.parseTpicHeader(new StreamSource(new StringReader("<TPIC><entry"))).size(), is(0));
+	}
+
+	@Test
+	public void renderTpicContextToDomResultAndParseIt() {
+		final Map<String, String> context = new HashMap<>();
+		context.put("a", "1 & <2>");
+		context.put("b", "");
+		final DOMResult result = new DOMResult();
+		unit.renderSoapHeader(context, result);
+
+		final Element tpicHeader = ((Document) result.getNode()).getDocumentElement();
+		assertThat(tpicHeader.getLocalName(), is(TraceeConstants.TPIC_HEADER));
+		assertThat(tpicHeader.getNamespaceURI(), is(TraceeConstants.SOAP_HEADER_NAMESPACE));
+		assertThat(unit.parseTpicHeader(tpicHeader), is(context));
+		assertThat(unit.parseTpicHeader(new DOMSource(result.getNode())), is(context));
+	}
+
+	@Test
+	public void renderedSoapHeaderShouldBeReadableByJaxb() throws Exception {
+		final SOAPHeader soapHeader = soapMessage.getSOAPHeader();
+		unit.renderSoapHeader(Collections.singletonMap("FOO", "BAR"), soapHeader);
+		final Element tpicHeader = (Element) soapHeader.getChildElements(TraceeConstants.SOAP_HEADER_QNAME).next();
+		final TpicMap tpicMap = JAXBContext.newInstance(TpicMap.class).createUnmarshaller().unmarshal(tpicHeader, TpicMap.class).getValue();
+		assertThat(tpicMap.unwrapValues(), is(Collections.singletonMap("FOO", "BAR")));
+	}
+
+	@Test
+	public void getInstanceShouldReturnSharedInstance() {
+		assertThat(SoapHeaderTransport.getInstance(), is(sameInstance(SoapHeaderTransport.getInstance())));
+	}
+
+	@Test
+	public void sharedInstanceShouldBeUsableFromSeveralThreads() throws Exception {
+		final SoapHeaderTransport sharedUnit = SoapHeaderTransport.getInstance();
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<Map<String, String>>> results = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				final Map<String, String> context = Collections.singletonMap("key", "value" + i);
+				results.add(executor.submit(new Callable<Map<String, String>>() {
+					@Override
+					public Map<String, String> call() {
+						sharedUnit.renderSoapHeader(context, new SAXResult(new DefaultHandler()));
+						final StringWriter writer = new StringWriter();
+						sharedUnit.renderSoapHeader(context, new StreamResult(writer));
+						return sharedUnit.parseTpicHeader(new SAXSource(new InputSource(new StringReader(writer.toString()))));
+					}
+				}));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				assertThat(results.get(i).get(), is(Collections.singletonMap("key", "value" + i)));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Element parse(String xml) throws Exception {
+		final DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+		dbFactory.setNamespaceAware(true);
+		return dbFactory.newDocumentBuilder().parse(new InputSource(new StringReader(xml))).getDocumentElement();
+	}
 }
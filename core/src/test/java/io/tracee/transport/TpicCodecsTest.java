@@ -0,0 +1,89 @@
+package io.tracee.transport;
+
+import io.tracee.TraceeConstants;
+import io.tracee.Utilities;
+import io.tracee.configuration.TpicEncodingConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.spi.TpicCodec;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class TpicCodecsTest {
+
+	private final Map<String, String> context = new HashMap<>();
+
+	{
+		context.put(TraceeConstants.INVOCATION_ID_KEY, "ANU0N88T6YASTEVHN9VK0HJ75SXB87ZQ");
+		context.put("custom key", "ümlaut, = & <xml/>");
+	}
+
+	@Test
+	public void shouldProvideBuiltinCodecsByName() {
+		assertThat(TpicCodecs.forName(TextTpicCodec.NAME), instanceOf(TextTpicCodec.class));
+		assertThat(TpicCodecs.forName(BinaryTpicCodec.NAME), instanceOf(BinaryTpicCodec.class));
+		assertThat(TpicCodecs.forName(SoapTpicCodec.NAME), instanceOf(SoapTpicCodec.class));
+		assertThat(TpicCodecs.forName("unknown"), is(nullValue()));
+	}
+
+	@Test
+	public void shouldLoadCodecsRegisteredAsService() {
+		assertThat(TpicCodecs.forName(ReversingTpicCodec.NAME), instanceOf(ReversingTpicCodec.class));
+	}
+
+	@Test
+	public void everyCodecShouldRoundTripAndBeDetected() {
+		for (String name : new String[]{TextTpicCodec.NAME, BinaryTpicCodec.NAME, SoapTpicCodec.NAME, ReversingTpicCodec.NAME}) {
+			final TpicCodec codec = TpicCodecs.forName(name);
+			final byte[] serialized = codec.encode(context);
+			assertThat(name, TpicCodecs.detect(serialized), is(codec));
+			assertThat(name, TpicCodecs.decode(serialized), is(context));
+		}
+	}
+
+	@Test
+	public void shouldDetectTextFormOfHttpHeaderTransport() {
+		final byte[] serialized = new HttpHeaderTransport().render(context).getBytes(Utilities.CHARSET_UTF8);
+		assertThat(TpicCodecs.detect(serialized), instanceOf(TextTpicCodec.class));
+	}
+
+	@Test
+	public void shouldDetectTextFormWithUnencodedCharacters() {
+		final byte[] serialized = "path=/a/b~c!,user=m\u00fcller@host:80".getBytes(Utilities.CHARSET_UTF8);
+		assertThat(TpicCodecs.detect(serialized), instanceOf(TextTpicCodec.class));
+		assertThat(TpicCodecs.decode(serialized), hasEntry("path", "/a/b~c!"));
+		assertThat(TpicCodecs.decode(serialized), hasEntry("user", "m\u00fcller@host:80"));
+	}
+
+	@Test
+	public void decodeShouldReadUnknownFormatAsTextForm() {
+		assertThat(TpicCodecs.detect(new byte[]{(byte) 0xFF, 'a'}), instanceOf(TextTpicCodec.class));
+		assertThat(TpicCodecs.decode(new byte[]{(byte) 0xFF, 'a'}).isEmpty(), is(true));
+	}
+
+	@Test
+	public void forConfigurationShouldResolveConfiguredCodec() {
+		final TraceeFilterConfiguration configuration = mock(TraceeFilterConfiguration.class,
+			withSettings().extraInterfaces(TpicEncodingConfiguration.class));
+		assertThat(TpicCodecs.forConfiguration(configuration), is(nullValue()));
+		when(((TpicEncodingConfiguration) configuration).codecName()).thenReturn(BinaryTpicCodec.NAME);
+		assertThat(TpicCodecs.forConfiguration(configuration), instanceOf(BinaryTpicCodec.class));
+		when(((TpicEncodingConfiguration) configuration).codecName()).thenReturn("unknown");
+		assertThat(TpicCodecs.forConfiguration(configuration), is(nullValue()));
+	}
+
+	@Test
+	public void forConfigurationShouldUseDefaultOfBindingForConfigurationWithoutEncoding() {
+		assertThat(TpicCodecs.forConfiguration(mock(TraceeFilterConfiguration.class)), is(nullValue()));
+	}
+}
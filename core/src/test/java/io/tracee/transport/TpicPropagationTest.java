@@ -0,0 +1,179 @@
+package io.tracee.transport;
+
+import io.tracee.TraceeBackend;
+import io.tracee.TraceeConstants;
+import io.tracee.backend.slf4j.Slf4jTraceeBackendProvider;
+import io.tracee.configuration.TpicEncodingConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration;
+import io.tracee.configuration.TraceeFilterConfiguration.Channel;
+import io.tracee.testhelper.SimpleTraceeBackend;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.IncomingRequest;
+import static io.tracee.configuration.TraceeFilterConfiguration.Channel.OutgoingRequest;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class TpicPropagationTest {
+
+	private final HttpHeaderTransport transport = new HttpHeaderTransport();
+
+	@Test
+	public void renderShouldFilterAndRenderContextOfGenericBackends() {
+		final SimpleTraceeBackend backend = SimpleTraceeBackend.createNonLoggingAllPermittingBackend();
+		backend.put("key1", "value1");
+		assertThat(TpicPropagation.render(backend, backend.getConfiguration(), OutgoingRequest, transport), is("key1=value1"));
+	}
+
+	@Test
+	public void renderShouldUseGivenConfiguration() {
+		final TraceeBackend backend = mock(TraceeBackend.class);
+		final TraceeFilterConfiguration configuration = mock(TraceeFilterConfiguration.class);
+		final Map<String, String> filtered = Collections.singletonMap("allowed", "yes");
+		when(configuration.filterDeniedParams(anyMapOf(String.class, String.class), eq(OutgoingRequest))).thenReturn(filtered);
+
+		assertThat(TpicPropagation.render(backend, configuration, OutgoingRequest, transport), is("allowed=yes"));
+		verify(backend).copyToMap();
+	}
+
+	@Test
+	public void ingestShouldPutAllowedPairsIntoBackendBase() {
+		final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+		final TraceeFilterConfiguration configuration = mock(TraceeFilterConfiguration.class);
+		when(configuration.shouldProcessParam("allowed", IncomingRequest)).thenReturn(true);
+		try {
+			TpicPropagation.ingest(backend, configuration, IncomingRequest, transport, Arrays.asList("allowed=yes,denied=no", "allowed=again"));
+			assertThat(backend.copyToMap(), is(Collections.singletonMap("allowed", "again")));
+			verify(configuration, never()).filterDeniedParams(anyMapOf(String.class, String.class), any(Channel.class));
+		} finally {
+			backend.clear();
+		}
+	}
+
+	@Test
+	public void ingestShouldPutAllowedEntriesOfContextIntoBackendBase() {
+		final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+		final TraceeFilterConfiguration configuration = mock(TraceeFilterConfiguration.class);
+		when(configuration.shouldProcessParam("allowed", IncomingRequest)).thenReturn(true);
+		final Map<String, String> context = new HashMap<>();
+		context.put("allowed", "yes");
+		context.put("denied", "no");
+		try {
+			TpicPropagation.ingest(backend, configuration, IncomingRequest, context);
+			assertThat(backend.copyToMap(), is(Collections.singletonMap("allowed", "yes")));
+		} finally {
+			backend.clear();
+		}
+	}
+
+	@Test
+	public void ingestShouldFilterAndPutParsedContextIntoGenericBackends() {
+		final TraceeBackend backend = mock(TraceeBackend.class);
+		final TraceeFilterConfiguration configuration = mock(TraceeFilterConfiguration.class);
+		final Map<String, String> filtered = Collections.singletonMap("allowed", "yes");
+		when(configuration.filterDeniedParams(Collections.singletonMap("a", "b"), IncomingRequest)).thenReturn(filtered);
+
+		TpicPropagation.ingest(backend, configuration, IncomingRequest, transport, Collections.singletonList("a=b"));
+		verify(backend).putAll(filtered);
+	}
+
+	@Test
+	public void ingestShouldFilterAndPutContextIntoGenericBackends() {
+		final SimpleTraceeBackend backend = SimpleTraceeBackend.createNonLoggingAllPermittingBackend();
+		TpicPropagation.ingest(backend, backend.getConfiguration(), IncomingRequest, Collections.singletonMap("a", "b"));
+		assertThat(backend.get("a"), is("b"));
+	}
+
+	@Test
+	public void renderShouldAppendFilteredContextOfBackendBaseToBuilder() {
+		final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+		final TraceeFilterConfiguration configuration = mock(TraceeFilterConfiguration.class);
+		when(configuration.shouldProcessParam("allowed", OutgoingRequest)).thenReturn(true);
+		backend.put("allowed", "yes");
+		backend.put("denied", "no");
+		try {
+			final StringBuilder header = new StringBuilder();
+			TpicPropagation.render(backend, configuration, OutgoingRequest, transport, header);
+			assertThat(header.toString(), is("allowed=yes"));
+			assertThat(TpicPropagation.render(backend, configuration, OutgoingRequest, transport), is("allowed=yes"));
+		} finally {
+			backend.clear();
+		}
+	}
+
+	@Test
+	public void renderShouldAppendFilteredContextOfGenericBackendsToBuilder() {
+		final SimpleTraceeBackend backend = SimpleTraceeBackend.createNonLoggingAllPermittingBackend();
+		backend.put("key1", "value1");
+		final StringBuilder header = new StringBuilder();
+		TpicPropagation.render(backend, backend.getConfiguration(), OutgoingRequest, transport, header);
+		assertThat(header.toString(), is("key1=value1"));
+	}
+
+	@Test
+	public void renderFieldsShouldSplitStableKeysOfBackendBase() {
+		final TraceeBackend backend = new Slf4jTraceeBackendProvider().provideBackend();
+		final TraceeFilterConfiguration configuration = mock(TraceeFilterConfiguration.class,
+			withSettings().extraInterfaces(TpicEncodingConfiguration.class));
+		when(configuration.shouldProcessParam(any(String.class), eq(OutgoingRequest))).thenReturn(true);
+		when(((TpicEncodingConfiguration) configuration).shouldSplitStableKeys()).thenReturn(true);
+		backend.put("key2", "value2");
+		backend.put(TraceeConstants.INVOCATION_ID_KEY, "i");
+		backend.put("key1", "value1");
+		try {
+			final List<String> fields = TpicPropagation.renderFields(backend, configuration, OutgoingRequest, transport);
+			assertThat(fields, contains("TPIC.invocationId=i", "key1=value1,key2=value2"));
+			assertThat(TpicPropagation.renderFields(backend, configuration, OutgoingRequest, transport), is(sameInstance(fields)));
+			assertThat(TpicPropagation.render(backend, configuration, OutgoingRequest, transport), is("TPIC.invocationId=i,key1=value1,key2=value2"));
+			backend.remove(TraceeConstants.INVOCATION_ID_KEY);
+			assertThat(TpicPropagation.renderFields(backend, configuration, OutgoingRequest, transport), contains("key1=value1,key2=value2"));
+			backend.clear();
+			assertThat(TpicPropagation.renderFields(backend, configuration, OutgoingRequest, transport), is(empty()));
+		} finally {
+			backend.clear();
+		}
+	}
+
+	@Test
+	public void renderFieldsShouldRenderSingleFieldUnlessStableKeysAreSplit() {
+		final SimpleTraceeBackend backend = SimpleTraceeBackend.createNonLoggingAllPermittingBackend();
+		backend.put("key1", "value1");
+		backend.put(TraceeConstants.SESSION_ID_KEY, "s");
+		assertThat(TpicPropagation.renderFields(backend, backend.getConfiguration(), OutgoingRequest, transport),
+			contains("TPIC.sessionId=s,key1=value1"));
+
+		final TraceeFilterConfiguration configuration = mock(TraceeFilterConfiguration.class,
+			withSettings().extraInterfaces(TpicEncodingConfiguration.class));
+		when(configuration.filterDeniedParams(anyMapOf(String.class, String.class), eq(OutgoingRequest))).thenReturn(backend.copyToMap());
+		when(((TpicEncodingConfiguration) configuration).shouldSplitStableKeys()).thenReturn(true);
+		assertThat(TpicPropagation.renderFields(backend, configuration, OutgoingRequest, transport), contains("TPIC.sessionId=s", "key1=value1"));
+	}
+
+	@Test
+	public void writeFieldsShouldReplaceHeaderWithFirstFieldAndAddTheOthers() {
+		final TpicPropagation.HeaderWriter writer = mock(TpicPropagation.HeaderWriter.class);
+		TpicPropagation.writeFields(Arrays.asList("TPIC.sessionId=s", "key1=value1"), writer);
+		final InOrder inOrder = inOrder(writer);
+		inOrder.verify(writer).setHeader(TraceeConstants.TPIC_HEADER, "TPIC.sessionId=s");
+		inOrder.verify(writer).addHeader(TraceeConstants.TPIC_HEADER, "key1=value1");
+	}
+}